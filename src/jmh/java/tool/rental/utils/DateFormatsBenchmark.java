@@ -0,0 +1,119 @@
+package tool.rental.utils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.text.SimpleDateFormat;
+import java.time.Instant;
+import java.util.Date;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the cost of formatting the dates of a rental report row: the rental date, {@value
+ * DateFormats#DATE_PATTERN}, and the devolution date, {@value DateFormats#DATE_TIME_PATTERN}, through a
+ * {@link SimpleDateFormat} built on every call, as rentals used to, through the cached
+ * {@link java.time.format.DateTimeFormatter} of {@link DateFormats}, and through its hand-written fast path.
+ * <p>
+ * Rentals are listed in date order, a few per day, as reports list them. Run with
+ * {@code mvn -P benchmark package && java -jar target/benchmarks.jar DateFormatsBenchmark}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DateFormatsBenchmark {
+
+    /**
+     * The number of rentals formatted in turn.
+     */
+    private static final int ROWS = 100_000;
+
+    /**
+     * The rental timestamps, in date order.
+     */
+    private final long[] rentals = new long[ROWS];
+
+    /**
+     * The devolution timestamps, a few days after each rental.
+     */
+    private final long[] devolutions = new long[ROWS];
+
+    /**
+     * The row formatted next.
+     */
+    private int row = 0;
+
+    /**
+     * Generates the rentals, from a fixed seed so that every run formats the same ones.
+     */
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        long timestamp = Instant.parse("2020-01-01T08:00:00Z").toEpochMilli();
+
+        for (int i = 0; i < ROWS; i++) {
+            timestamp += random.nextInt(6 * 60 * 60 * 1000);
+            this.rentals[i] = timestamp;
+            this.devolutions[i] = timestamp + random.nextInt(14 * 24 * 60 * 60 * 1000);
+        }
+    }
+
+    /**
+     * Returns the index of the row to format, going through the rentals in order.
+     *
+     * @return the row index
+     */
+    private int nextRow() {
+        int current = this.row;
+        this.row = current + 1 == ROWS ? 0 : current + 1;
+        return current;
+    }
+
+    /**
+     * Formats a row through a new {@link SimpleDateFormat} per date.
+     *
+     * @param blackhole consumes the text
+     */
+    @Benchmark
+    public void simpleDateFormat(Blackhole blackhole) {
+        int i = this.nextRow();
+        blackhole.consume(new SimpleDateFormat(DateFormats.DATE_PATTERN).format(new Date(this.rentals[i])));
+        blackhole.consume(new SimpleDateFormat(DateFormats.DATE_TIME_PATTERN).format(new Date(this.devolutions[i])));
+    }
+
+    /**
+     * Formats a row through the cached formatters of {@link DateFormats#formatter(String)}.
+     *
+     * @param blackhole consumes the text
+     */
+    @Benchmark
+    public void cachedFormatter(Blackhole blackhole) {
+        int i = this.nextRow();
+        blackhole.consume(DateFormats.formatter(DateFormats.DATE_PATTERN).format(Instant.ofEpochMilli(this.rentals[i])));
+        blackhole.consume(DateFormats.formatter(DateFormats.DATE_TIME_PATTERN).format(Instant.ofEpochMilli(this.devolutions[i])));
+    }
+
+    /**
+     * Formats a row through {@link DateFormats#formatDate(long)} and {@link DateFormats#formatDateTime(long)}.
+     *
+     * @param blackhole consumes the text
+     */
+    @Benchmark
+    public void fastPath(Blackhole blackhole) {
+        int i = this.nextRow();
+        blackhole.consume(DateFormats.formatDate(this.rentals[i]));
+        blackhole.consume(DateFormats.formatDateTime(this.devolutions[i]));
+    }
+}
@@ -1,21 +1,43 @@
 package tool.rental.app;
 
 
+import tool.rental.domain.dao.ImportReport;
+import tool.rental.domain.dao.RentalReportFilter;
+import tool.rental.domain.dao.UserStatsMismatch;
 import tool.rental.domain.entities.Cache;
-import tool.rental.domain.infra.db.DataBase;
+import tool.rental.domain.entities.User;
+import tool.rental.domain.infra.db.ConnectionPool;
+import tool.rental.domain.infra.db.SchemaMigrator;
 import tool.rental.domain.repositories.CacheRepository;
+import tool.rental.domain.repositories.UserRepository;
+import tool.rental.domain.use_cases.CheckUserStatsUseCase;
+import tool.rental.domain.use_cases.ExportRentalReportUseCase;
+import tool.rental.domain.use_cases.ImportCsvUseCase;
+import tool.rental.domain.use_cases.ImportFriendsUseCase;
+import tool.rental.domain.use_cases.ImportToolsUseCase;
+import tool.rental.domain.use_cases.RebuildSearchIndexUseCase;
+import tool.rental.utils.DateFormats;
+import tool.rental.utils.Logger;
 import tool.rental.utils.PresentationFrame;
 import tool.rental.utils.Toast;
 import tool.rental.utils.ToastError;
 
-import java.sql.PreparedStatement;
-import java.sql.SQLException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 
 /**
  * The main application class.
  */
 public class App {
 
+    /**
+     * The logger of this class.
+     */
+    private static final Logger LOGGER = Logger.getLogger(App.class);
+
     /**
      * The cache repository used to store and retrieve cache data.
      */
@@ -29,7 +51,11 @@ public class App {
      */
     public static void main(String[] args) throws Exception {
         try {
-            setupDB();
+            new SchemaMigrator().migrate();
+            reportDataBaseProfile();
+            if (runCommand(args)) {
+                return;
+            }
             runApp();
         } catch (Toast exc) {
             exc.display();
@@ -58,112 +84,168 @@ public class App {
     }
 
     /**
-     * Sets up the database by executing a series of SQL queries.
+     * Runs the maintenance command given on the command line, if any, instead of the application.
+     * <p>
+     * {@code --check-stats} reports the users whose USER_STATS counters are wrong and {@code --rebuild-stats}
+     * also recomputes them. {@code --rebuild-search} indexes every tool and friend again for full-text search,
+     * needed after a {@code VACUUM}, which may renumber the rows the index refers to.
+     * {@code --import-tools <usuário> <arquivo.csv> [relatório.csv]} and {@code --import-friends} import a CSV
+     * file into the tools or friends of a user, writing the records not imported to the report, by default
+     * next to the file. {@code --export-rentals <usuário> <arquivo.csv|arquivo.ndjson> [--from aaaa-mm-dd]
+     * [--to aaaa-mm-dd] [--friend <id>]} exports the rentals of a user, optionally only those made between two
+     * days, both included, or to a friend, to CSV or to JSON, one object per line, depending on the extension.
+     *
+     * @param args the command-line arguments
+     * @return true if a command was run and the application must not start, false otherwise
+     * @throws Toast if an error occurs while running the command
+     */
+    public static boolean runCommand(String[] args) throws Toast {
+        if (args.length == 0) {
+            return false;
+        }
+
+        switch (args[0]) {
+            case "--check-stats", "--rebuild-stats" -> {
+                boolean rebuild = args[0].equals("--rebuild-stats");
+                ArrayList<UserStatsMismatch> mismatches = new CheckUserStatsUseCase().execute(rebuild);
+
+                for (UserStatsMismatch mismatch : mismatches) {
+                    LOGGER.warn(String.format(
+                            "Contadores inconsistentes do usuário %s: gravados %s, calculados %s",
+                            mismatch.userId(),
+                            mismatch.stored(),
+                            mismatch.actual()
+                    ));
+                }
+                LOGGER.info(String.format(
+                        "%d usuário(s) com contadores inconsistentes%s.",
+                        mismatches.size(),
+                        rebuild && !mismatches.isEmpty() ? ", contadores recalculados" : ""
+                ));
+                return true;
+            }
+            case "--rebuild-search" -> {
+                new RebuildSearchIndexUseCase().execute();
+                LOGGER.info("Índices de busca reconstruídos.");
+                return true;
+            }
+            case "--import-tools", "--import-friends" -> {
+                importCsv(args);
+                return true;
+            }
+            case "--export-rentals" -> {
+                exportRentals(args);
+                return true;
+            }
+            default -> {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Imports a CSV file into the tools or friends of a user, logging the progress.
+     *
+     * @param args the command-line arguments: the command, the username, the file and optionally the report
+     * @throws Toast if the arguments are invalid or the import fails
+     */
+    private static void importCsv(String[] args) throws Toast {
+        if (args.length < 3) {
+            throw new ToastError(
+                    "Uso: " + args[0] + " <usuário> <arquivo.csv> [relatório de erros.csv]",
+                    "Parâmetros inválidos"
+            );
+        }
+
+        logIn(args[1]);
+
+        Path source = Path.of(args[2]);
+        Path errorReport = args.length > 3 ? Path.of(args[3]) : Path.of(args[2] + ".erros.csv");
+        ImportCsvUseCase<?> useCase = args[0].equals("--import-tools")
+                ? new ImportToolsUseCase()
+                : new ImportFriendsUseCase();
+
+        ImportReport report = useCase.execute(source, errorReport, progress -> LOGGER.info(String.format(
+                "%d registros lidos, %d importados, %d rejeitados, %d ignorados (%.0f registros/s).",
+                progress.read(),
+                progress.imported(),
+                progress.rejected(),
+                progress.duplicates(),
+                progress.rowsPerSecond()
+        )));
+
+        LOGGER.info(String.format(
+                "Importação concluída em %d ms. Registros não importados em %s.",
+                report.elapsedNanos() / 1_000_000,
+                errorReport
+        ));
+    }
+
+    /**
+     * Exports the rentals of a user to a file, in the format given by its extension.
      *
-     * @throws Toast if an error occurs during the setup of the database
+     * @param args the command-line arguments: the command, the username, the file and optionally the filters
+     * @throws Toast if the arguments are invalid or the export fails
      */
-    public static void setupDB() throws Toast {
-        String[] queries = new String[]{
-                """
-                -- "USER" definition
-                
-                CREATE TABLE IF NOT EXISTS "USER" (
-                	id TEXT(36) NOT NULL,
-                	username TEXT(25) NOT NULL,
-                	password TEXT(100) NOT NULL,
-                	has_mock INTEGER DEFAULT (0) NOT NULL,
-                	CONSTRAINT USER_PK PRIMARY KEY (id)
-                );
-                """,
-                """
-                
-                CREATE UNIQUE INDEX IF NOT EXISTS USER_username_IDX ON "USER" (username);
-                
-                """,
-
-                """
-                
-                -- CACHE definition
-                
-                CREATE TABLE IF NOT EXISTS CACHE (
-                	id TEXT NOT NULL,
-                	logged_user_id TEXT NOT NULL,
-                	CONSTRAINT CACHE_PK PRIMARY KEY (id),
-                	CONSTRAINT CACHE_USER_FK FOREIGN KEY (logged_user_id) REFERENCES "USER"(id) ON DELETE CASCADE
-                );
-                
-                """,
-                """
-                
-                -- FRIEND definition
-                
-                CREATE TABLE IF NOT EXISTS FRIEND (
-                	id TEXT NOT NULL,
-                	name TEXT NOT NULL,
-                	phone TEXT NOT NULL,
-                	social_security TEXT NOT NULL,
-                	user_id TEXT NOT NULL,
-                	CONSTRAINT FRIENDS_PK PRIMARY KEY (id),
-                	CONSTRAINT FRIEND_USER_FK FOREIGN KEY (user_id) REFERENCES "USER"(id) ON DELETE CASCADE
-                );
-                
-                """,
-                """
-                
-                CREATE INDEX IF NOT EXISTS FRIEND_user_id_IDX ON FRIEND (user_id);
-                
-                """,
-                """
-                
-                -- RENTAL definition
-                
-                CREATE TABLE IF NOT EXISTS RENTAL (
-                	id TEXT(36) NOT NULL,
-                	rental_timestamp LONG NOT NULL,
-                	devolution_timestamp LONG,
-                	friend_id TEXT(36) NOT NULL,
-                	tool_id TEXT(36) NOT NULL,
-                	CONSTRAINT RENTAL_PK PRIMARY KEY (id),
-                	CONSTRAINT RENTAL_FRIEND_FK FOREIGN KEY (friend_id) REFERENCES "FRIEND"(id) ON DELETE CASCADE,
-                	CONSTRAINT RENTAL_TOOL_FK FOREIGN KEY (tool_id) REFERENCES "TOOL"(id) ON DELETE CASCADE
-                );
-                
-                """,
-                """
-                
-                CREATE INDEX IF NOT EXISTS RENTAL_friend_id_IDX ON RENTAL (friend_id);
-                
-                """,
-                """
-                
-                -- TOOL definition
-                
-                CREATE TABLE IF NOT EXISTS TOOL (
-                	id TEXT NOT NULL,
-                	brand TEXT NOT NULL,
-                	name TEXT NOT NULL,
-                	cost REAL NOT NULL,
-                	user_id TEXT NOT NULL,
-                	CONSTRAINT TOOL_PK PRIMARY KEY (id),
-                	CONSTRAINT TOOL_USER_FK FOREIGN KEY (user_id) REFERENCES "USER"(id) ON DELETE CASCADE
-                );
-                
-                """,
-                """
-                
-                CREATE INDEX IF NOT EXISTS TOOL_user_id_IDX ON TOOL (user_id);
-                """
-        };
-
-
-        try (DataBase db = new DataBase()) {
-            for (String query : queries) {
-                PreparedStatement stm = db.connection.prepareStatement(query);
-                db.executeUpdate(stm);
+    private static void exportRentals(String[] args) throws Toast {
+        String usage = "Uso: --export-rentals <usuário> <arquivo.csv|arquivo.ndjson> "
+                + "[--from aaaa-mm-dd] [--to aaaa-mm-dd] [--friend <id>]";
+        if (args.length < 3 || args.length % 2 == 0) {
+            throw new ToastError(usage, "Parâmetros inválidos");
+        }
+
+        Long from = null;
+        Long to = null;
+        String friendId = null;
+        ZoneId zone = DateFormats.getZone();
+
+        for (int i = 3; i < args.length; i += 2) {
+            try {
+                switch (args[i]) {
+                    case "--from" -> from = LocalDate.parse(args[i + 1]).atStartOfDay(zone).toInstant().toEpochMilli();
+                    // The last day is included, so the range ends when the next one starts
+                    case "--to" -> to = LocalDate.parse(args[i + 1]).plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
+                    case "--friend" -> friendId = args[i + 1];
+                    default -> throw new ToastError(usage, "Parâmetros inválidos");
+                }
+            } catch (DateTimeParseException exc) {
+                throw new ToastError("Data inválida, esperado aaaa-mm-dd: " + args[i + 1], "Parâmetros inválidos");
             }
-        } catch (SQLException e) {
-            throw new ToastError(String.format("Erro ao iniciar o banco de dados. %s", e),
-                    "Erro de banco de dados.");
         }
+
+        logIn(args[1]);
+
+        Path target = Path.of(args[2]);
+        new ExportRentalReportUseCase().execute(
+                new RentalReportFilter(from, to, friendId),
+                ExportRentalReportUseCase.Format.fromFileName(args[2]),
+                target
+        );
+    }
+
+    /**
+     * Sets the user a command acts on as the logged user.
+     *
+     * @param username the username
+     * @throws ToastError if no user has the username
+     */
+    private static void logIn(String username) throws ToastError {
+        User user = new UserRepository().findByUsername(username);
+        if (user == null) {
+            throw new ToastError("Usuário não encontrado: " + username, "Parâmetros inválidos");
+        }
+        Settings.setUser(user);
+    }
+
+    /**
+     * Reports the database pragma profile in use and the journal mode SQLite actually applied.
+     */
+    public static void reportDataBaseProfile() {
+        ConnectionPool pool = ConnectionPool.getInstance();
+        LOGGER.info(() -> String.format(
+                "Perfil do banco de dados: %s, journal_mode em uso: %s",
+                pool.getConfig().pragmaProfile().describe(),
+                pool.getJournalMode()
+        ));
     }
 }
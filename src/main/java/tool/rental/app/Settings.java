@@ -18,9 +18,9 @@ public class Settings {
     private static PresentationFrame PREVIOUS_FRAME = null;
 
     /**
-     * The first frame of the application.
+     * The first frame of the application, the login frame unless set otherwise, created on first use.
      */
-    private static PresentationFrame FIRST_FRAME = new LoginFrame();
+    private static PresentationFrame FIRST_FRAME = null;
 
     /**
      * The current user of the application.
@@ -83,6 +83,9 @@ public class Settings {
      * @return the first frame
      */
     public static PresentationFrame getFirstFrame() {
+        if (FIRST_FRAME == null) {
+            FIRST_FRAME = new LoginFrame();
+        }
         return FIRST_FRAME;
     }
 
@@ -1,6 +1,7 @@
 package tool.rental.domain.controllers;
 
 import tool.rental.app.Settings;
+import tool.rental.domain.dao.ToolPageKey;
 import tool.rental.domain.dto.CalculateSummaryDTO;
 import tool.rental.domain.entities.Friend;
 import tool.rental.domain.entities.Tool;
@@ -10,6 +11,7 @@ import tool.rental.domain.use_cases.*;
 import tool.rental.presentation.*;
 import tool.rental.utils.Controller;
 import tool.rental.utils.JOptionPaneUtils;
+import tool.rental.utils.PageSource;
 import tool.rental.utils.PresentationFrame;
 import tool.rental.utils.ToastError;
 
@@ -81,24 +83,37 @@ public class AppMainController extends Controller {
     }
 
     /**
-     * Lists the tools as table rows.
+     * Creates a source reading the tools as table rows page by page, for a lazily loaded table.
      *
-     * @return the list of tools as table rows
-     * @throws ToastError if an error occurs
+     * @param rentedOnly whether to filter by rented tools only
+     * @return the page source
      */
-    public List<String[]> listToolsAsTableRow() throws ToastError {
-        return this.listToolsAsTableRow(false);
+    public PageSource<ToolPageKey> toolsPageSource(boolean rentedOnly) {
+        return this.listToolsToMainTableUseCase.pageSource(rentedOnly);
     }
 
     /**
-     * Lists the tools as table rows, optionally filtering by rented tools only.
+     * Counts the tools matching a search.
      *
+     * @param text       the text typed by the user
      * @param rentedOnly whether to filter by rented tools only
-     * @return the list of tools as table rows
+     * @return the number of matching tools
      * @throws ToastError if an error occurs
      */
-    public List<String[]> listToolsAsTableRow(boolean rentedOnly) throws ToastError {
-        return this.listToolsToMainTableUseCase.execute(rentedOnly);
+    public int countToolsFound(String text, boolean rentedOnly) throws ToastError {
+        return this.listToolsToMainTableUseCase.countSearch(text, rentedOnly);
+    }
+
+    /**
+     * Creates a source reading the tools matching a search as table rows page by page, best matches first,
+     * for a lazily loaded table.
+     *
+     * @param text       the text typed by the user
+     * @param rentedOnly whether to filter by rented tools only
+     * @return the page source
+     */
+    public PageSource<Integer> toolsFoundPageSource(String text, boolean rentedOnly) {
+        return this.listToolsToMainTableUseCase.searchPageSource(text, rentedOnly);
     }
 
     /**
@@ -4,7 +4,6 @@ import tool.rental.domain.entities.Friend;
 import tool.rental.domain.entities.Tool;
 import tool.rental.domain.repositories.FriendRepository;
 import tool.rental.domain.repositories.ToolRepository;
-import tool.rental.domain.use_cases.IsToolRentedUseCase;
 import tool.rental.domain.use_cases.RentalToolUseCase;
 import tool.rental.presentation.LendToolFrame;
 import tool.rental.utils.Controller;
@@ -30,11 +29,6 @@ public class LendToolFrameController extends Controller {
      */
     private final RentalToolUseCase rentalToolUseCase = new RentalToolUseCase();
 
-    /**
-     * The use case to check if a tool is rented.
-     */
-    private final IsToolRentedUseCase isToolRentedUseCase = new IsToolRentedUseCase();
-
 
     /**
      * Creates a new instance of the LendToolFrameController.
@@ -52,7 +46,7 @@ public class LendToolFrameController extends Controller {
      * @param friendId the ID of the friend
      * @param toolId the ID of the tool
      * @param callback a callback to run after the tool is rented
-     * @throws ToastError if an error occurs
+     * @throws ToastError if the tool is already rented or an error occurs
      */
     public void rentTool(String friendId, String toolId, Runnable callback) throws ToastError {
         Tool tool = this.toolRepository.getById(toolId);
@@ -64,17 +58,6 @@ public class LendToolFrameController extends Controller {
         closeFrame();
     }
 
-    /**
-     * Checks if a tool is rented.
-     *
-     * @param toolId the ID of the tool
-     * @return true if the tool is rented, false otherwise
-     * @throws ToastError if an error occurs
-     */
-    public boolean isToolRented(String toolId) throws ToastError {
-        return isToolRentedUseCase.execute(toolId);
-    }
-
     /**
      * Closes the frame.
      */
@@ -4,6 +4,7 @@ package tool.rental.domain.controllers;
 import tool.rental.domain.use_cases.RegisterToolUseCase;
 import tool.rental.utils.Controller;
 import tool.rental.utils.PresentationFrame;
+import tool.rental.utils.Money;
 import tool.rental.utils.ToastError;
 import javax.swing.JOptionPane;
 
@@ -38,7 +39,7 @@ public class RegisterToolController extends Controller {
      * @param callback the callback to run after the tool has been registered
      * @throws ToastError if an error occurs during the registration process
      */
-    public void registerTool(String brand, String name, double cost, Runnable callback) throws ToastError {
+    public void registerTool(String brand, String name, Money cost, Runnable callback) throws ToastError {
         /**
          * Execute the register tool use case with the provided brand, name, and cost.
          */
@@ -30,16 +30,16 @@ public class RentalReportController extends Controller {
     /**
      * Gets the rental report.
      *
-     * @return a list of strings representing the rental report
+     * @return the rows of the rental report: id, rental and devolution timestamps, friend and tool
      * @throws ToastError if an error occurs
      */
-    public List<String[]> getRentalReport() throws ToastError {
+    public List<Object[]> getRentalReport() throws ToastError {
         List<RentalReportDTO> reports = getRentalReportUseCase.execute();
         return reports.stream().map(
-                report -> new String[]{
+                report -> new Object[]{
                         report.id(),
-                        report.rentalDate(),
-                        report.devolutionDate(),
+                        report.rentalTimestamp(),
+                        report.devolutionTimestamp(),
                         report.friend(),
                         report.tool()
                 }
@@ -5,6 +5,7 @@ import tool.rental.domain.repositories.ToolRepository;
 import tool.rental.domain.use_cases.UpdateToolUseCase;
 import tool.rental.utils.Controller;
 import tool.rental.utils.PresentationFrame;
+import tool.rental.utils.Money;
 import tool.rental.utils.ToastError;
 
 import javax.swing.*;
@@ -43,7 +44,7 @@ public class UpdateToolController extends Controller {
      * @param callback a callback to be executed after the update
      * @throws ToastError if an error occurs
      */
-    public void updateTool(String toolId, String brand, String name, double cost, Runnable callback) throws ToastError {
+    public void updateTool(String toolId, String brand, String name, Money cost, Runnable callback) throws ToastError {
         Tool tool = toolRepository.getById(toolId);
         this.updateToolUseCase.execute(tool, brand, name, cost);
         JOptionPane.showMessageDialog(null, "Ferramenta atualizada com sucesso!");
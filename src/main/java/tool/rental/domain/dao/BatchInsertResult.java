@@ -0,0 +1,46 @@
+package tool.rental.domain.dao;
+
+import java.util.List;
+
+/**
+ * A record that holds the outcome of a bulk insert.
+ *
+ * @param ids          the ids of the rows created, in the order they were given
+ * @param elapsedNanos the time the insert took, in nanoseconds
+ */
+public record BatchInsertResult(List<String> ids, long elapsedNanos) {
+
+    /**
+     * Returns the number of rows created.
+     *
+     * @return the number of rows
+     */
+    public int rows() {
+        return this.ids.size();
+    }
+
+    /**
+     * Returns the insert throughput.
+     *
+     * @return the rows created per second
+     */
+    public double rowsPerSecond() {
+        return this.elapsedNanos == 0 ? 0.0 : this.rows() * 1e9 / this.elapsedNanos;
+    }
+
+    /**
+     * Describes the insert for the logs.
+     *
+     * @param table the table the rows were inserted into
+     * @return the number of rows, time taken and throughput
+     */
+    public String describe(String table) {
+        return String.format(
+                "%d linhas inseridas em %s em %d ms (%.0f linhas/s).",
+                this.rows(),
+                table,
+                this.elapsedNanos / 1_000_000,
+                this.rowsPerSecond()
+        );
+    }
+}
@@ -1,5 +1,7 @@
 package tool.rental.domain.dao;
 
+import tool.rental.utils.Money;
+
 /**
  * A data access object (DAO) that holds the total count and total cost of tools.
  */
@@ -13,7 +15,7 @@ public class CountIdAndSumCostDAO {
     /**
      * The total cost of tools.
      */
-    private final double totalCost;
+    private final Money totalCost;
 
     /**
      * Creates a new instance of the CountIdAndSumCostDAO.
@@ -21,7 +23,7 @@ public class CountIdAndSumCostDAO {
      * @param count the total count of tools
      * @param sum the total cost of tools
      */
-    public CountIdAndSumCostDAO(int count, double sum) {
+    public CountIdAndSumCostDAO(int count, Money sum) {
         this.totalCount = count;
         this.totalCost = sum;
     }
@@ -40,7 +42,7 @@ public class CountIdAndSumCostDAO {
      *
      * @return the total cost of tools
      */
-    public double getTotalCost() {
+    public Money getTotalCost() {
         return totalCost;
     }
 }
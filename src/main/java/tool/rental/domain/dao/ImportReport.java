@@ -0,0 +1,22 @@
+package tool.rental.domain.dao;
+
+/**
+ * A record that holds the progress, or the outcome once finished, of a file import.
+ *
+ * @param read         the number of records read, header excluded
+ * @param imported     the number of records created
+ * @param rejected     the number of records rejected for being invalid
+ * @param duplicates   the number of records skipped for being already registered, or repeated in the file
+ * @param elapsedNanos the time spent so far, in nanoseconds
+ */
+public record ImportReport(long read, long imported, long rejected, long duplicates, long elapsedNanos) {
+
+    /**
+     * Returns the import throughput.
+     *
+     * @return the records read per second
+     */
+    public double rowsPerSecond() {
+        return this.elapsedNanos == 0 ? 0.0 : this.read * 1e9 / this.elapsedNanos;
+    }
+}
@@ -0,0 +1,11 @@
+package tool.rental.domain.dao;
+
+/**
+ * A record that holds a friend to be created in bulk, belonging to the logged user.
+ *
+ * @param name           the name of the friend
+ * @param phone          the phone number of the friend
+ * @param socialSecurity the social security number of the friend
+ */
+public record NewFriend(String name, String phone, String socialSecurity) {
+}
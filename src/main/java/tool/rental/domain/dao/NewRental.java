@@ -0,0 +1,12 @@
+package tool.rental.domain.dao;
+
+/**
+ * A record that holds a rental to be created in bulk.
+ *
+ * @param rentalTimestamp     the timestamp the tool was lent at
+ * @param devolutionTimestamp the timestamp the tool was returned at, or null if it is still rented
+ * @param friendId            the id of the friend who borrowed the tool
+ * @param toolId              the id of the tool borrowed
+ */
+public record NewRental(long rentalTimestamp, Long devolutionTimestamp, String friendId, String toolId) {
+}
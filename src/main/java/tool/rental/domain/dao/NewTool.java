@@ -0,0 +1,13 @@
+package tool.rental.domain.dao;
+
+import tool.rental.utils.Money;
+
+/**
+ * A record that holds a tool to be created in bulk, owned by the logged user.
+ *
+ * @param brand the brand of the tool
+ * @param name  the name of the tool
+ * @param cost  the cost of the tool
+ */
+public record NewTool(String brand, String name, Money cost) {
+}
@@ -0,0 +1,16 @@
+package tool.rental.domain.dao;
+
+/**
+ * The outcome of an attempt to rent a tool, which only succeeds while the tool is not rented.
+ */
+public enum RentalOutcome {
+    /**
+     * The rental was registered.
+     */
+    CREATED,
+
+    /**
+     * The tool already had an open rental, so nothing was registered.
+     */
+    ALREADY_RENTED
+}
@@ -0,0 +1,11 @@
+package tool.rental.domain.dao;
+
+/**
+ * A record that holds the filters of a rental report export, each left null to not filter on it.
+ *
+ * @param fromTimestamp the earliest rental timestamp included, in milliseconds
+ * @param toTimestamp   the rental timestamp, in milliseconds, from which rentals are no longer included
+ * @param friendId      the id of the friend whose rentals are included
+ */
+public record RentalReportFilter(Long fromTimestamp, Long toTimestamp, String friendId) {
+}
@@ -0,0 +1,27 @@
+package tool.rental.domain.dao;
+
+import tool.rental.utils.Money;
+
+/**
+ * A record that holds a rental as exported in the rental report.
+ *
+ * @param id                   the unique identifier of the rental
+ * @param rentalTimestamp      the timestamp the tool was lent at, in milliseconds
+ * @param devolutionTimestamp  the timestamp the tool was returned at, in milliseconds, or null if it is still rented
+ * @param friendName           the name of the friend who borrowed the tool
+ * @param friendSocialSecurity the social security number of the friend who borrowed the tool
+ * @param toolBrand            the brand of the tool
+ * @param toolName             the name of the tool
+ * @param toolCost             the cost of the tool
+ */
+public record RentalReportRow(
+        String id,
+        long rentalTimestamp,
+        Long devolutionTimestamp,
+        String friendName,
+        String friendSocialSecurity,
+        String toolBrand,
+        String toolName,
+        Money toolCost
+) {
+}
@@ -0,0 +1,10 @@
+package tool.rental.domain.dao;
+
+/**
+ * A record that holds the position of a tool in the name ordered tool list, used for keyset pagination.
+ *
+ * @param name the name of the tool
+ * @param id   the id of the tool, which breaks ties between tools with the same name
+ */
+public record ToolPageKey(String name, String id) {
+}
@@ -0,0 +1,11 @@
+package tool.rental.domain.dao;
+
+/**
+ * A record that describes a user whose stored counters differ from the ones computed from the tables.
+ *
+ * @param userId the id of the user
+ * @param stored the counters stored in USER_STATS, or null if the user has none
+ * @param actual the counters computed from the TOOL, RENTAL and FRIEND tables
+ */
+public record UserStatsMismatch(String userId, UserSummaryDAO stored, UserSummaryDAO actual) {
+}
@@ -0,0 +1,14 @@
+package tool.rental.domain.dao;
+
+import tool.rental.utils.Money;
+
+/**
+ * A record that holds the dashboard totals of a user, read in a single query.
+ *
+ * @param toolCount       the total count of tools
+ * @param toolCostSum     the sum of the costs of all tools, exact whatever their number
+ * @param openRentalCount the count of rentals not yet returned
+ * @param friendCount     the total count of friends
+ */
+public record UserSummaryDAO(int toolCount, Money toolCostSum, int openRentalCount, int friendCount) {
+}
@@ -1,7 +1,11 @@
 package tool.rental.domain.dto;
 
+import tool.rental.domain.entities.Friend;
+import tool.rental.domain.entities.Tool;
+
 /**
- * A data transfer object (DTO) that holds the details of a rental report.
+ * A data transfer object (DTO) that holds the details of a rental report, left unformatted for the table
+ * displaying it to format only the rows shown.
  */
 public record RentalReportDTO(
         /**
@@ -10,23 +14,23 @@ public record RentalReportDTO(
         String id,
 
         /**
-         * The date when the rental was made.
+         * The timestamp when the rental was made, in milliseconds.
          */
-        String rentalDate,
+        long rentalTimestamp,
 
         /**
-         * The date when the rental is expected to be devolved.
+         * The timestamp when the tool was devolved, in milliseconds, or null if it was not devolved yet.
          */
-        String devolutionDate,
+        Long devolutionTimestamp,
 
         /**
-         * The name of the friend who made the rental.
+         * The friend who made the rental.
          */
-        String friend,
+        Friend friend,
 
         /**
-         * The name of the tool that was rented.
+         * The tool that was rented.
          */
-        String tool
+        Tool tool
 ) {
 }
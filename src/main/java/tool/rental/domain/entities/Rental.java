@@ -1,8 +1,8 @@
 package tool.rental.domain.entities;
 
 import tool.rental.domain.infra.db.contracts.Model;
+import tool.rental.utils.DateFormats;
 
-import java.text.SimpleDateFormat;
 import java.util.Date;
 
 /**
@@ -100,18 +100,6 @@ public class Rental extends Model {
         return timestamp == 0 ? null : new Date(timestamp);
     }
 
-    /**
-     * Returns a formatted date string from a given Date object and format.
-     *
-     * @param date   the Date object to format
-     * @param format the format to use
-     * @return the formatted date string
-     */
-    private String getFormattedDate(Date date, String format) {
-        SimpleDateFormat sdf = new SimpleDateFormat(format);
-        return sdf.format(date);
-    }
-
     /**
      * Returns the rental date as a formatted string using the given format.
      *
@@ -119,8 +107,7 @@ public class Rental extends Model {
      * @return the formatted rental date string
      */
     public String getFormattedRentalDate(String format) {
-        Date rentalDatetime = getRentalDatetime();
-        return getFormattedDate(rentalDatetime, format);
+        return DateFormats.format(getRentalTimestamp(), format);
     }
 
     /**
@@ -129,7 +116,7 @@ public class Rental extends Model {
      * @return the formatted rental date string
      */
     public String getFormattedRentalDate() {
-        return getFormattedRentalDate("dd/MM/yyyy");
+        return DateFormats.formatDate(getRentalTimestamp());
     }
 
     /**
@@ -139,11 +126,11 @@ public class Rental extends Model {
      * @return the formatted devolution date string
      */
     public String getFormattedDevolutionDate(String format) {
-        Date devolutionDatetime = getDevolutionDatetime();
-        if (devolutionDatetime == null) {
+        long timestamp = getDevolutionTimestamp();
+        if (timestamp == 0) {
             return "";
         }
-        return getFormattedDate(devolutionDatetime, format);
+        return DateFormats.format(timestamp, format);
     }
 
     /**
@@ -152,7 +139,7 @@ public class Rental extends Model {
      * @return the formatted devolution date string
      */
     public String getFormattedDevolutionDate() {
-        return getFormattedDevolutionDate("dd/MM/yyyy");
+        return getFormattedDevolutionDate(DateFormats.DATE_PATTERN);
     }
 
     /**
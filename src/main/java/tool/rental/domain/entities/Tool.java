@@ -1,5 +1,7 @@
 package tool.rental.domain.entities;
 
+import tool.rental.utils.Money;
+
 /**
  * Represents a tool in the tool rental system.
  */
@@ -23,7 +25,7 @@ public class Tool {
     /**
      * The cost of the tool.
      */
-    private final double cost;
+    private final Money cost;
 
     /**
      * The user who owns the tool.
@@ -45,7 +47,7 @@ public class Tool {
      * @param user the user who owns the tool
      * @param latestRental the latest rental of the tool, or null if the tool has not been rented
      */
-    public Tool(String id, String brand, String name, double cost, User user, Rental latestRental) {
+    public Tool(String id, String brand, String name, Money cost, User user, Rental latestRental) {
         this.id = id;
         this.brand = brand;
         this.name = name;
@@ -63,7 +65,7 @@ public class Tool {
      * @param cost the cost of the tool
      * @param user the user who owns the tool
      */
-    public Tool(String id, String brand, String name, double cost, User user) {
+    public Tool(String id, String brand, String name, Money cost, User user) {
         this(id, brand, name, cost, user, null);
     }
 
@@ -99,7 +101,7 @@ public class Tool {
      *
      * @return the cost of the tool
      */
-    public double getCost() {
+    public Money getCost() {
         return cost;
     }
 
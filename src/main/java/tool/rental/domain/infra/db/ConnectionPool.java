@@ -0,0 +1,423 @@
+package tool.rental.domain.infra.db;
+
+import tool.rental.utils.Logger;
+import tool.rental.utils.ToastError;
+
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps a bounded set of long-lived SQLite connections so that each {@link DataBase} session
+ * borrows an already open connection instead of opening the database file again.
+ * <p>
+ * Idle connections above the configured minimum are closed by a background evictor, connections idle for
+ * longer than the validation interval are validated before being lent again, and callers wait at most the
+ * borrow timeout for a free connection.
+ */
+public class ConnectionPool {
+
+    /**
+     * The logger of this class.
+     */
+    private static final Logger LOGGER = Logger.getLogger(ConnectionPool.class);
+
+    /**
+     * The application wide pool, created on first use.
+     */
+    private static ConnectionPool INSTANCE = null;
+
+    /**
+     * The system property holding the path of the SQLite database file, such as a temporary one for tests.
+     */
+    public static final String DATABASE_PATH_PROPERTY = "tool.rental.db.path";
+
+    /**
+     * The path of the SQLite database file.
+     */
+    private static final String DATABASE_PATH = System.getProperty(DATABASE_PATH_PROPERTY, Paths.get(
+            "src",
+            "main",
+            "java",
+            "tool",
+            "rental",
+            "domain",
+            "infra",
+            "db",
+            "db"
+    ).toString());
+
+    /**
+     * The pool configuration.
+     */
+    private final ConnectionPoolConfig config;
+
+    /**
+     * The JDBC URL used to open new connections.
+     */
+    private final String url;
+
+    /**
+     * The idle connections, most recently used first.
+     */
+    private final LinkedBlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+
+    /**
+     * One permit per connection that can still be lent.
+     */
+    private final Semaphore permits;
+
+    /**
+     * The number of open connections, borrowed or idle.
+     */
+    private final AtomicInteger openCount = new AtomicInteger();
+
+    /**
+     * The total number of borrows served.
+     */
+    private final AtomicLong borrowCount = new AtomicLong();
+
+    /**
+     * The total number of physical connections opened.
+     */
+    private final AtomicLong createdCount = new AtomicLong();
+
+    /**
+     * The total number of physical connections closed.
+     */
+    private final AtomicLong destroyedCount = new AtomicLong();
+
+    /**
+     * The number of borrows that timed out.
+     */
+    private final AtomicLong timeoutCount = new AtomicLong();
+
+    /**
+     * The accumulated time, in nanoseconds, callers waited for a connection.
+     */
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+
+    /**
+     * The longest time, in nanoseconds, a caller waited for a connection.
+     */
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    /**
+     * The prepared statement cache counters of every connection.
+     */
+    private final StatementCache.Counters statementCacheCounters = new StatementCache.Counters();
+
+    /**
+     * The journal mode reported by SQLite when the last connection was configured.
+     */
+    private volatile String journalMode = null;
+
+    /**
+     * The background task that evicts idle connections.
+     */
+    private final ScheduledExecutorService evictor;
+
+    /**
+     * Whether the pool has been shut down.
+     */
+    private volatile boolean closed = false;
+
+    /**
+     * Creates a new pool for the application database.
+     *
+     * @param config the pool configuration
+     */
+    public ConnectionPool(ConnectionPoolConfig config) {
+        this(config, "jdbc:sqlite:" + DATABASE_PATH);
+    }
+
+    /**
+     * Creates a new pool for the given database URL.
+     *
+     * @param config the pool configuration
+     * @param url    the JDBC URL of the database
+     */
+    public ConnectionPool(ConnectionPoolConfig config, String url) {
+        this.config = config;
+        this.url = url;
+        this.permits = new Semaphore(config.maxSize(), true);
+        this.evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "db-pool-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.evictor.scheduleWithFixedDelay(
+                this::evictIdleConnections,
+                config.evictionIntervalMillis(),
+                config.evictionIntervalMillis(),
+                TimeUnit.MILLISECONDS
+        );
+    }
+
+    /**
+     * Returns the application wide pool, creating it with {@link ConnectionPoolConfig#fromSystemProperties()}
+     * on first use.
+     *
+     * @return the connection pool
+     */
+    public static synchronized ConnectionPool getInstance() {
+        if (INSTANCE == null) {
+            INSTANCE = new ConnectionPool(ConnectionPoolConfig.fromSystemProperties());
+            Runtime.getRuntime().addShutdownHook(new Thread(INSTANCE::close, "db-pool-shutdown"));
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the pool configuration.
+     *
+     * @return the pool configuration
+     */
+    public ConnectionPoolConfig getConfig() {
+        return this.config;
+    }
+
+    /**
+     * Returns the journal mode SQLite reported when the last connection was configured, or null if no
+     * connection has been opened yet.
+     *
+     * @return the effective journal mode
+     */
+    public String getJournalMode() {
+        return this.journalMode;
+    }
+
+    /**
+     * Borrows a connection, waiting at most the configured borrow timeout for one to be free.
+     *
+     * @return a validated connection that must be given back with {@link #release(PooledConnection)}
+     * @throws ToastError if no connection could be obtained
+     */
+    public PooledConnection borrow() throws ToastError {
+        if (this.closed) {
+            throw new ToastError("O banco de dados já foi encerrado.", "Erro de banco de dados.");
+        }
+
+        long start = System.nanoTime();
+        try {
+            if (!this.permits.tryAcquire(this.config.borrowTimeoutMillis(), TimeUnit.MILLISECONDS)) {
+                this.timeoutCount.incrementAndGet();
+                throw new ToastError(
+                        "Tempo esgotado aguardando uma conexão com o banco de dados.",
+                        "Erro de banco de dados."
+                );
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new ToastError("Espera por conexão com o banco de dados interrompida.", "Erro de banco de dados.");
+        }
+        this.recordWait(System.nanoTime() - start);
+
+        try {
+            PooledConnection pooled;
+            while ((pooled = this.idle.pollFirst()) != null) {
+                if (this.isValid(pooled)) {
+                    break;
+                }
+                this.destroy(pooled);
+            }
+
+            if (pooled == null) {
+                pooled = this.create();
+            }
+
+            pooled.touch();
+            this.borrowCount.incrementAndGet();
+            return pooled;
+
+        } catch (ToastError | RuntimeException exception) {
+            this.permits.release();
+            throw exception;
+        }
+    }
+
+    /**
+     * Gives a borrowed connection back to the pool. Connections that are broken, or returned after the pool
+     * was shut down, are closed instead.
+     *
+     * @param pooled the connection to give back
+     */
+    public void release(PooledConnection pooled) {
+        try {
+            if (this.closed || pooled.getConnection().isClosed()) {
+                this.destroy(pooled);
+                return;
+            }
+
+            pooled.reset();
+            pooled.touch();
+            this.idle.offerFirst(pooled);
+
+        } catch (SQLException exception) {
+            LOGGER.error(exception.getMessage());
+            this.destroy(pooled);
+        } finally {
+            this.permits.release();
+        }
+    }
+
+    /**
+     * Returns a snapshot of the pool counters.
+     *
+     * @return the pool statistics
+     */
+    public ConnectionPoolStats getStats() {
+        int idleCount = this.idle.size();
+        long borrows = this.borrowCount.get();
+
+        return new ConnectionPoolStats(
+                Math.max(0, this.openCount.get() - idleCount),
+                idleCount,
+                borrows,
+                this.createdCount.get(),
+                this.destroyedCount.get(),
+                this.timeoutCount.get(),
+                borrows == 0 ? 0.0 : this.totalWaitNanos.get() / (double) borrows / 1_000_000.0,
+                this.maxWaitNanos.get() / 1_000_000.0
+        );
+    }
+
+    /**
+     * Returns a snapshot of the prepared statement cache counters, summed over every connection.
+     *
+     * @return the statement cache statistics
+     */
+    public StatementCacheStats getStatementCacheStats() {
+        return new StatementCacheStats(
+                this.statementCacheCounters.hits.sum(),
+                this.statementCacheCounters.misses.sum(),
+                this.statementCacheCounters.evictions.sum()
+        );
+    }
+
+    /**
+     * Shuts the pool down, closing the idle connections. Borrowed connections are closed when released.
+     */
+    public void close() {
+        this.closed = true;
+        this.evictor.shutdownNow();
+
+        PooledConnection pooled;
+        while ((pooled = this.idle.pollFirst()) != null) {
+            this.destroy(pooled);
+        }
+    }
+
+    /**
+     * Opens a new physical connection and applies the configured pragma profile to it.
+     *
+     * @return the new pooled connection
+     * @throws ToastError if the database cannot be opened
+     */
+    private PooledConnection create() throws ToastError {
+        Connection connection = null;
+        try {
+            Class.forName("org.sqlite.JDBC");
+            connection = DriverManager.getConnection(this.url);
+            this.journalMode = this.config.pragmaProfile().apply(connection);
+
+            PooledConnection pooled = new PooledConnection(
+                    connection,
+                    this.config.statementCacheSize(),
+                    this.statementCacheCounters
+            );
+            this.openCount.incrementAndGet();
+            this.createdCount.incrementAndGet();
+            return pooled;
+
+        } catch (SQLException | ClassNotFoundException exception) {
+            LOGGER.error(exception.getMessage());
+            if (connection != null) {
+                try {
+                    connection.close();
+                } catch (SQLException closeException) {
+                    LOGGER.error(closeException.getMessage());
+                }
+            }
+            throw new ToastError("Erro ao conectar no banco de dados: " + exception.getMessage(), "Erro DB");
+        }
+    }
+
+    /**
+     * Closes a physical connection and removes it from the pool accounting.
+     *
+     * @param pooled the connection to close
+     */
+    private void destroy(PooledConnection pooled) {
+        pooled.closeQuietly();
+        this.openCount.decrementAndGet();
+        this.destroyedCount.incrementAndGet();
+    }
+
+    /**
+     * Checks whether an idle connection can be lent again. Connections used recently are trusted,
+     * the others are validated against the database.
+     *
+     * @param pooled the connection to check
+     * @return true if the connection is usable, false otherwise
+     */
+    private boolean isValid(PooledConnection pooled) {
+        try {
+            if (pooled.getConnection().isClosed()) {
+                return false;
+            }
+            if (pooled.idleMillis(System.currentTimeMillis()) < this.config.validationIntervalMillis()) {
+                return true;
+            }
+            return pooled.getConnection().isValid(this.config.validationTimeoutSeconds());
+
+        } catch (SQLException exception) {
+            return false;
+        }
+    }
+
+    /**
+     * Closes the connections that stayed idle for longer than the idle timeout and then opens new ones
+     * until the configured minimum is open again.
+     */
+    private void evictIdleConnections() {
+        long now = System.currentTimeMillis();
+        Iterator<PooledConnection> iterator = this.idle.descendingIterator();
+
+        while (iterator.hasNext() && this.openCount.get() > this.config.minSize()) {
+            PooledConnection pooled = iterator.next();
+            if (pooled.idleMillis(now) >= this.config.idleTimeoutMillis() && this.idle.remove(pooled)) {
+                this.destroy(pooled);
+            }
+        }
+
+        while (!this.closed && this.openCount.get() < this.config.minSize() && this.permits.tryAcquire()) {
+            try {
+                this.idle.offerLast(this.create());
+            } catch (ToastError exception) {
+                break;
+            } finally {
+                this.permits.release();
+            }
+        }
+    }
+
+    /**
+     * Adds a borrow wait time to the statistics.
+     *
+     * @param waitNanos the time waited in nanoseconds
+     */
+    private void recordWait(long waitNanos) {
+        this.totalWaitNanos.addAndGet(waitNanos);
+        this.maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+    }
+}
@@ -0,0 +1,85 @@
+package tool.rental.domain.infra.db;
+
+/**
+ * Holds the tuning parameters of the {@link ConnectionPool}.
+ * <p>
+ * Every value can be overridden at launch through a system property, e.g.
+ * {@code -Dtool.rental.db.pool.maxSize=8}.
+ *
+ * @param minSize                  the number of connections kept open even when the pool is idle
+ * @param maxSize                  the maximum number of connections that can be open at the same time
+ * @param idleTimeoutMillis        how long, in milliseconds, an idle connection above {@code minSize} is kept before
+ *                                 being closed
+ * @param evictionIntervalMillis   how often, in milliseconds, the idle connections are checked for eviction
+ * @param validationIntervalMillis how long, in milliseconds, a connection can stay idle before it is validated again on
+ *                                 borrow
+ * @param validationTimeoutSeconds the timeout, in seconds, given to {@link java.sql.Connection#isValid(int)} when
+ *                                 validating
+ * @param borrowTimeoutMillis      how long, in milliseconds, a caller waits for a free connection before giving up
+ * @param statementCacheSize       the maximum number of prepared statements cached per connection, zero disables the
+ *                                 cache
+ * @param pragmaProfile            the pragmas applied to every new connection
+ */
+public record ConnectionPoolConfig(
+        int minSize,
+        int maxSize,
+        long idleTimeoutMillis,
+        long evictionIntervalMillis,
+        long validationIntervalMillis,
+        int validationTimeoutSeconds,
+        long borrowTimeoutMillis,
+        int statementCacheSize,
+        PragmaProfile pragmaProfile
+) {
+
+    /**
+     * The prefix shared by all the system properties read by {@link #fromSystemProperties()}.
+     */
+    private static final String PROPERTY_PREFIX = "tool.rental.db.pool.";
+
+    /**
+     * Validates the configuration values.
+     *
+     * @throws IllegalArgumentException if any of the values is out of range
+     */
+    public ConnectionPoolConfig {
+        if (minSize < 0) {
+            throw new IllegalArgumentException("minSize must not be negative");
+        }
+        if (maxSize < 1 || maxSize < minSize) {
+            throw new IllegalArgumentException("maxSize must be positive and not lower than minSize");
+        }
+        if (idleTimeoutMillis <= 0 || evictionIntervalMillis <= 0 || borrowTimeoutMillis <= 0) {
+            throw new IllegalArgumentException("timeouts and intervals must be positive");
+        }
+        if (validationIntervalMillis < 0 || validationTimeoutSeconds < 0) {
+            throw new IllegalArgumentException("validation settings must not be negative");
+        }
+        if (statementCacheSize < 0) {
+            throw new IllegalArgumentException("statementCacheSize must not be negative");
+        }
+        if (pragmaProfile == null) {
+            throw new IllegalArgumentException("pragmaProfile must not be null");
+        }
+    }
+
+    /**
+     * Returns the default configuration, overridden by any {@code tool.rental.db.pool.*} system property.
+     * The pragma profile is selected by {@value PragmaProfile#PROPERTY}.
+     *
+     * @return the pool configuration
+     */
+    public static ConnectionPoolConfig fromSystemProperties() {
+        return new ConnectionPoolConfig(
+                Integer.getInteger(PROPERTY_PREFIX + "minSize", 1),
+                Integer.getInteger(PROPERTY_PREFIX + "maxSize", 4),
+                Long.getLong(PROPERTY_PREFIX + "idleTimeoutMillis", 300_000L),
+                Long.getLong(PROPERTY_PREFIX + "evictionIntervalMillis", 30_000L),
+                Long.getLong(PROPERTY_PREFIX + "validationIntervalMillis", 30_000L),
+                Integer.getInteger(PROPERTY_PREFIX + "validationTimeoutSeconds", 2),
+                Long.getLong(PROPERTY_PREFIX + "borrowTimeoutMillis", 10_000L),
+                Integer.getInteger(PROPERTY_PREFIX + "statementCacheSize", 64),
+                PragmaProfile.fromSystemProperties()
+        );
+    }
+}
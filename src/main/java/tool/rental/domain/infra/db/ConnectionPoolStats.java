@@ -0,0 +1,34 @@
+package tool.rental.domain.infra.db;
+
+/**
+ * A point-in-time snapshot of the {@link ConnectionPool} counters, meant for monitoring.
+ *
+ * @param borrowed          the number of connections currently lent to callers
+ * @param idle              the number of open connections waiting in the pool
+ * @param borrowCount       the total number of borrows served since the pool was created
+ * @param createdCount      the total number of physical connections opened since the pool was created
+ * @param destroyedCount    the total number of physical connections closed by eviction, validation or shutdown
+ * @param timeoutCount      the number of borrows that gave up after the borrow timeout
+ * @param averageWaitMillis the average time, in milliseconds, a caller waited for a connection
+ * @param maxWaitMillis     the longest time, in milliseconds, a caller waited for a connection
+ */
+public record ConnectionPoolStats(
+        int borrowed,
+        int idle,
+        long borrowCount,
+        long createdCount,
+        long destroyedCount,
+        long timeoutCount,
+        double averageWaitMillis,
+        double maxWaitMillis
+) {
+
+    /**
+     * Returns the number of open connections, borrowed or idle.
+     *
+     * @return the number of open connections
+     */
+    public int total() {
+        return this.borrowed + this.idle;
+    }
+}
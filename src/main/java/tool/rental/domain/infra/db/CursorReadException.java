@@ -0,0 +1,34 @@
+package tool.rental.domain.infra.db;
+
+import tool.rental.utils.ToastError;
+
+/**
+ * Thrown by the {@link java.util.Iterator} and {@link java.util.stream.Stream} views of a {@link ResultCursor},
+ * which cannot throw checked exceptions, when a row cannot be read.
+ */
+public class CursorReadException extends RuntimeException {
+
+    /**
+     * The error to show the user.
+     */
+    private final ToastError toastError;
+
+    /**
+     * Creates the exception.
+     *
+     * @param toastError the error to show the user
+     */
+    public CursorReadException(ToastError toastError) {
+        super(toastError.message, toastError);
+        this.toastError = toastError;
+    }
+
+    /**
+     * Returns the error to show the user, for callers to rethrow it.
+     *
+     * @return the error
+     */
+    public ToastError getToastError() {
+        return this.toastError;
+    }
+}
@@ -1,14 +1,78 @@
 package tool.rental.domain.infra.db;
 
+import tool.rental.utils.Logger;
 import tool.rental.utils.ToastError;
 
-import java.nio.file.Paths;
 import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
+/**
+ * A database session. Each session borrows a connection from the {@link ConnectionPool} and gives it back
+ * on {@link #close()}, along with every statement it prepared and result set it opened. A session opened
+ * while a {@link UnitOfWork} is active on the thread uses the connection of the unit instead, taking part in
+ * its transaction.
+ */
 public class DataBase implements AutoCloseable {
+
+    /**
+     * The logger of this class.
+     */
+    private static final Logger LOGGER = Logger.getLogger(DataBase.class);
+
+    /**
+     * The number of rows bulk inserts send to the database at once, bounding the memory held by a batch.
+     */
+    public static final int BATCH_SIZE = 1000;
+
+    /**
+     * The system property holding the number of rows cursors ask the driver to read at once.
+     */
+    public static final String FETCH_SIZE_PROPERTY = "tool.rental.db.fetchSize";
+
+    /**
+     * The number of rows cursors ask the driver to read at once, unless told otherwise.
+     */
+    public static final int FETCH_SIZE = Integer.getInteger(FETCH_SIZE_PROPERTY, 256);
+
     public Connection connection;
 
+    /**
+     * The pooled connection borrowed for this session.
+     */
+    private PooledConnection pooledConnection;
+
+    /**
+     * The unit of work this session takes part in, or null if it runs in autocommit mode.
+     */
+    private final UnitOfWork unit;
+
+    /**
+     * The statements prepared in this session with their SQL text, given back to the statement cache when the
+     * session ends.
+     */
+    private final Map<PreparedStatement, String> statements = new IdentityHashMap<>();
+
+    /**
+     * The result sets opened in this session, closed when the session ends.
+     */
+    private final List<ResultSet> resultSets = new ArrayList<>();
+
+    /**
+     * The entities read in this session, by type, shared by the rows referring to them.
+     */
+    private final Map<Class<?>, IdentityMap<?>> identityMaps = new HashMap<>();
+
+    /**
+     * The number of rows changed by the last update executed in this session.
+     */
+    private int updateCount;
+
     private enum METHOD {
         UPDATE,
         QUERY
@@ -16,28 +80,176 @@ public class DataBase implements AutoCloseable {
 
 
     public DataBase() throws ToastError {
-        this.connection = this.getConnection();
-        System.out.println("DB Connection open.");
+        this.unit = UnitOfWork.current();
+        if (this.unit != null) {
+            this.pooledConnection = this.unit.getPooledConnection();
+        } else {
+            this.pooledConnection = ConnectionPool.getInstance().borrow();
+            LOGGER.debug(() -> "DB Connection borrowed.");
+        }
+        this.connection = this.pooledConnection.getConnection();
+
+    }
+
+    /**
+     * Prepares a statement bound to this session, reusing the one cached by the connection for the same SQL
+     * text when possible. The statement must not be closed by the caller, it is given back to the cache when
+     * the session ends.
+     *
+     * @param sql the SQL text
+     * @return the prepared statement
+     * @throws SQLException if the statement cannot be prepared
+     */
+    public PreparedStatement prepareStatement(String sql) throws SQLException {
+        PreparedStatement statement = this.pooledConnection.getStatementCache().acquire(sql);
+        this.statements.put(statement, sql);
+        return statement;
+    }
 
+    /**
+     * Returns the placeholders of a VALUES clause with the given number of rows, such as {@code (?, ?), (?, ?)},
+     * so that many rows can be looked up in a single statement.
+     *
+     * @param rows    the number of rows
+     * @param columns the number of columns of each row
+     * @return the placeholders
+     */
+    public static String valuesPlaceholders(int rows, int columns) {
+        String row = "(" + String.join(", ", Collections.nCopies(columns, "?")) + ")";
+        return String.join(", ", Collections.nCopies(rows, row));
     }
 
     public ResultSet executeQuery(PreparedStatement statement) throws ToastError {
         return this.executeStatement(statement, METHOD.QUERY);
     }
 
-    public void executeUpdate(PreparedStatement statement) throws ToastError {
+    /**
+     * Returns the identity map of an entity type for this session, so that the rows of its queries referring to
+     * the same entity share one instance.
+     *
+     * @param type the entity type
+     * @param <T>  the entity type
+     * @return the identity map, emptied when the session ends
+     */
+    @SuppressWarnings("unchecked")
+    public <T> IdentityMap<T> getIdentityMap(Class<T> type) {
+        return (IdentityMap<T>) this.identityMaps.computeIfAbsent(type, key -> new IdentityMap<T>());
+    }
+
+    /**
+     * Executes a query and hands its rows over one at a time through a cursor, which then owns this session:
+     * the session, and the connection it holds, stay open until the cursor is closed. The session must not be
+     * used for anything else in the meantime.
+     *
+     * @param statement the query, prepared by this session
+     * @param mapper    builds the objects from the rows
+     * @param <T>       the type of the rows
+     * @return the cursor
+     * @throws ToastError if the query fails, in which case the session is closed
+     */
+    public <T> ResultCursor<T> openCursor(PreparedStatement statement, RowMapper<T> mapper) throws ToastError {
+        return this.openCursor(statement, mapper, FETCH_SIZE);
+    }
+
+    /**
+     * Executes a query and hands its rows over one at a time through a cursor, which then owns this session.
+     *
+     * @param statement the query, prepared by this session
+     * @param mapper    builds the objects from the rows
+     * @param fetchSize the number of rows to ask the driver to read at once, a hint SQLite may ignore as it
+     *                  steps through the rows one at a time anyway
+     * @param <T>       the type of the rows
+     * @return the cursor
+     * @throws ToastError if the query fails, in which case the session is closed
+     * @see #openCursor(PreparedStatement, RowMapper)
+     */
+    public <T> ResultCursor<T> openCursor(PreparedStatement statement, RowMapper<T> mapper, int fetchSize) throws ToastError {
+        try {
+            statement.setFetchSize(fetchSize);
+            return new ResultCursor<>(this, this.executeQuery(statement), mapper);
+        } catch (SQLException exception) {
+            this.close();
+            LOGGER.error(exception.getMessage());
+            throw new ToastError("Erro ao conectar no banco de dados: " + exception.getMessage(), "Erro DB");
+        } catch (ToastError exception) {
+            this.close();
+            throw exception;
+        }
+    }
+
+    /**
+     * Executes an INSERT, UPDATE or DELETE statement.
+     *
+     * @param statement the statement, prepared by this session
+     * @return the number of rows changed, which lets conditional writes tell whether their condition held
+     * @throws ToastError if the statement fails
+     */
+    public int executeUpdate(PreparedStatement statement) throws ToastError {
+        this.updateCount = 0;
         this.executeStatement(statement, METHOD.UPDATE);
+        return this.updateCount;
+    }
+
+    /**
+     * Executes the parameter sets added to a statement with {@link PreparedStatement#addBatch()}, which are
+     * then cleared. The batch is recorded in the {@link QueryStats} as a single execution.
+     *
+     * @param statement the statement, prepared by this session
+     * @return the number of rows changed by the whole batch
+     * @throws ToastError if any parameter set fails, the ones before it staying applied unless in a transaction
+     */
+    public int executeBatch(PreparedStatement statement) throws ToastError {
+        long start = System.nanoTime();
+        try {
+            LOGGER.debug(() -> "Batch: " + statement);
+            statement.setQueryTimeout(30);
+
+            int rows = 0;
+            for (int count : statement.executeBatch()) {
+                rows += Math.max(count, 0);
+            }
+            return rows;
+
+        } catch (SQLException exception) {
+            LOGGER.error(exception.getMessage());
+            throw new ToastError("Erro ao conectar no banco de dados: " + exception.getMessage(), "Erro DB");
+
+        } finally {
+            this.afterExecution(statement, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Executes a script of several statements separated by semicolons, such as a schema migration. Prepared
+     * statements only run the first statement of their SQL text, so the script runs through a plain statement,
+     * which is neither cached nor recorded in the {@link QueryStats}.
+     *
+     * @param script the SQL statements
+     * @throws ToastError if any statement fails, the ones before it staying applied unless in a transaction
+     */
+    public void executeScript(String script) throws ToastError {
+        LOGGER.debug(() -> "Script: " + script);
+
+        try (Statement statement = this.connection.createStatement()) {
+            statement.executeUpdate(script);
+        } catch (SQLException exception) {
+            LOGGER.error(exception.getMessage());
+            throw new ToastError("Erro ao conectar no banco de dados: " + exception.getMessage(), "Erro DB");
+        }
     }
 
     private ResultSet executeStatement(PreparedStatement statement, METHOD method) throws ToastError {
+        long start = System.nanoTime();
         try {
-            System.out.println("Query: " + statement);
+            LOGGER.debug(() -> "Query: " + statement);
             statement.setQueryTimeout(30);
 
             if (Objects.requireNonNull(method) == METHOD.QUERY) {
-                return statement.executeQuery();
+                ResultSet resultSet = statement.executeQuery();
+                this.resultSets.add(resultSet);
+                return resultSet;
             }
-            statement.executeUpdate();
+            this.updateCount = statement.executeUpdate();
             return null;
 
 
@@ -46,37 +258,30 @@ public class DataBase implements AutoCloseable {
             if (message.equals("query does not return ResultSet") || message.equals("Query does not return results")) {
                 return null;
             }
-            System.out.println(message);
+            LOGGER.error(message);
             throw new ToastError("Erro ao conectar no banco de dados: " + exception.getMessage(), "Erro DB");
 
+        } finally {
+            this.afterExecution(statement, System.nanoTime() - start);
         }
     }
 
-    private Connection getConnection() throws ToastError {
-        try {
-
-            if (this.connection != null) {
-                return this.connection;
+    /**
+     * Records the execution time of a statement in the {@link QueryStats} and marks the table it writes to,
+     * if any, as changed in the {@link TableVersions}, or once the unit of work of the session commits.
+     *
+     * @param statement the statement executed
+     * @param nanos     the execution time in nanoseconds
+     */
+    private void afterExecution(PreparedStatement statement, long nanos) {
+        String sql = this.statements.get(statement);
+        if (sql != null) {
+            QueryStats.getInstance().record(sql, statement, nanos);
+            if (this.unit != null) {
+                this.unit.recordWrite(sql);
+            } else {
+                TableVersions.bumpWrittenBy(sql);
             }
-
-            Class.forName("org.sqlite.JDBC");
-
-            String dir = Paths.get(
-                    "src",
-                    "main",
-                    "java",
-                    "tool",
-                    "rental",
-                    "domain",
-                    "infra",
-                    "db",
-                    "db"
-            ).toString();
-            return DriverManager.getConnection("jdbc:sqlite:" + dir);
-
-        } catch (SQLException | ClassNotFoundException exception) {
-            System.out.println(exception.getMessage());
-            throw new ToastError("Erro ao conectar no banco de dados: " + exception.getMessage(), "Erro DB");
         }
     }
 
@@ -86,19 +291,42 @@ public class DataBase implements AutoCloseable {
             return;
         }
 
-        try {
-            this.connection.close();
-            this.connection = null;
+        SQLException failure = null;
 
-        } catch (SQLException exception) {
-            System.out.println(exception.getMessage());
+        for (ResultSet resultSet : this.resultSets) {
+            try {
+                resultSet.close();
+            } catch (SQLException exception) {
+                failure = exception;
+            }
+        }
+
+        StatementCache statementCache = this.pooledConnection.getStatementCache();
+        for (PreparedStatement statement : this.statements.keySet()) {
+            try {
+                statementCache.release(statement);
+            } catch (SQLException exception) {
+                failure = exception;
+            }
+        }
+
+        this.resultSets.clear();
+        this.statements.clear();
+        this.identityMaps.clear();
+        if (this.unit == null) {
+            ConnectionPool.getInstance().release(this.pooledConnection);
+            LOGGER.debug(() -> "DB Connection released.");
+        }
+        this.pooledConnection = null;
+        this.connection = null;
+
+        if (failure != null) {
+            LOGGER.error(failure.getMessage());
 
             throw new ToastError(
                     "Falha ao encerrar sessão do banco de dados.",
                     "Erro de banco de dados."
             );
-        } finally {
-            System.out.println("DB Connection closed.");
         }
     }
 }
@@ -0,0 +1,257 @@
+package tool.rental.domain.infra.db;
+
+import tool.rental.utils.Logger;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.ToIntFunction;
+
+/**
+ * A bounded, least recently used cache of entities by id, so that looking up an entity just listed, such as the
+ * tool selected in the main table, does not query the database again.
+ * <p>
+ * Each entity is cached along with the {@link TableVersions#stamp(String...) stamp} of the tables it is read
+ * from, and is stale as soon as any of them changes, whoever changed it. Repositories also
+ * {@link #invalidate(String) invalidate} the entities they write, since the stamps of tables written in a
+ * {@link UnitOfWork} only change once it commits. Entities read in a unit are not cached, as they may hold
+ * changes the unit then rolls back.
+ * <p>
+ * The cache is bounded by the weight of its entries rather than their number, an entry weighing as many
+ * entities as it keeps in memory: a tool with its open rental and the friend who has it weighs three, a
+ * tool on the shelf one, so caching rented tools does not hold three times the memory the bound suggests.
+ *
+ * @param <T> the type of the entities
+ */
+public class EntityCache<T> {
+
+    /**
+     * The logger of this class.
+     */
+    private static final Logger LOGGER = Logger.getLogger(EntityCache.class);
+
+    /**
+     * The system property holding the maximum total weight of the entries of each cache.
+     */
+    public static final String MAX_WEIGHT_PROPERTY = "tool.rental.db.entityCache.maxWeight";
+
+    /**
+     * The maximum total weight of the entries of each cache, unless told otherwise: 2000 tools along with
+     * their rental and friend.
+     */
+    public static final int MAX_WEIGHT = Integer.getInteger(MAX_WEIGHT_PROPERTY, 6_000);
+
+    /**
+     * Every cache created, for the statistics report.
+     */
+    private static final List<EntityCache<?>> CACHES = new CopyOnWriteArrayList<>();
+
+    /**
+     * The name of the cache, for the statistics.
+     */
+    private final String name;
+
+    /**
+     * The tables the entities are read from.
+     */
+    private final String[] tables;
+
+    /**
+     * The maximum total weight of the entries.
+     */
+    private final int maxWeight;
+
+    /**
+     * Returns the weight of an entity, the number of entities it keeps in memory, itself included.
+     */
+    private final ToIntFunction<? super T> weigher;
+
+    /**
+     * The total weight of the entries.
+     */
+    private long weight = 0;
+
+    /**
+     * The entities by id, least recently used first.
+     */
+    private final LinkedHashMap<String, Entry<T>> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * The number of lookups served from the cache.
+     */
+    private long hits = 0;
+
+    /**
+     * The number of lookups that had to query the database.
+     */
+    private long misses = 0;
+
+    /**
+     * The number of entities dropped to make room for others.
+     */
+    private long evictions = 0;
+
+    /**
+     * The number of entities dropped because they changed.
+     */
+    private long invalidations = 0;
+
+    /**
+     * Creates a cache of entities weighing one each, keeping up to {@link #MAX_WEIGHT} of them.
+     *
+     * @param name   the name of the cache, for the statistics
+     * @param tables the tables the entities are read from, any change to which makes them stale
+     */
+    public EntityCache(String name, String... tables) {
+        this(name, MAX_WEIGHT, entity -> 1, tables);
+    }
+
+    /**
+     * Creates a cache keeping entries up to a total weight of {@link #MAX_WEIGHT}.
+     *
+     * @param name    the name of the cache, for the statistics
+     * @param weigher returns the number of entities an entity keeps in memory, itself included
+     * @param tables  the tables the entities are read from, any change to which makes them stale
+     */
+    public EntityCache(String name, ToIntFunction<? super T> weigher, String... tables) {
+        this(name, MAX_WEIGHT, weigher, tables);
+    }
+
+    /**
+     * Creates a cache.
+     *
+     * @param name      the name of the cache, for the statistics
+     * @param maxWeight the maximum total weight of the entries, 0 disabling the cache
+     * @param weigher   returns the number of entities an entity keeps in memory, itself included
+     * @param tables    the tables the entities are read from, any change to which makes them stale
+     */
+    public EntityCache(String name, int maxWeight, ToIntFunction<? super T> weigher, String... tables) {
+        this.name = name;
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
+        this.tables = tables;
+        CACHES.add(this);
+    }
+
+    /**
+     * Returns every cache created.
+     *
+     * @return the caches
+     */
+    public static List<EntityCache<?>> getAll() {
+        return List.copyOf(CACHES);
+    }
+
+    /**
+     * Returns the current version of the tables the entities are read from. It must be read before querying
+     * the entities to cache, so that a change made while querying leaves them stale.
+     *
+     * @return the stamp to cache the entities with
+     */
+    public long stamp() {
+        return TableVersions.stamp(this.tables);
+    }
+
+    /**
+     * Returns the cached entity with the given id, if it is still current.
+     *
+     * @param id the id of the entity
+     * @return the entity, or null if it must be read from the database
+     */
+    public synchronized T get(String id) {
+        Entry<T> entry = this.entries.get(id);
+        if (entry == null) {
+            this.misses++;
+            return null;
+        }
+
+        if (entry.stamp() != this.stamp()) {
+            this.entries.remove(id);
+            this.weight -= entry.weight();
+            this.invalidations++;
+            this.misses++;
+            return null;
+        }
+
+        this.hits++;
+        return entry.entity();
+    }
+
+    /**
+     * Caches an entity, unless it was read in a unit of work or its tables changed since it was read.
+     *
+     * @param id     the id of the entity
+     * @param entity the entity
+     * @param stamp  the {@link #stamp()} read before querying the entity
+     */
+    public synchronized void put(String id, T entity, long stamp) {
+        if (this.maxWeight == 0 || UnitOfWork.current() != null || stamp != this.stamp()) {
+            return;
+        }
+
+        Entry<T> entry = new Entry<>(entity, stamp, Math.max(1, this.weigher.applyAsInt(entity)));
+        Entry<T> replaced = this.entries.put(id, entry);
+        this.weight += entry.weight() - (replaced == null ? 0 : replaced.weight());
+
+        Iterator<Map.Entry<String, Entry<T>>> eldest = this.entries.entrySet().iterator();
+        while (this.weight > this.maxWeight) {
+            this.weight -= eldest.next().getValue().weight();
+            eldest.remove();
+            this.evictions++;
+        }
+    }
+
+    /**
+     * Drops the entity with the given id, after it was changed or deleted.
+     *
+     * @param id the id of the entity
+     */
+    public synchronized void invalidate(String id) {
+        Entry<T> entry = this.entries.remove(id);
+        if (entry != null) {
+            this.weight -= entry.weight();
+            this.invalidations++;
+        }
+    }
+
+    /**
+     * Drops every entity.
+     */
+    public synchronized void invalidateAll() {
+        this.invalidations += this.entries.size();
+        this.entries.clear();
+        this.weight = 0;
+        LOGGER.debug(() -> "Entity cache " + this.name + " cleared.");
+    }
+
+    /**
+     * Returns a snapshot of the counters of the cache.
+     *
+     * @return the statistics
+     */
+    public synchronized EntityCacheStats getStats() {
+        return new EntityCacheStats(
+                this.name,
+                this.entries.size(),
+                this.weight,
+                this.maxWeight,
+                this.hits,
+                this.misses,
+                this.evictions,
+                this.invalidations
+        );
+    }
+
+    /**
+     * A cached entity.
+     *
+     * @param entity the entity
+     * @param stamp  the version of the tables it was read from
+     * @param weight the number of entities it keeps in memory
+     * @param <T>    the type of the entity
+     */
+    private record Entry<T>(T entity, long stamp, int weight) {
+    }
+}
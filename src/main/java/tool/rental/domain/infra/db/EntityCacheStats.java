@@ -0,0 +1,35 @@
+package tool.rental.domain.infra.db;
+
+/**
+ * A point-in-time snapshot of the counters of an {@link EntityCache}.
+ *
+ * @param name          the name of the cache
+ * @param size          the number of entities cached, some of which may be stale
+ * @param weight        the total weight of the entities cached, the number of entities they keep in memory
+ * @param maxWeight     the maximum total weight of the entities cached
+ * @param hits          the number of lookups served from the cache
+ * @param misses        the number of lookups that found no entity, or a stale one, and had to query the database
+ * @param evictions     the number of entities dropped to make room for others
+ * @param invalidations the number of entities dropped because they changed
+ */
+public record EntityCacheStats(
+        String name,
+        int size,
+        long weight,
+        int maxWeight,
+        long hits,
+        long misses,
+        long evictions,
+        long invalidations
+) {
+
+    /**
+     * Returns the fraction of lookups served from the cache.
+     *
+     * @return the hit ratio, between 0 and 1
+     */
+    public double hitRatio() {
+        long total = this.hits + this.misses;
+        return total == 0 ? 0.0 : this.hits / (double) total;
+    }
+}
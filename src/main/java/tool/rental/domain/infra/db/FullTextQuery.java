@@ -0,0 +1,43 @@
+package tool.rental.domain.infra.db;
+
+import java.util.StringJoiner;
+
+/**
+ * Turns text typed by a user into an FTS5 {@code MATCH} expression.
+ * <p>
+ * The text is split into words the way the unicode61 tokenizer does, on anything that is not a letter or a
+ * digit, and every word becomes a quoted prefix query, so that quotes, parentheses or the keywords
+ * {@code AND}, {@code OR}, {@code NOT} and {@code NEAR} typed by the user are never read as query syntax.
+ * Rows must contain every word, so "mar ele" finds "Martelo Elétrico".
+ */
+public final class FullTextQuery {
+
+    /**
+     * Prevents instantiation.
+     */
+    private FullTextQuery() {
+    }
+
+    /**
+     * Builds the match expression for a text.
+     *
+     * @param text the text typed by the user
+     * @return the match expression, or null if the text holds no word
+     */
+    public static String of(String text) {
+        StringJoiner expression = new StringJoiner(" ");
+        StringBuilder word = new StringBuilder();
+
+        for (int i = 0; i <= text.length(); i++) {
+            char c = i < text.length() ? text.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                word.append(c);
+            } else if (!word.isEmpty()) {
+                expression.add("\"" + word + "\"*");
+                word.setLength(0);
+            }
+        }
+
+        return expression.length() == 0 ? null : expression.toString();
+    }
+}
@@ -0,0 +1,71 @@
+package tool.rental.domain.infra.db;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+
+/**
+ * Keeps a single instance of each entity read in a database session, by id, so that rows referring to the same
+ * entity, such as every rental of a friend, share one object instead of each building its own copy.
+ * <p>
+ * Each {@link DataBase} session holds a map per entity type, released along with it, so entities are shared
+ * within a query and between the queries of a session but never outlive it: a later session reads them again.
+ *
+ * @param <T> the type of the entities
+ */
+public class IdentityMap<T> {
+
+    /**
+     * The entities read, by id.
+     */
+    private final HashMap<String, T> entities = new HashMap<>();
+
+    /**
+     * The number of rows that found their entity already read.
+     */
+    private long hits = 0;
+
+    /**
+     * Returns the entity with the given id, building it from the current row only if it was not read before.
+     *
+     * @param id     the id of the entity in the row
+     * @param result the result set, positioned on the row
+     * @param mapper builds the entity from the row
+     * @return the entity; built from the row but not kept when the id is null, such as for an outer join
+     * that matched nothing
+     * @throws SQLException if the entity cannot be built
+     */
+    public T resolve(String id, ResultSet result, RowMapper<T> mapper) throws SQLException {
+        if (id == null) {
+            return mapper.map(result);
+        }
+
+        T entity = this.entities.get(id);
+        if (entity != null) {
+            this.hits++;
+            return entity;
+        }
+
+        entity = mapper.map(result);
+        this.entities.put(id, entity);
+        return entity;
+    }
+
+    /**
+     * Returns the number of distinct entities read.
+     *
+     * @return the number of entities
+     */
+    public int size() {
+        return this.entities.size();
+    }
+
+    /**
+     * Returns the number of rows that found their entity already read, and so did not build a copy.
+     *
+     * @return the number of hits
+     */
+    public long getHits() {
+        return this.hits;
+    }
+}
@@ -0,0 +1,174 @@
+package tool.rental.domain.infra.db;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A fixed size, log-linear latency histogram in the style of HdrHistogram.
+ * <p>
+ * Latencies are recorded in microseconds. Values below {@value #SUB_BUCKET_COUNT} are counted exactly; above
+ * that every power of two is split into {@value #HALF_SUB_BUCKET_COUNT} linear buckets, so any percentile is
+ * reported within about 3% of the real value while the whole histogram fits in a thousand counters.
+ * Recording is lock-free and safe from any thread.
+ */
+public class LatencyHistogram {
+
+    /**
+     * The number of bits of precision kept for every value.
+     */
+    private static final int SUB_BUCKET_BITS = 6;
+
+    /**
+     * The number of values counted exactly before buckets start to widen.
+     */
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+    /**
+     * The number of linear buckets each power of two is split into.
+     */
+    private static final int HALF_SUB_BUCKET_COUNT = SUB_BUCKET_COUNT / 2;
+
+    /**
+     * The highest value tracked, in microseconds. Anything above is counted as this value.
+     */
+    private static final long HIGHEST_TRACKABLE_MICROS = (1L << 36) - 1;
+
+    /**
+     * The number of buckets needed to track values up to {@link #HIGHEST_TRACKABLE_MICROS}.
+     */
+    private static final int BUCKET_COUNT = indexOf(HIGHEST_TRACKABLE_MICROS) + 1;
+
+    /**
+     * The number of values recorded in each bucket.
+     */
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+
+    /**
+     * The number of values recorded.
+     */
+    private final LongAdder count = new LongAdder();
+
+    /**
+     * The sum of the values recorded, in microseconds.
+     */
+    private final LongAdder totalMicros = new LongAdder();
+
+    /**
+     * The highest value recorded, in microseconds.
+     */
+    private final AtomicLong maxMicros = new AtomicLong();
+
+    /**
+     * Records a latency.
+     *
+     * @param nanos the latency in nanoseconds
+     */
+    public void record(long nanos) {
+        long micros = Math.min(Math.max(0, nanos / 1_000), HIGHEST_TRACKABLE_MICROS);
+
+        this.counts.incrementAndGet(indexOf(micros));
+        this.count.increment();
+        this.totalMicros.add(micros);
+        this.maxMicros.accumulateAndGet(micros, Math::max);
+    }
+
+    /**
+     * Returns the number of values recorded.
+     *
+     * @return the count
+     */
+    public long getCount() {
+        return this.count.sum();
+    }
+
+    /**
+     * Returns the mean of the values recorded.
+     *
+     * @return the mean latency in milliseconds, 0 if nothing was recorded
+     */
+    public double getMeanMillis() {
+        long count = this.count.sum();
+        return count == 0 ? 0 : this.totalMicros.sum() / 1_000.0 / count;
+    }
+
+    /**
+     * Returns the sum of the values recorded.
+     *
+     * @return the total latency in milliseconds
+     */
+    public double getTotalMillis() {
+        return this.totalMicros.sum() / 1_000.0;
+    }
+
+    /**
+     * Returns the highest value recorded.
+     *
+     * @return the maximum latency in milliseconds
+     */
+    public double getMaxMillis() {
+        return this.maxMicros.get() / 1_000.0;
+    }
+
+    /**
+     * Returns the value below which the given percentage of the recorded values fall.
+     *
+     * @param percentile the percentile, between 0 and 100
+     * @return the latency in milliseconds, reported as the upper bound of its bucket, 0 if nothing was
+     * recorded
+     */
+    public double getPercentileMillis(double percentile) {
+        long[] snapshot = new long[BUCKET_COUNT];
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            snapshot[i] = this.counts.get(i);
+            total += snapshot[i];
+        }
+
+        if (total == 0) {
+            return 0;
+        }
+
+        long target = Math.max(1, (long) Math.ceil(Math.min(100, percentile) / 100 * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += snapshot[i];
+            if (seen >= target) {
+                return Math.min(highestEquivalentValue(i), this.maxMicros.get()) / 1_000.0;
+            }
+        }
+        return this.getMaxMillis();
+    }
+
+    /**
+     * Returns the bucket a value falls in.
+     *
+     * @param micros the value in microseconds
+     * @return the bucket index
+     */
+    private static int indexOf(long micros) {
+        if (micros < SUB_BUCKET_COUNT) {
+            return (int) micros;
+        }
+
+        int magnitude = 63 - Long.numberOfLeadingZeros(micros) - SUB_BUCKET_BITS + 1;
+        int subBucket = (int) (micros >>> magnitude);
+        return magnitude * HALF_SUB_BUCKET_COUNT + subBucket;
+    }
+
+    /**
+     * Returns the highest value that falls in a bucket.
+     *
+     * @param index the bucket index
+     * @return the value in microseconds
+     */
+    private static long highestEquivalentValue(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+
+        int magnitude = index / HALF_SUB_BUCKET_COUNT - 1;
+        long subBucket = index - (long) magnitude * HALF_SUB_BUCKET_COUNT;
+        return (subBucket << magnitude) + (1L << magnitude) - 1;
+    }
+}
@@ -0,0 +1,12 @@
+package tool.rental.domain.infra.db;
+
+/**
+ * A schema migration script, read from the classpath by the {@link SchemaMigrator}.
+ *
+ * @param version     the schema version the script brings the database to
+ * @param description what the script changes, taken from its file name
+ * @param script      the SQL statements of the script
+ * @param checksum    the checksum of the script, telling whether it changed after being applied
+ */
+public record Migration(int version, String description, String script, String checksum) {
+}
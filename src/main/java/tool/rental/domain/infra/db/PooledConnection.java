@@ -0,0 +1,120 @@
+package tool.rental.domain.infra.db;
+
+import tool.rental.utils.Logger;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * A physical database connection owned by the {@link ConnectionPool}, along with its usage bookkeeping.
+ */
+public class PooledConnection {
+
+    /**
+     * The logger of this class.
+     */
+    private static final Logger LOGGER = Logger.getLogger(PooledConnection.class);
+
+    /**
+     * The underlying JDBC connection.
+     */
+    private final Connection connection;
+
+    /**
+     * The prepared statements cached for this connection.
+     */
+    private final StatementCache statementCache;
+
+    /**
+     * The moment, in milliseconds, the connection was opened.
+     */
+    private final long createdAt;
+
+    /**
+     * The moment, in milliseconds, the connection was last borrowed or returned.
+     */
+    private volatile long lastUsedAt;
+
+    /**
+     * Creates a new pooled connection wrapping the given JDBC connection.
+     *
+     * @param connection         the JDBC connection
+     * @param statementCacheSize the maximum number of prepared statements cached for the connection
+     * @param counters           the pool wide statement cache counters
+     */
+    PooledConnection(Connection connection, int statementCacheSize, StatementCache.Counters counters) {
+        this.connection = connection;
+        this.statementCache = new StatementCache(connection, statementCacheSize, counters);
+        this.createdAt = System.currentTimeMillis();
+        this.lastUsedAt = this.createdAt;
+    }
+
+    /**
+     * Returns the underlying JDBC connection.
+     *
+     * @return the JDBC connection
+     */
+    public Connection getConnection() {
+        return this.connection;
+    }
+
+    /**
+     * Returns the prepared statement cache of this connection.
+     *
+     * @return the statement cache
+     */
+    public StatementCache getStatementCache() {
+        return this.statementCache;
+    }
+
+    /**
+     * Returns the moment, in milliseconds, the connection was opened.
+     *
+     * @return the creation timestamp
+     */
+    public long getCreatedAt() {
+        return this.createdAt;
+    }
+
+    /**
+     * Returns for how long, in milliseconds, the connection has not been used.
+     *
+     * @param now the current timestamp in milliseconds
+     * @return the idle time in milliseconds
+     */
+    long idleMillis(long now) {
+        return now - this.lastUsedAt;
+    }
+
+    /**
+     * Records that the connection has just been borrowed or returned.
+     */
+    void touch() {
+        this.lastUsedAt = System.currentTimeMillis();
+    }
+
+    /**
+     * Puts the connection back in its default state before it returns to the pool.
+     * Any transaction left open by the borrower is rolled back.
+     *
+     * @throws SQLException if the connection cannot be reset
+     */
+    void reset() throws SQLException {
+        if (!this.connection.getAutoCommit()) {
+            this.connection.rollback();
+            this.connection.setAutoCommit(true);
+        }
+    }
+
+    /**
+     * Closes the physical connection, ignoring any error since the connection is being discarded.
+     */
+    void closeQuietly() {
+        this.statementCache.clear();
+        try {
+            this.connection.close();
+        } catch (SQLException exception) {
+            LOGGER.error(exception.getMessage());
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package tool.rental.domain.infra.db;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * A named set of SQLite pragmas applied to every new connection opened by the {@link ConnectionPool}.
+ * <p>
+ * All profiles use write-ahead logging, so readers do not block the writer and a commit appends to the
+ * log instead of rewriting a rollback journal. They differ in how hard each commit is flushed to disk
+ * and in how much memory SQLite may use.
+ */
+public enum PragmaProfile {
+
+    /**
+     * Flushes every commit to disk. Survives power loss.
+     */
+    DURABLE("durable", "WAL", "FULL", -8_000, 0L, "DEFAULT", 5_000),
+
+    /**
+     * Flushes at checkpoints only. Survives application crashes, a power loss may drop the latest commits.
+     */
+    FAST("fast", "WAL", "NORMAL", -32_000, 268_435_456L, "MEMORY", 5_000),
+
+    /**
+     * Never flushes and uses a large cache, meant for imports that can be repeated if interrupted.
+     */
+    BULK_LOAD("bulk-load", "WAL", "OFF", -131_072, 268_435_456L, "MEMORY", 30_000);
+
+    /**
+     * The system property used to select the profile.
+     */
+    public static final String PROPERTY = "tool.rental.db.profile";
+
+    /**
+     * The name used to select the profile.
+     */
+    private final String profileName;
+
+    /**
+     * The value of {@code PRAGMA journal_mode}.
+     */
+    private final String journalMode;
+
+    /**
+     * The value of {@code PRAGMA synchronous}.
+     */
+    private final String synchronous;
+
+    /**
+     * The value of {@code PRAGMA cache_size}, negative values are in KiB.
+     */
+    private final int cacheSize;
+
+    /**
+     * The value of {@code PRAGMA mmap_size}, in bytes.
+     */
+    private final long mmapSize;
+
+    /**
+     * The value of {@code PRAGMA temp_store}.
+     */
+    private final String tempStore;
+
+    /**
+     * The value of {@code PRAGMA busy_timeout}, in milliseconds.
+     */
+    private final int busyTimeout;
+
+    /**
+     * Creates a new pragma profile.
+     *
+     * @param profileName the name used to select the profile
+     * @param journalMode the journal mode
+     * @param synchronous the synchronous level
+     * @param cacheSize   the page cache size, negative values are in KiB
+     * @param mmapSize    the memory mapped I/O size in bytes
+     * @param tempStore   where temporary tables and indices are kept
+     * @param busyTimeout how long, in milliseconds, to wait for a lock before failing
+     */
+    PragmaProfile(String profileName, String journalMode, String synchronous, int cacheSize, long mmapSize,
+                  String tempStore, int busyTimeout) {
+        this.profileName = profileName;
+        this.journalMode = journalMode;
+        this.synchronous = synchronous;
+        this.cacheSize = cacheSize;
+        this.mmapSize = mmapSize;
+        this.tempStore = tempStore;
+        this.busyTimeout = busyTimeout;
+    }
+
+    /**
+     * Returns the profile selected by the {@value #PROPERTY} system property, {@link #DURABLE} by default.
+     *
+     * @return the selected profile
+     * @throws IllegalArgumentException if the property names an unknown profile
+     */
+    public static PragmaProfile fromSystemProperties() {
+        return fromName(System.getProperty(PROPERTY, DURABLE.profileName));
+    }
+
+    /**
+     * Returns the profile with the given name.
+     *
+     * @param name the profile name, e.g. "durable", "fast" or "bulk-load"
+     * @return the profile
+     * @throws IllegalArgumentException if there is no profile with that name
+     */
+    public static PragmaProfile fromName(String name) {
+        for (PragmaProfile profile : values()) {
+            if (profile.profileName.equalsIgnoreCase(name.trim())) {
+                return profile;
+            }
+        }
+        throw new IllegalArgumentException("Unknown database profile: " + name);
+    }
+
+    /**
+     * Returns the name used to select the profile.
+     *
+     * @return the profile name
+     */
+    public String getProfileName() {
+        return this.profileName;
+    }
+
+    /**
+     * Applies the profile pragmas to a freshly opened connection.
+     *
+     * @param connection the connection to configure
+     * @return the journal mode actually in effect, which may differ from the requested one if the
+     * file system does not support it
+     * @throws SQLException if a pragma cannot be applied
+     */
+    public String apply(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("PRAGMA busy_timeout = " + this.busyTimeout);
+            statement.execute("PRAGMA synchronous = " + this.synchronous);
+            statement.execute("PRAGMA cache_size = " + this.cacheSize);
+            statement.execute("PRAGMA mmap_size = " + this.mmapSize);
+            statement.execute("PRAGMA temp_store = " + this.tempStore);
+
+            try (ResultSet result = statement.executeQuery("PRAGMA journal_mode = " + this.journalMode)) {
+                return result.next() ? result.getString(1) : this.journalMode;
+            }
+        }
+    }
+
+    /**
+     * Returns a one line description of the profile pragmas.
+     *
+     * @return the profile description
+     */
+    public String describe() {
+        return String.format(
+                "%s (journal_mode=%s, synchronous=%s, cache_size=%d, mmap_size=%d, temp_store=%s, busy_timeout=%d)",
+                this.profileName,
+                this.journalMode,
+                this.synchronous,
+                this.cacheSize,
+                this.mmapSize,
+                this.tempStore,
+                this.busyTimeout
+        );
+    }
+}
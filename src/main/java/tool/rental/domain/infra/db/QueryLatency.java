@@ -0,0 +1,25 @@
+package tool.rental.domain.infra.db;
+
+/**
+ * A point-in-time snapshot of the latency of one normalized SQL statement.
+ *
+ * @param sql         the normalized SQL text
+ * @param count       the number of executions
+ * @param meanMillis  the mean latency, in milliseconds
+ * @param p50Millis   the median latency, in milliseconds
+ * @param p95Millis   the 95th percentile latency, in milliseconds
+ * @param p99Millis   the 99th percentile latency, in milliseconds
+ * @param maxMillis   the highest latency, in milliseconds
+ * @param totalMillis the time spent in every execution summed, in milliseconds
+ */
+public record QueryLatency(
+        String sql,
+        long count,
+        double meanMillis,
+        double p50Millis,
+        double p95Millis,
+        double p99Millis,
+        double maxMillis,
+        double totalMillis
+) {
+}
@@ -0,0 +1,75 @@
+package tool.rental.domain.infra.db;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Checks, with {@code EXPLAIN QUERY PLAN}, that queries look rows up through an index rather than scanning
+ * whole tables or indexes.
+ * <p>
+ * The test suite runs it over every query the repositories execute, so that a query degrading to a full scan,
+ * after a change to the query or to the indexes, fails the build rather than slowing the main screen down.
+ */
+public final class QueryPlanChecker {
+
+    /**
+     * Matches a plan step reading every row of a table, or of one of its indexes, where {@code SEARCH} steps
+     * only read the rows found through an index. Virtual tables, such as full-text indexes, do their own
+     * indexing and are reported as {@code SCAN ... VIRTUAL TABLE}, and {@code VALUES} lists as constant rows.
+     */
+    private static final Pattern FULL_SCAN = Pattern.compile("^SCAN (?!.*CONSTANT ROW)(?!.* VIRTUAL TABLE)(\\S+).*");
+
+    /**
+     * Matches a plan step computing the rows of a subquery or common table expression, such as a {@code VALUES}
+     * list of rows to look up. Scanning those rows reads no table, the steps computing them being checked on
+     * their own.
+     */
+    private static final Pattern SUBQUERY = Pattern.compile("^(?:CO-ROUTINE|MATERIALIZE) (\\S+).*");
+
+    /**
+     * Not instantiable.
+     */
+    private QueryPlanChecker() {
+    }
+
+    /**
+     * Lists the steps of the plan of a query that read a table without an index.
+     *
+     * @param connection the connection to explain the query with
+     * @param sql        the SQL text, whose parameters are left unbound
+     * @return the full scan steps, as described by SQLite, empty if the query only uses indexes
+     * @throws SQLException if the plan cannot be read
+     */
+    public static List<String> findFullScans(Connection connection, String sql) throws SQLException {
+        ArrayList<String> fullScans = new ArrayList<>();
+        HashSet<String> subqueries = new HashSet<>();
+
+        try (
+                PreparedStatement stm = connection.prepareStatement("EXPLAIN QUERY PLAN " + sql);
+                ResultSet result = stm.executeQuery()
+        ) {
+            while (result.next()) {
+                String detail = result.getString("detail");
+
+                Matcher subquery = SUBQUERY.matcher(detail);
+                if (subquery.matches()) {
+                    subqueries.add(subquery.group(1));
+                    continue;
+                }
+
+                Matcher fullScan = FULL_SCAN.matcher(detail);
+                if (fullScan.matches() && !subqueries.contains(fullScan.group(1))) {
+                    fullScans.add(detail);
+                }
+            }
+        }
+        return fullScans;
+    }
+}
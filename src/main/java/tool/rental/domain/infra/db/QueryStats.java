@@ -0,0 +1,314 @@
+package tool.rental.domain.infra.db;
+
+import tool.rental.utils.Logger;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Latency statistics of every SQL statement executed through a {@link DataBase} session.
+ * <p>
+ * Each execution is recorded in a {@link LatencyHistogram} keyed by the normalized SQL text, so a query shows
+ * up once no matter which parameters it ran with. Executions slower than the threshold set by the
+ * {@value #SLOW_QUERY_PROPERTY} system property are also logged as warnings, with their bound parameters, and
+ * kept in a short list of recent slow queries. The parameters of statements reading or writing the password
+ * column are left out. When {@value #DUMP_FILE_PROPERTY} is set, a report is written to that file when the
+ * application exits, along with the counters of the {@link EntityCache entity caches}.
+ */
+public class QueryStats {
+
+    /**
+     * The system property holding the slow query threshold, in milliseconds.
+     */
+    public static final String SLOW_QUERY_PROPERTY = "tool.rental.db.slowQueryMillis";
+
+    /**
+     * The system property holding the file the report is written to on exit.
+     */
+    public static final String DUMP_FILE_PROPERTY = "tool.rental.db.stats.dumpFile";
+
+    /**
+     * The number of recent slow queries kept.
+     */
+    private static final int RECENT_SLOW_QUERIES = 100;
+
+    /**
+     * Matches the SQL text of statements binding a password, whose parameters are never logged.
+     */
+    private static final Pattern SENSITIVE_SQL = Pattern.compile("\\bpassword\\b", Pattern.CASE_INSENSITIVE);
+
+    /**
+     * Written instead of the parameters of statements binding a password.
+     */
+    private static final String REDACTED_PARAMETERS = "[ocultos]";
+
+    /**
+     * The logger of this class.
+     */
+    private static final Logger LOGGER = Logger.getLogger(QueryStats.class);
+
+    /**
+     * The application wide statistics.
+     */
+    private static QueryStats INSTANCE;
+
+    /**
+     * The executions slower than this are logged, in nanoseconds.
+     */
+    private final long slowQueryNanos;
+
+    /**
+     * The normalized SQL text of every SQL text seen, so that each text is only normalized once.
+     */
+    private final Map<String, String> normalized = new ConcurrentHashMap<>();
+
+    /**
+     * The latency histogram of each normalized SQL text.
+     */
+    private final Map<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+
+    /**
+     * The most recent slow queries, oldest first.
+     */
+    private final ArrayDeque<SlowQuery> slowQueries = new ArrayDeque<>();
+
+    /**
+     * Creates new query statistics.
+     *
+     * @param slowQueryMillis the threshold above which executions are logged, in milliseconds
+     */
+    public QueryStats(long slowQueryMillis) {
+        this.slowQueryNanos = slowQueryMillis * 1_000_000;
+    }
+
+    /**
+     * Returns the application wide statistics, configured from the system properties on first use.
+     *
+     * @return the query statistics
+     */
+    public static synchronized QueryStats getInstance() {
+        if (INSTANCE == null) {
+            INSTANCE = new QueryStats(Long.getLong(SLOW_QUERY_PROPERTY, 200));
+
+            String dumpFile = System.getProperty(DUMP_FILE_PROPERTY);
+            if (dumpFile != null && !dumpFile.isBlank()) {
+                QueryStats stats = INSTANCE;
+                Runtime.getRuntime().addShutdownHook(
+                        new Thread(() -> stats.dumpQuietly(Path.of(dumpFile)), "db-stats-dump")
+                );
+            }
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * Records an execution.
+     *
+     * @param sql       the SQL text executed
+     * @param statement the statement executed, only described at the debug level when the execution is slow
+     * @param nanos     the execution time in nanoseconds
+     */
+    public void record(String sql, Object statement, long nanos) {
+        String key = this.normalized.computeIfAbsent(sql, QueryStats::normalize);
+        this.histograms.computeIfAbsent(key, ignored -> new LatencyHistogram()).record(nanos);
+
+        if (nanos >= this.slowQueryNanos) {
+            this.recordSlowQuery(key, statement, nanos);
+        }
+    }
+
+    /**
+     * Returns the latency of every statement executed, the ones that took the most time overall first.
+     *
+     * @return the latency snapshots
+     */
+    public List<QueryLatency> getSnapshot() {
+        List<QueryLatency> snapshot = new ArrayList<>(this.histograms.size());
+        for (Map.Entry<String, LatencyHistogram> entry : this.histograms.entrySet()) {
+            LatencyHistogram histogram = entry.getValue();
+            snapshot.add(new QueryLatency(
+                    entry.getKey(),
+                    histogram.getCount(),
+                    histogram.getMeanMillis(),
+                    histogram.getPercentileMillis(50),
+                    histogram.getPercentileMillis(95),
+                    histogram.getPercentileMillis(99),
+                    histogram.getMaxMillis(),
+                    histogram.getTotalMillis()
+            ));
+        }
+
+        snapshot.sort(Comparator.comparingDouble(QueryLatency::totalMillis).reversed());
+        return snapshot;
+    }
+
+    /**
+     * Returns the statements with the highest 99th percentile latency.
+     *
+     * @param limit the maximum number of statements returned
+     * @return the slowest statements, slowest first
+     */
+    public List<QueryLatency> getTopSlowest(int limit) {
+        return this.getSnapshot().stream()
+                .sorted(Comparator.comparingDouble(QueryLatency::p99Millis).reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    /**
+     * Returns the most recent executions slower than the threshold.
+     *
+     * @return the slow queries, oldest first
+     */
+    public List<SlowQuery> getSlowQueries() {
+        synchronized (this.slowQueries) {
+            return List.copyOf(this.slowQueries);
+        }
+    }
+
+    /**
+     * Forgets every recorded execution.
+     */
+    public void reset() {
+        this.histograms.clear();
+        synchronized (this.slowQueries) {
+            this.slowQueries.clear();
+        }
+    }
+
+    /**
+     * Writes a plain text report of every statement latency and of the recent slow queries.
+     *
+     * @param file the file to write to, replaced if it exists
+     * @throws IOException if the file cannot be written
+     */
+    public void dump(Path file) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            this.writeReport(new PrintWriter(writer));
+        }
+    }
+
+    /**
+     * Writes a plain text report of every statement latency and of the recent slow queries.
+     *
+     * @param out where to write the report
+     */
+    public void writeReport(PrintWriter out) {
+        out.printf("%10s %10s %10s %10s %10s %10s %12s  %s%n",
+                "count", "mean ms", "p50 ms", "p95 ms", "p99 ms", "max ms", "total ms", "sql");
+
+        for (QueryLatency latency : this.getSnapshot()) {
+            out.printf("%10d %10.3f %10.3f %10.3f %10.3f %10.3f %12.3f  %s%n",
+                    latency.count(),
+                    latency.meanMillis(),
+                    latency.p50Millis(),
+                    latency.p95Millis(),
+                    latency.p99Millis(),
+                    latency.maxMillis(),
+                    latency.totalMillis(),
+                    latency.sql()
+            );
+        }
+
+        out.printf("%nConsultas lentas recentes (acima de %d ms):%n", this.slowQueryNanos / 1_000_000);
+        for (SlowQuery slowQuery : this.getSlowQueries()) {
+            out.printf("%s %10.3f ms  %s  parameters=%s%n",
+                    slowQuery.timestamp(),
+                    slowQuery.elapsedMillis(),
+                    slowQuery.sql(),
+                    slowQuery.parameters()
+            );
+        }
+
+        out.printf("%nCaches de entidades:%n");
+        out.printf("%-10s %10s %10s %10s %10s %10s %10s %12s %10s%n",
+                "cache", "size", "weight", "max", "hits", "misses", "evictions", "invalidated", "hit ratio");
+        for (EntityCache<?> cache : EntityCache.getAll()) {
+            EntityCacheStats stats = cache.getStats();
+            out.printf("%-10s %10d %10d %10d %10d %10d %10d %12d %9.1f%%%n",
+                    stats.name(),
+                    stats.size(),
+                    stats.weight(),
+                    stats.maxWeight(),
+                    stats.hits(),
+                    stats.misses(),
+                    stats.evictions(),
+                    stats.invalidations(),
+                    stats.hitRatio() * 100
+            );
+        }
+        out.flush();
+    }
+
+    /**
+     * Logs a slow execution and keeps it among the recent slow queries.
+     *
+     * @param sql       the normalized SQL text
+     * @param statement the statement executed, whose description holds the bound parameters
+     * @param nanos     the execution time in nanoseconds
+     */
+    private void recordSlowQuery(String sql, Object statement, long nanos) {
+        String parameters = SENSITIVE_SQL.matcher(sql).find()
+                ? REDACTED_PARAMETERS
+                : parametersOf(String.valueOf(statement));
+        SlowQuery slowQuery = new SlowQuery(Instant.now(), sql, parameters, nanos / 1_000_000.0);
+
+        synchronized (this.slowQueries) {
+            if (this.slowQueries.size() == RECENT_SLOW_QUERIES) {
+                this.slowQueries.pollFirst();
+            }
+            this.slowQueries.addLast(slowQuery);
+        }
+
+        LOGGER.warn(String.format(
+                "Consulta lenta (%.3f ms): %s parameters=%s", slowQuery.elapsedMillis(), slowQuery.sql(), slowQuery.parameters()
+        ));
+    }
+
+    /**
+     * Writes the report, logging instead of failing since it runs while the application exits.
+     *
+     * @param file the file to write to
+     */
+    private void dumpQuietly(Path file) {
+        try {
+            this.dump(file);
+        } catch (IOException exception) {
+            LOGGER.error("Falha ao gravar estatísticas de consultas: " + exception.getMessage());
+        }
+    }
+
+    /**
+     * Collapses the whitespace of a SQL text so that the same query written differently is counted once.
+     *
+     * @param sql the SQL text
+     * @return the normalized SQL text
+     */
+    static String normalize(String sql) {
+        return sql.strip().replaceAll("\\s+", " ");
+    }
+
+    /**
+     * Extracts the bound parameters from the description of a SQLite prepared statement, which ends with
+     * {@code parameters=[...]}.
+     *
+     * @param statement the statement description
+     * @return the bound parameters, or an empty text if there are none
+     */
+    private static String parametersOf(String statement) {
+        int start = statement.lastIndexOf("parameters=");
+        return start < 0 ? "" : statement.substring(start + "parameters=".length()).strip();
+    }
+}
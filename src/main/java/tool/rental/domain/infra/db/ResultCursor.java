@@ -0,0 +1,178 @@
+package tool.rental.domain.infra.db;
+
+import tool.rental.utils.Logger;
+import tool.rental.utils.ToastError;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * The rows of a query, read from the database one at a time as they are consumed, so that results of any size
+ * are processed in constant memory instead of being copied into a list first.
+ * <p>
+ * A cursor holds the {@link DataBase} session it was opened by, and with it a connection of the pool, until it
+ * is closed, which it is as soon as the last row is read. It must be used in a try-with-resources block, so that
+ * the connection is also given back when the rows are not all read:
+ * <pre>{@code
+ * try (ResultCursor<Tool> tools = toolRepository.openAll(false)) {
+ *     Tool tool;
+ *     while ((tool = tools.read()) != null) {
+ *         ...
+ *     }
+ * }
+ * }</pre>
+ * The cursor is also an {@link Iterator} and can be viewed as a {@link Stream}, which then throw a
+ * {@link CursorReadException} when a row cannot be read.
+ *
+ * @param <T> the type of the rows
+ */
+public class ResultCursor<T> implements Iterator<T>, AutoCloseable {
+
+    /**
+     * The logger of this class.
+     */
+    private static final Logger LOGGER = Logger.getLogger(ResultCursor.class);
+
+    /**
+     * The session holding the connection and the result set, null once closed.
+     */
+    private DataBase db;
+
+    /**
+     * The rows of the query.
+     */
+    private final ResultSet result;
+
+    /**
+     * Builds the objects from the rows.
+     */
+    private final RowMapper<T> mapper;
+
+    /**
+     * The next row, read ahead by {@link #hasNext()}, or null.
+     */
+    private T next;
+
+    /**
+     * Creates a cursor over the rows of a query.
+     *
+     * @param db     the session the query was executed by, closed along with the cursor
+     * @param result the rows of the query
+     * @param mapper builds the objects from the rows
+     */
+    ResultCursor(DataBase db, ResultSet result, RowMapper<T> mapper) {
+        this.db = db;
+        this.result = result;
+        this.mapper = mapper;
+    }
+
+    /**
+     * Reads the next row.
+     *
+     * @return the row, or null once every row was read, in which case the cursor is closed
+     * @throws ToastError if the row cannot be read, in which case the cursor is closed
+     */
+    public T read() throws ToastError {
+        if (this.next != null) {
+            T row = this.next;
+            this.next = null;
+            return row;
+        }
+        if (this.db == null) {
+            return null;
+        }
+
+        try {
+            if (this.result.next()) {
+                return this.mapper.map(this.result);
+            }
+        } catch (SQLException exc) {
+            LOGGER.error(exc.getMessage());
+            this.close();
+            throw new ToastError("Falha ao ler o resultado da consulta. " + exc.getMessage(), "Erro de banco de dados.");
+        }
+
+        this.close();
+        return null;
+    }
+
+    /**
+     * Tells whether a row is left, reading it ahead.
+     *
+     * @return true if a row is left
+     * @throws CursorReadException if the row cannot be read
+     */
+    @Override
+    public boolean hasNext() {
+        if (this.next == null) {
+            try {
+                this.next = this.read();
+            } catch (ToastError exc) {
+                throw new CursorReadException(exc);
+            }
+        }
+        return this.next != null;
+    }
+
+    /**
+     * Returns the next row.
+     *
+     * @return the row
+     * @throws NoSuchElementException if every row was read
+     * @throws CursorReadException    if the row cannot be read
+     */
+    @Override
+    public T next() {
+        if (!this.hasNext()) {
+            throw new NoSuchElementException();
+        }
+        T row = this.next;
+        this.next = null;
+        return row;
+    }
+
+    /**
+     * Returns the rows left as a sequential stream, which closes the cursor when closed.
+     *
+     * @return the stream
+     */
+    public Stream<T> stream() {
+        return StreamSupport
+                .stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(this::closeQuietly);
+    }
+
+    /**
+     * Closes the result set and the session, giving the connection back to the pool. Does nothing if the
+     * cursor is already closed.
+     *
+     * @throws ToastError if the session cannot be closed
+     */
+    @Override
+    public void close() throws ToastError {
+        DataBase db = this.db;
+        if (db == null) {
+            return;
+        }
+        this.db = null;
+        this.next = null;
+        db.close();
+    }
+
+    /**
+     * Closes the cursor from a stream, logging the failure instead of throwing it since the stream cannot.
+     */
+    private void closeQuietly() {
+        try {
+            this.close();
+        } catch (ToastError exc) {
+            LOGGER.error(exc.message);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package tool.rental.domain.infra.db;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Builds an object from the current row of a result set.
+ *
+ * @param <T> the type of the objects built
+ */
+@FunctionalInterface
+public interface RowMapper<T> {
+
+    /**
+     * Builds an object from the current row.
+     *
+     * @param result the result set, positioned on the row, which must not be moved
+     * @return the object
+     * @throws SQLException if a column cannot be read
+     */
+    T map(ResultSet result) throws SQLException;
+}
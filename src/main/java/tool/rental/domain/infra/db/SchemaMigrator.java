@@ -0,0 +1,317 @@
+package tool.rental.domain.infra.db;
+
+import tool.rental.utils.Logger;
+import tool.rental.utils.ToastError;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * Brings the database schema up to date by applying, in order, the migration scripts not applied yet.
+ * <p>
+ * Scripts live on the classpath under {@value #LOCATION}, listed in order by the {@value #INDEX} file since a
+ * classpath directory cannot be listed once packaged in a jar. Each is named {@code V<version>__<description>.sql}
+ * and runs in its own transaction, along with the row recording it in SCHEMA_VERSION.
+ * <p>
+ * When the database is current, which is the case on every launch but the first after an upgrade, migrating
+ * costs a single version lookup: no script is read and no DDL is executed. Checksums of applied scripts are
+ * only compared when there is something to apply, so that a script edited after being applied is reported
+ * before building on it.
+ */
+public class SchemaMigrator {
+
+    /**
+     * The logger of this class.
+     */
+    private static final Logger LOGGER = Logger.getLogger(SchemaMigrator.class);
+
+    /**
+     * The classpath directory holding the migration scripts.
+     */
+    public static final String LOCATION = "db/migrations/";
+
+    /**
+     * The file listing the migration scripts in the order they are applied.
+     */
+    public static final String INDEX = "index.txt";
+
+    /**
+     * Matches a migration script name, capturing its version and description.
+     */
+    private static final Pattern SCRIPT_NAME = Pattern.compile("V(\\d+)__(\\w+)\\.sql");
+
+    /**
+     * Creates the table recording the migrations applied.
+     */
+    private static final String CREATE_SCHEMA_VERSION = """
+            CREATE TABLE IF NOT EXISTS SCHEMA_VERSION (
+            	version INTEGER NOT NULL,
+            	description TEXT NOT NULL,
+            	checksum TEXT NOT NULL,
+            	applied_at LONG NOT NULL,
+            	execution_millis INTEGER NOT NULL,
+            	CONSTRAINT SCHEMA_VERSION_PK PRIMARY KEY (version)
+            );
+            """;
+
+    /**
+     * Applies the migrations not applied yet.
+     *
+     * @return the number of migrations applied
+     * @throws ToastError if a script cannot be read, was changed after being applied or fails
+     */
+    public int migrate() throws ToastError {
+        List<String> scriptNames = this.readIndex();
+        int latestVersion = scriptNames.isEmpty() ? 0 : parseVersion(scriptNames.get(scriptNames.size() - 1));
+
+        try (DataBase db = new DataBase()) {
+            int currentVersion = this.getCurrentVersion(db);
+
+            if (currentVersion >= latestVersion) {
+                if (currentVersion > latestVersion) {
+                    LOGGER.warn(String.format(
+                            "O banco de dados está na versão %d, mais nova que a da aplicação (%d).",
+                            currentVersion,
+                            latestVersion
+                    ));
+                }
+                LOGGER.debug(() -> "Schema up to date at version " + currentVersion + ".");
+                return 0;
+            }
+
+            db.executeScript(CREATE_SCHEMA_VERSION);
+            Map<Integer, String> appliedChecksums = this.getAppliedChecksums(db);
+
+            int applied = 0;
+            for (String scriptName : scriptNames) {
+                Migration migration = this.load(scriptName);
+                String appliedChecksum = appliedChecksums.get(migration.version());
+
+                if (appliedChecksum == null) {
+                    if (this.apply(db, migration)) {
+                        applied++;
+                    }
+                } else if (!appliedChecksum.equals(migration.checksum())) {
+                    throw new ToastError(
+                            String.format(
+                                    "A migração %s foi alterada depois de aplicada (checksum %s, esperado %s).",
+                                    scriptName,
+                                    migration.checksum(),
+                                    appliedChecksum
+                            ),
+                            "Erro de banco de dados."
+                    );
+                }
+            }
+
+            return applied;
+        }
+    }
+
+    /**
+     * Reads the version of the schema with a single query.
+     *
+     * @param db the database session
+     * @return the latest version applied, or 0 if no migration was ever applied
+     * @throws ToastError if the version cannot be read
+     */
+    private int getCurrentVersion(DataBase db) throws ToastError {
+        PreparedStatement stm;
+        try {
+            stm = db.prepareStatement("SELECT MAX(version) as version FROM SCHEMA_VERSION");
+        } catch (SQLException e) {
+            // The table does not exist before the first migration
+            return 0;
+        }
+
+        try {
+            ResultSet result = db.executeQuery(stm);
+            return result.next() ? result.getInt("version") : 0;
+        } catch (SQLException e) {
+            throw new ToastError("Erro ao ler a versão do banco de dados. " + e, "Erro de banco de dados.");
+        }
+    }
+
+    /**
+     * Reads the checksums of the migrations applied.
+     *
+     * @param db the database session
+     * @return the checksum of every migration applied, by version
+     * @throws ToastError if the migrations applied cannot be read
+     */
+    private Map<Integer, String> getAppliedChecksums(DataBase db) throws ToastError {
+        try {
+            ResultSet result = db.executeQuery(db.prepareStatement("""
+                    SELECT version, checksum FROM SCHEMA_VERSION
+                    """));
+
+            Map<Integer, String> checksums = new HashMap<>();
+            while (result.next()) {
+                checksums.put(result.getInt("version"), result.getString("checksum"));
+            }
+            return checksums;
+        } catch (SQLException e) {
+            throw new ToastError("Erro ao ler as migrações aplicadas. " + e, "Erro de banco de dados.");
+        }
+    }
+
+    /**
+     * Applies a migration in a transaction, recording it in SCHEMA_VERSION.
+     *
+     * @param db        the database session
+     * @param migration the migration to apply
+     * @return true if the migration was applied, false if another process applied it in the meantime
+     * @throws ToastError if the migration fails, in which case nothing it did is kept
+     */
+    private boolean apply(DataBase db, Migration migration) throws ToastError {
+        long start = System.nanoTime();
+
+        // Taking the write lock upfront keeps two launches from applying the same migration
+        db.executeScript("BEGIN IMMEDIATE");
+        try {
+            if (this.getAppliedChecksums(db).containsKey(migration.version())) {
+                db.executeScript("COMMIT");
+                return false;
+            }
+
+            db.executeScript(migration.script());
+
+            PreparedStatement stm = db.prepareStatement("""
+                    INSERT INTO SCHEMA_VERSION (version, description, checksum, applied_at, execution_millis)
+                    VALUES (?, ?, ?, ?, ?)
+                    """);
+            stm.setInt(1, migration.version());
+            stm.setString(2, migration.description());
+            stm.setString(3, migration.checksum());
+            stm.setLong(4, System.currentTimeMillis());
+            stm.setLong(5, (System.nanoTime() - start) / 1_000_000);
+            db.executeUpdate(stm);
+
+            db.executeScript("COMMIT");
+        } catch (ToastError | SQLException exc) {
+            db.executeScript("ROLLBACK");
+            String message = exc instanceof ToastError toast ? toast.message : exc.toString();
+            throw new ToastError(
+                    String.format("Falha ao aplicar a migração %d (%s). %s", migration.version(), migration.description(), message),
+                    "Erro de banco de dados."
+            );
+        }
+
+        LOGGER.info(String.format(
+                "Migração %d (%s) aplicada em %d ms.",
+                migration.version(),
+                migration.description(),
+                (System.nanoTime() - start) / 1_000_000
+        ));
+        return true;
+    }
+
+    /**
+     * Reads the names of the migration scripts, in order, skipping blank lines and comments.
+     *
+     * @return the script names
+     * @throws ToastError if the index cannot be read or lists scripts out of order
+     */
+    private List<String> readIndex() throws ToastError {
+        ArrayList<String> scriptNames = new ArrayList<>();
+        int previousVersion = 0;
+
+        for (String line : this.readResource(INDEX).split("\n")) {
+            String scriptName = line.strip();
+            if (scriptName.isEmpty() || scriptName.startsWith("#")) {
+                continue;
+            }
+
+            int version = parseVersion(scriptName);
+            if (version <= previousVersion) {
+                throw new ToastError(
+                        "As migrações devem estar em ordem crescente de versão: " + scriptName,
+                        "Erro de banco de dados."
+                );
+            }
+            previousVersion = version;
+            scriptNames.add(scriptName);
+        }
+        return scriptNames;
+    }
+
+    /**
+     * Reads a migration script.
+     *
+     * @param scriptName the script file name
+     * @return the migration
+     * @throws ToastError if the script cannot be read
+     */
+    private Migration load(String scriptName) throws ToastError {
+        Matcher matcher = SCRIPT_NAME.matcher(scriptName);
+        matcher.matches();
+        String script = this.readResource(scriptName);
+
+        CRC32 crc = new CRC32();
+        crc.update(script.getBytes(StandardCharsets.UTF_8));
+
+        return new Migration(
+                Integer.parseInt(matcher.group(1)),
+                matcher.group(2).replace('_', ' '),
+                script,
+                String.format("%08x", crc.getValue())
+        );
+    }
+
+    /**
+     * Reads a file from the migrations directory of the classpath, with Unix line endings whatever the
+     * platform that checked it out, so that checksums do not depend on it.
+     *
+     * @param fileName the file name
+     * @return the file content
+     * @throws ToastError if the file does not exist or cannot be read
+     */
+    private String readResource(String fileName) throws ToastError {
+        InputStream stream = SchemaMigrator.class.getClassLoader().getResourceAsStream(LOCATION + fileName);
+        if (stream == null) {
+            throw new ToastError("Arquivo de migração não encontrado: " + LOCATION + fileName, "Erro de banco de dados.");
+        }
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8))) {
+            StringBuilder content = new StringBuilder();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                content.append(line).append('\n');
+            }
+            return content.toString();
+        } catch (IOException e) {
+            throw new ToastError("Erro ao ler a migração " + fileName + ". " + e, "Erro de banco de dados.");
+        }
+    }
+
+    /**
+     * Reads the version of a migration script from its name.
+     *
+     * @param scriptName the script file name
+     * @return the version
+     * @throws ToastError if the name does not follow {@code V<version>__<description>.sql}
+     */
+    private static int parseVersion(String scriptName) throws ToastError {
+        Matcher matcher = SCRIPT_NAME.matcher(scriptName);
+        if (!matcher.matches()) {
+            throw new ToastError(
+                    "Nome de migração inválido, esperado V<versão>__<descrição>.sql: " + scriptName,
+                    "Erro de banco de dados."
+            );
+        }
+        return Integer.parseInt(matcher.group(1));
+    }
+}
@@ -0,0 +1,14 @@
+package tool.rental.domain.infra.db;
+
+import java.time.Instant;
+
+/**
+ * A statement execution that took longer than the slow query threshold.
+ *
+ * @param timestamp     the moment the execution finished
+ * @param sql           the normalized SQL text
+ * @param parameters    the bound parameters, hidden for statements binding a password
+ * @param elapsedMillis the execution time, in milliseconds
+ */
+public record SlowQuery(Instant timestamp, String sql, String parameters, double elapsedMillis) {
+}
@@ -0,0 +1,230 @@
+package tool.rental.domain.infra.db;
+
+import tool.rental.utils.Logger;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded, least recently used cache of prepared statements keyed by their SQL text, attached to a single
+ * pooled connection so that hot queries are compiled once per connection.
+ * <p>
+ * A statement handed out by {@link #acquire(String)} is in use until {@link #release(PreparedStatement)};
+ * statements in use are never evicted nor handed out twice. When the cached statement for a SQL text is
+ * already in use, a fresh uncached one is prepared and closed on release.
+ */
+public class StatementCache {
+
+    /**
+     * The logger of this class.
+     */
+    private static final Logger LOGGER = Logger.getLogger(StatementCache.class);
+
+    /**
+     * The connection the statements belong to.
+     */
+    private final Connection connection;
+
+    /**
+     * The maximum number of cached statements.
+     */
+    private final int maxSize;
+
+    /**
+     * The cached statements by SQL text, least recently used first.
+     */
+    private final LinkedHashMap<String, PreparedStatement> statements = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * The statements currently lent out, cached or not.
+     */
+    private final Set<PreparedStatement> inUse = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    /**
+     * The statements lent out that are not part of the cache and must be closed on release.
+     */
+    private final Set<PreparedStatement> uncached = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    /**
+     * The counters shared by every cache of the pool.
+     */
+    private final Counters counters;
+
+    /**
+     * The number of lookups served from this cache.
+     */
+    private long hits = 0;
+
+    /**
+     * The number of lookups that had to prepare a new statement.
+     */
+    private long misses = 0;
+
+    /**
+     * Creates a new statement cache.
+     *
+     * @param connection the connection the statements belong to
+     * @param maxSize    the maximum number of cached statements
+     * @param counters   the pool wide counters to report to
+     */
+    StatementCache(Connection connection, int maxSize, Counters counters) {
+        this.connection = connection;
+        this.maxSize = maxSize;
+        this.counters = counters;
+    }
+
+    /**
+     * Returns a prepared statement for the given SQL text, reusing the cached one when it is free.
+     *
+     * @param sql the SQL text
+     * @return a statement that must be given back with {@link #release(PreparedStatement)}
+     * @throws SQLException if the statement cannot be prepared
+     */
+    PreparedStatement acquire(String sql) throws SQLException {
+        PreparedStatement statement = this.statements.get(sql);
+
+        if (statement != null && !this.inUse.contains(statement)) {
+            this.hits++;
+            this.counters.hits.increment();
+            this.inUse.add(statement);
+            return statement;
+        }
+
+        this.misses++;
+        this.counters.misses.increment();
+        PreparedStatement prepared = this.connection.prepareStatement(sql);
+        this.inUse.add(prepared);
+
+        if (statement != null || this.maxSize == 0) {
+            this.uncached.add(prepared);
+            return prepared;
+        }
+
+        this.statements.put(sql, prepared);
+        this.evictOverflow();
+        return prepared;
+    }
+
+    /**
+     * Gives a statement back, clearing its parameters and any batch not executed, or closing it if it is not
+     * cached.
+     *
+     * @param statement the statement to give back
+     * @throws SQLException if the statement cannot be reset
+     */
+    void release(PreparedStatement statement) throws SQLException {
+        if (!this.inUse.remove(statement)) {
+            return;
+        }
+
+        if (this.uncached.remove(statement)) {
+            statement.close();
+            return;
+        }
+
+        statement.clearParameters();
+        statement.clearBatch();
+        this.evictOverflow();
+    }
+
+    /**
+     * Closes and forgets every cached statement.
+     */
+    void clear() {
+        for (PreparedStatement statement : this.statements.values()) {
+            closeQuietly(statement);
+        }
+        for (PreparedStatement statement : this.uncached) {
+            closeQuietly(statement);
+        }
+        this.statements.clear();
+        this.uncached.clear();
+        this.inUse.clear();
+    }
+
+    /**
+     * Returns the number of lookups served from this cache.
+     *
+     * @return the number of hits
+     */
+    public long getHits() {
+        return this.hits;
+    }
+
+    /**
+     * Returns the number of lookups that had to prepare a new statement.
+     *
+     * @return the number of misses
+     */
+    public long getMisses() {
+        return this.misses;
+    }
+
+    /**
+     * Returns the number of statements currently cached.
+     *
+     * @return the cache size
+     */
+    public int size() {
+        return this.statements.size();
+    }
+
+    /**
+     * Closes the least recently used statements that are not in use until the cache fits its maximum size.
+     */
+    private void evictOverflow() {
+        Iterator<Map.Entry<String, PreparedStatement>> iterator = this.statements.entrySet().iterator();
+
+        while (this.statements.size() > this.maxSize && iterator.hasNext()) {
+            PreparedStatement statement = iterator.next().getValue();
+            if (this.inUse.contains(statement)) {
+                continue;
+            }
+            iterator.remove();
+            closeQuietly(statement);
+            this.counters.evictions.increment();
+        }
+    }
+
+    /**
+     * Closes a statement, ignoring any error since it is being discarded.
+     *
+     * @param statement the statement to close
+     */
+    private static void closeQuietly(PreparedStatement statement) {
+        try {
+            statement.close();
+        } catch (SQLException exception) {
+            LOGGER.error(exception.getMessage());
+        }
+    }
+
+    /**
+     * Hit, miss and eviction counters shared by all the statement caches of a pool.
+     */
+    static class Counters {
+
+        /**
+         * The number of lookups served from a cache.
+         */
+        final LongAdder hits = new LongAdder();
+
+        /**
+         * The number of lookups that had to prepare a new statement.
+         */
+        final LongAdder misses = new LongAdder();
+
+        /**
+         * The number of statements closed to make room for others.
+         */
+        final LongAdder evictions = new LongAdder();
+    }
+}
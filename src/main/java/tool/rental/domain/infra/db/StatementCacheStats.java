@@ -0,0 +1,21 @@
+package tool.rental.domain.infra.db;
+
+/**
+ * A point-in-time snapshot of the prepared statement cache counters, summed over every pooled connection.
+ *
+ * @param hits      the number of lookups served from a cache
+ * @param misses    the number of lookups that had to prepare a new statement
+ * @param evictions the number of statements closed to make room for others
+ */
+public record StatementCacheStats(long hits, long misses, long evictions) {
+
+    /**
+     * Returns the fraction of lookups served from a cache.
+     *
+     * @return the hit ratio, between 0 and 1
+     */
+    public double hitRatio() {
+        long total = this.hits + this.misses;
+        return total == 0 ? 0.0 : this.hits / (double) total;
+    }
+}
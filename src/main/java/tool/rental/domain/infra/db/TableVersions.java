@@ -0,0 +1,120 @@
+package tool.rental.domain.infra.db;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Change counters of the database tables, used to tell whether data cached from them is still current.
+ * <p>
+ * Every {@code INSERT}, {@code UPDATE}, {@code DELETE} or {@code REPLACE} executed through a {@link DataBase}
+ * session bumps the counter of the table it writes to. A cache stores the {@link #stamp(String...)} of the
+ * tables it was built from and is stale as soon as the stamp changes.
+ */
+public final class TableVersions {
+
+    /**
+     * The tool table.
+     */
+    public static final String TOOL = "TOOL";
+
+    /**
+     * The friend table.
+     */
+    public static final String FRIEND = "FRIEND";
+
+    /**
+     * The rental table.
+     */
+    public static final String RENTAL = "RENTAL";
+
+    /**
+     * The per-user counters table.
+     */
+    public static final String USER_STATS = "USER_STATS";
+
+    /**
+     * Matches the table written by a data modification statement, after any leading comment and schema name.
+     */
+    private static final Pattern WRITE = Pattern.compile(
+            "^(?:\\s*--[^\\n]*\\n|\\s*/\\*.*?\\*/)*\\s*"
+                    + "(?:INSERT(?:\\s+OR\\s+\\w+)?\\s+INTO|REPLACE\\s+INTO|UPDATE(?:\\s+OR\\s+\\w+)?|DELETE\\s+FROM)"
+                    + "\\s+(?:[\"`\\[]?\\w+[\"`\\]]?\\.)?[\"`\\[]?(\\w+)",
+            Pattern.CASE_INSENSITIVE | Pattern.DOTALL
+    );
+
+    /**
+     * The change counter of each table, by upper case name.
+     */
+    private static final Map<String, AtomicLong> VERSIONS = new ConcurrentHashMap<>();
+
+    /**
+     * The table written by each SQL text seen, or an empty text for statements that write nothing.
+     */
+    private static final Map<String, String> WRITTEN_TABLES = new ConcurrentHashMap<>();
+
+    /**
+     * Prevents instantiation.
+     */
+    private TableVersions() {
+    }
+
+    /**
+     * Marks a table as changed.
+     *
+     * @param table the table name
+     */
+    public static void bump(String table) {
+        counterOf(table).incrementAndGet();
+    }
+
+    /**
+     * Marks the table written by a statement as changed, if it writes to one.
+     *
+     * @param sql the SQL text executed
+     */
+    static void bumpWrittenBy(String sql) {
+        String table = WRITTEN_TABLES.computeIfAbsent(sql, TableVersions::tableWrittenBy);
+        if (!table.isEmpty()) {
+            bump(table);
+        }
+    }
+
+    /**
+     * Returns a stamp that changes whenever any of the given tables changes.
+     *
+     * @param tables the table names
+     * @return the combined version of the tables
+     */
+    public static long stamp(String... tables) {
+        long stamp = 0;
+        for (String table : tables) {
+            stamp += counterOf(table).get();
+        }
+        return stamp;
+    }
+
+    /**
+     * Returns the change counter of a table, creating it on first use.
+     *
+     * @param table the table name
+     * @return the counter
+     */
+    private static AtomicLong counterOf(String table) {
+        return VERSIONS.computeIfAbsent(table.toUpperCase(Locale.ROOT), ignored -> new AtomicLong());
+    }
+
+    /**
+     * Returns the table a statement writes to.
+     *
+     * @param sql the SQL text
+     * @return the upper case table name, or an empty text if the statement does not modify data
+     */
+    private static String tableWrittenBy(String sql) {
+        Matcher matcher = WRITE.matcher(sql);
+        return matcher.find() ? matcher.group(1).toUpperCase(Locale.ROOT) : "";
+    }
+}
@@ -0,0 +1,250 @@
+package tool.rental.domain.infra.db;
+
+import tool.rental.utils.Logger;
+import tool.rental.utils.ToastError;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * A database transaction spanning several repository calls, so that the steps of a use case either all apply
+ * or none does, and are written to disk by a single commit instead of one per statement.
+ * <p>
+ * A unit is bound to the thread that began it: every {@link DataBase} session opened by that thread until the
+ * unit ends shares its connection and transaction, so repositories take part without being told. Beginning a
+ * unit while one is active opens a savepoint in it, which commits or rolls back on its own without ending the
+ * enclosing transaction. A unit is meant to be used in a try-with-resources block, closing it without
+ * committing rolling it back:
+ * <pre>{@code
+ * try (UnitOfWork unit = UnitOfWork.begin()) {
+ *     ...
+ *     unit.commit();
+ * }
+ * }</pre>
+ * The write lock is taken when the transaction begins, so a unit must not wait for the user, such as on a
+ * dialog, before it ends. Tables written in a unit are only marked as changed in the {@link TableVersions}
+ * once the transaction commits, as other connections cannot see the changes before.
+ */
+public class UnitOfWork implements AutoCloseable {
+
+    /**
+     * The logger of this class.
+     */
+    private static final Logger LOGGER = Logger.getLogger(UnitOfWork.class);
+
+    /**
+     * The innermost unit active on each thread.
+     */
+    private static final ThreadLocal<UnitOfWork> CURRENT = new ThreadLocal<>();
+
+    /**
+     * The connection holding the transaction, borrowed by the outermost unit.
+     */
+    private final PooledConnection pooledConnection;
+
+    /**
+     * The enclosing unit, or null for the outermost one.
+     */
+    private final UnitOfWork parent;
+
+    /**
+     * The name of the savepoint of a nested unit, or null for the outermost one.
+     */
+    private final String savepoint;
+
+    /**
+     * The SQL texts of the data modification statements executed in the transaction, shared with nested units.
+     */
+    private final Set<String> writes;
+
+    /**
+     * Whether the unit was committed or rolled back.
+     */
+    private boolean finished = false;
+
+    /**
+     * Creates a new unit of work.
+     *
+     * @param pooledConnection the connection holding the transaction
+     * @param parent           the enclosing unit, or null for the outermost one
+     * @param savepoint        the name of the savepoint of a nested unit, or null for the outermost one
+     * @param writes           the data modification statements executed in the transaction
+     */
+    private UnitOfWork(PooledConnection pooledConnection, UnitOfWork parent, String savepoint, Set<String> writes) {
+        this.pooledConnection = pooledConnection;
+        this.parent = parent;
+        this.savepoint = savepoint;
+        this.writes = writes;
+    }
+
+    /**
+     * Begins a unit of work on the current thread: a transaction, or a savepoint if a unit is already active.
+     *
+     * @return the unit, which must be committed or closed by the current thread
+     * @throws ToastError if no connection is available or the transaction cannot begin
+     */
+    public static UnitOfWork begin() throws ToastError {
+        UnitOfWork parent = CURRENT.get();
+        UnitOfWork unit;
+
+        if (parent == null) {
+            PooledConnection pooled = ConnectionPool.getInstance().borrow();
+            unit = new UnitOfWork(pooled, null, null, new LinkedHashSet<>());
+            try {
+                // Taking the write lock upfront keeps a concurrent writer from failing the transaction midway
+                unit.execute("BEGIN IMMEDIATE");
+            } catch (ToastError exc) {
+                ConnectionPool.getInstance().release(pooled);
+                throw exc;
+            }
+        } else {
+            unit = new UnitOfWork(parent.pooledConnection, parent, "unit_" + parent.depth(), parent.writes);
+            unit.execute("SAVEPOINT " + unit.savepoint);
+        }
+
+        CURRENT.set(unit);
+        return unit;
+    }
+
+    /**
+     * Returns the innermost unit active on the current thread.
+     *
+     * @return the unit, or null if none is active
+     */
+    static UnitOfWork current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Returns the connection holding the transaction.
+     *
+     * @return the pooled connection
+     */
+    PooledConnection getPooledConnection() {
+        return this.pooledConnection;
+    }
+
+    /**
+     * Records a statement executed in the transaction, so that the table it writes to is marked as changed on
+     * commit.
+     *
+     * @param sql the SQL text executed
+     */
+    void recordWrite(String sql) {
+        this.writes.add(sql);
+    }
+
+    /**
+     * Commits the unit: the transaction, making its changes durable, or the savepoint of a nested unit, whose
+     * changes are then kept unless the enclosing unit rolls back.
+     *
+     * @throws ToastError if the commit fails, in which case the unit is rolled back
+     */
+    public void commit() throws ToastError {
+        this.checkActive();
+
+        try {
+            this.execute(this.savepoint == null ? "COMMIT" : "RELEASE " + this.savepoint);
+        } catch (ToastError exc) {
+            this.rollback();
+            throw exc;
+        }
+
+        if (this.parent == null) {
+            for (String sql : this.writes) {
+                TableVersions.bumpWrittenBy(sql);
+            }
+        }
+        this.finish();
+    }
+
+    /**
+     * Rolls the unit back: the whole transaction, or only what was done since the savepoint of a nested unit.
+     *
+     * @throws ToastError if the rollback fails
+     */
+    public void rollback() throws ToastError {
+        this.checkActive();
+
+        try {
+            if (this.savepoint == null) {
+                this.execute("ROLLBACK");
+            } else {
+                this.execute("ROLLBACK TO " + this.savepoint);
+                this.execute("RELEASE " + this.savepoint);
+            }
+        } finally {
+            this.finish();
+        }
+    }
+
+    /**
+     * Rolls the unit back if it was not committed.
+     *
+     * @throws ToastError if the rollback fails
+     */
+    @Override
+    public void close() throws ToastError {
+        if (!this.finished) {
+            LOGGER.debug(() -> "Unit of work closed without commit, rolling back.");
+            this.rollback();
+        }
+    }
+
+    /**
+     * Ends the unit, making the enclosing one current again, and gives the connection back to the pool when
+     * the transaction ended.
+     */
+    private void finish() {
+        this.finished = true;
+
+        if (this.parent == null) {
+            CURRENT.remove();
+            ConnectionPool.getInstance().release(this.pooledConnection);
+        } else {
+            CURRENT.set(this.parent);
+        }
+    }
+
+    /**
+     * Checks that the unit can still be committed or rolled back.
+     *
+     * @throws IllegalStateException if the unit already ended, or a unit nested in it is still active
+     */
+    private void checkActive() {
+        if (this.finished) {
+            throw new IllegalStateException("Unit of work already ended.");
+        }
+        if (CURRENT.get() != this) {
+            throw new IllegalStateException("Unit of work ended before the units nested in it or on another thread.");
+        }
+    }
+
+    /**
+     * Returns the number of units enclosing this one.
+     *
+     * @return 0 for the outermost unit
+     */
+    private int depth() {
+        return this.parent == null ? 0 : this.parent.depth() + 1;
+    }
+
+    /**
+     * Executes a transaction control statement.
+     *
+     * @param sql the statement
+     * @throws ToastError if the statement fails
+     */
+    private void execute(String sql) throws ToastError {
+        LOGGER.debug(() -> "Transaction: " + sql);
+
+        try (Statement statement = this.pooledConnection.getConnection().createStatement()) {
+            statement.execute(sql);
+        } catch (SQLException exception) {
+            LOGGER.error(exception.getMessage());
+            throw new ToastError("Erro na transação do banco de dados: " + exception.getMessage(), "Erro de banco de dados.");
+        }
+    }
+}
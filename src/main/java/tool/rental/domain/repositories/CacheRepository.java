@@ -3,6 +3,7 @@ package tool.rental.domain.repositories;
 import tool.rental.domain.entities.Cache;
 import tool.rental.domain.entities.User;
 import tool.rental.domain.infra.db.DataBase;
+import tool.rental.utils.Logger;
 import tool.rental.utils.ToastError;
 
 import javax.swing.JOptionPane;
@@ -16,6 +17,11 @@ import java.util.UUID;
  */
 public class CacheRepository {
 
+    /**
+     * The logger of this class.
+     */
+    private static final Logger LOGGER = Logger.getLogger(CacheRepository.class);
+
     /**
      * Sets a user as cached in the database.
      *
@@ -24,7 +30,7 @@ public class CacheRepository {
      */
     public void setUserAsCached(User user) throws ToastError {
         try (DataBase db = new DataBase()) {
-            PreparedStatement stm = db.connection.prepareStatement(
+            PreparedStatement stm = db.prepareStatement(
                     "INSERT INTO main.CACHE VALUES (?,?)"
             );
 
@@ -34,7 +40,7 @@ public class CacheRepository {
             db.executeUpdate(stm);
 
         } catch (SQLException e) {
-            System.out.println(e.getMessage());
+            LOGGER.error(e.getMessage());
             JOptionPane.showMessageDialog(
                     null,
                     "Não foi possível setar o usuário login automático",
@@ -51,11 +57,11 @@ public class CacheRepository {
      */
     public void clearCache() throws ToastError {
         try (DataBase db = new DataBase()) {
-            PreparedStatement stm = db.connection.prepareStatement("DELETE FROM CACHE");
+            PreparedStatement stm = db.prepareStatement("DELETE FROM CACHE");
             db.executeUpdate(stm);
 
         } catch (SQLException e) {
-            System.out.println(e.getMessage());
+            LOGGER.error(e.getMessage());
             throw new ToastError("Não foi possível limpar o cache de usuário logado",
                     "Problema de banco de dados.");
         }
@@ -69,7 +75,7 @@ public class CacheRepository {
      */
     public Cache getCache() throws ToastError {
         try (DataBase db = new DataBase()) {
-            PreparedStatement stm = db.connection.prepareStatement(
+            PreparedStatement stm = db.prepareStatement(
                     "SELECT *, U.username as \"U.username\" FROM CACHE JOIN USER U on U.id = CACHE.logged_user_id"
             );
             ResultSet result = db.executeQuery(stm);
@@ -90,7 +96,7 @@ public class CacheRepository {
 
 
         } catch (SQLException e) {
-            System.out.println(e.getMessage());
+            LOGGER.error(e.getMessage());
             JOptionPane.showMessageDialog(
                     null,
                     "Não foi possível recuperar o último usuário logado.",
@@ -1,16 +1,26 @@
 package tool.rental.domain.repositories;
 
 import tool.rental.app.Settings;
+import tool.rental.domain.dao.BatchInsertResult;
 import tool.rental.domain.dao.FriendRentalSummary;
+import tool.rental.domain.dao.NewFriend;
 import tool.rental.domain.entities.Friend;
 import tool.rental.domain.entities.User;
+import tool.rental.domain.infra.db.CursorReadException;
 import tool.rental.domain.infra.db.DataBase;
+import tool.rental.domain.infra.db.EntityCache;
+import tool.rental.domain.infra.db.FullTextQuery;
+import tool.rental.domain.infra.db.ResultCursor;
+import tool.rental.domain.infra.db.TableVersions;
+import tool.rental.domain.infra.db.UnitOfWork;
+import tool.rental.utils.Logger;
 import tool.rental.utils.ToastError;
 
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -19,6 +29,16 @@ import java.util.UUID;
  */
 public class FriendRepository {
 
+    /**
+     * The logger of this class.
+     */
+    private static final Logger LOGGER = Logger.getLogger(FriendRepository.class);
+
+    /**
+     * The friends recently read, by id.
+     */
+    static final EntityCache<Friend> CACHE = new EntityCache<>("FRIEND", TableVersions.FRIEND);
+
     /**
      * Counts the number of friends associated with the current user.
      *
@@ -28,7 +48,7 @@ public class FriendRepository {
     public int countByUser() throws ToastError {
         try (DataBase dataBase = new DataBase()) {
             String query = "SELECT COUNT(id) as total from FRIEND WHERE user_id = ?";
-            PreparedStatement stm = dataBase.connection.prepareStatement(query);
+            PreparedStatement stm = dataBase.prepareStatement(query);
             stm.setString(1, Settings.getUser().getId());
 
             ResultSet result = dataBase.executeQuery(stm);
@@ -51,7 +71,27 @@ public class FriendRepository {
      * @throws ToastError If an error occurs during database operation.
      */
     public ArrayList<Friend> listAll() throws ToastError {
-        try (DataBase db = new DataBase()) {
+        try (ResultCursor<Friend> cursor = this.openAll()) {
+            ArrayList<Friend> friends = new ArrayList<>();
+            cursor.forEachRemaining(friends::add);
+            return friends;
+        } catch (CursorReadException e) {
+            throw e.getToastError();
+        }
+    }
+
+    /**
+     * Opens a cursor over all friends associated with the current user, ordered by name, reading them from the
+     * database as they are consumed instead of listing them upfront.
+     *
+     * @return The cursor, holding a connection until it is closed.
+     * @throws ToastError If an error occurs during database operation.
+     */
+    public ResultCursor<Friend> openAll() throws ToastError {
+        User user = Settings.getUser();
+        long stamp = CACHE.stamp();
+        DataBase db = new DataBase();
+        try {
             String query = """
                     SELECT
                                 f.id as f__id,
@@ -66,9 +106,69 @@ public class FriendRepository {
                                 f.name
                             """;
 
-            PreparedStatement stm = db.connection.prepareStatement(query);
-            User user = Settings.getUser();
+            PreparedStatement stm = db.prepareStatement(query);
             stm.setString(1, user.getId());
+
+            return db.openCursor(stm, result -> {
+                Friend friend = new Friend(
+                        result.getString("f__id"),
+                        result.getString("f__name"),
+                        result.getString("f__phone"),
+                        result.getString("f__social_security"),
+                        user
+                );
+                CACHE.put(friend.getId(), friend, stamp);
+                return friend;
+            });
+        } catch (SQLException e) {
+            db.close();
+            throw new ToastError("Error listing friends. " + e, "Database Error");
+        }
+    }
+
+    /**
+     * Searches the friends of the logged user by name, phone and social security number through the
+     * FRIEND_FTS full-text index, best matches first. Every word typed must start a word of those fields,
+     * accents and case aside.
+     *
+     * @param text   The text typed by the user.
+     * @param offset The number of matches to skip, for the pages after the first one.
+     * @param limit  The maximum number of friends returned.
+     * @return The matching friends ranked by relevance, a match in the name weighing more than the others.
+     * @throws ToastError If an error occurs during database operation.
+     */
+    public ArrayList<Friend> search(String text, int offset, int limit) throws ToastError {
+        String match = FullTextQuery.of(text);
+        if (match == null) {
+            return new ArrayList<>();
+        }
+
+        try (DataBase db = new DataBase()) {
+            String query = """
+                    SELECT
+                        f.id as f__id,
+                        f.name as f__name,
+                        f.phone as f__phone,
+                        f.social_security as f__social_security
+                    FROM
+                        FRIEND_FTS
+                    INNER JOIN FRIEND f
+                        on f.rowid = FRIEND_FTS.rowid
+                    WHERE
+                        FRIEND_FTS MATCH ?
+                        and f.user_id = ?
+                    ORDER BY
+                        bm25(FRIEND_FTS, 2.0, 1.0, 1.0), f.name, f.id
+                    LIMIT ? OFFSET ?
+                    """;
+
+            PreparedStatement stm = db.prepareStatement(query);
+            User user = Settings.getUser();
+            stm.setString(1, match);
+            stm.setString(2, user.getId());
+            stm.setInt(3, limit);
+            stm.setInt(4, offset);
+            long stamp = CACHE.stamp();
             ResultSet result = db.executeQuery(stm);
             ArrayList<Friend> friends = new ArrayList<>();
 
@@ -80,24 +180,81 @@ public class FriendRepository {
                         result.getString("f__social_security"),
                         user
                 );
+                CACHE.put(friend.getId(), friend, stamp);
                 friends.add(friend);
             }
-            friends.trimToSize();
 
             return friends;
         } catch (SQLException e) {
-            throw new ToastError("Error listing friends. " + e, "Database Error");
+            throw new ToastError("Error searching friends. " + e, "Database Error");
         }
     }
 
     /**
-     * Gets a friend by their ID.
+     * Counts the friends {@link #search(String, int, int)} finds, reading only the FRIEND_FTS index and the
+     * friends matching.
+     *
+     * @param text The text typed by the user.
+     * @return The number of matching friends.
+     * @throws ToastError If an error occurs during database operation.
+     */
+    public int countSearch(String text) throws ToastError {
+        String match = FullTextQuery.of(text);
+        if (match == null) {
+            return 0;
+        }
+
+        try (DataBase db = new DataBase()) {
+            String query = """
+                    SELECT count(*) as total
+                    FROM
+                        FRIEND_FTS
+                    INNER JOIN FRIEND f
+                        on f.rowid = FRIEND_FTS.rowid
+                    WHERE
+                        FRIEND_FTS MATCH ?
+                        and f.user_id = ?
+                    """;
+
+            PreparedStatement stm = db.prepareStatement(query);
+            stm.setString(1, match);
+            stm.setString(2, Settings.getUser().getId());
+
+            ResultSet result = db.executeQuery(stm);
+            return result.next() ? result.getInt("total") : 0;
+        } catch (SQLException e) {
+            throw new ToastError("Error searching friends. " + e, "Database Error");
+        }
+    }
+
+    /**
+     * Indexes every friend again in FRIEND_FTS, from the FRIEND table.
+     *
+     * @throws ToastError If an error occurs during database operation.
+     */
+    public void rebuildSearchIndex() throws ToastError {
+        try (DataBase db = new DataBase()) {
+            db.executeUpdate(db.prepareStatement("INSERT INTO FRIEND_FTS (FRIEND_FTS) VALUES ('rebuild')"));
+        } catch (SQLException e) {
+            throw new ToastError("Error rebuilding the friend search index. " + e, "Database Error");
+        }
+    }
+
+    /**
+     * Gets a friend by their ID, from the cache when they were read recently and did not change since.
      *
      * @param friendId The ID of the friend to retrieve.
      * @return The friend object if found, null otherwise.
      * @throws ToastError If an error occurs during database operation.
      */
     public Friend getById(String friendId) throws ToastError {
+        // Friends of other users are not found, even if still cached since that user logged out
+        Friend cached = CACHE.get(friendId);
+        if (cached != null && cached.getUser().getId().equals(Settings.getUser().getId())) {
+            return cached;
+        }
+
+        long stamp = CACHE.stamp();
         try (DataBase db = new DataBase()) {
             String query = """
                         SELECT
@@ -109,14 +266,14 @@ public class FriendRepository {
                             t.id as t__id,
                             t.brand as t__brand,
                             t.name as t__name,
-                            t.cost as t__cost
+                            t.cost_cents as t__cost_cents
                         
                         FROM FRIEND f
                         LEFT JOIN TOOL t on t.id = f.id
                         WHERE f.id = ? AND f.user_id = ?
                     """;
 
-            PreparedStatement stm = db.connection.prepareStatement(query);
+            PreparedStatement stm = db.prepareStatement(query);
             User user = Settings.getUser();
             stm.setString(1, friendId);
             stm.setString(2, user.getId());
@@ -133,6 +290,7 @@ public class FriendRepository {
                     result.getString("social_security"),
                     user
             );
+            CACHE.put(friend.getId(), friend, stamp);
 
             return friend;
 
@@ -148,7 +306,26 @@ public class FriendRepository {
      * @throws ToastError If an error occurs during database operation.
      */
     public List<FriendRentalSummary> findRentalSummary() throws ToastError {
-        try (DataBase db = new DataBase()) {
+        try (ResultCursor<FriendRentalSummary> cursor = this.openRentalSummary()) {
+            ArrayList<FriendRentalSummary> results = new ArrayList<>();
+            cursor.forEachRemaining(results::add);
+            return results;
+        } catch (CursorReadException e) {
+            throw e.getToastError();
+        }
+    }
+
+    /**
+     * Opens a cursor over the summary of friend rentals, friends who borrowed the most first, reading it from
+     * the database as it is consumed instead of listing it upfront.
+     *
+     * @return The cursor, holding a connection until it is closed.
+     * @throws ToastError If an error occurs during database operation.
+     */
+    public ResultCursor<FriendRentalSummary> openRentalSummary() throws ToastError {
+        String userId = Settings.getUser().getId();
+        DataBase db = new DataBase();
+        try {
             String query = """
                     SELECT
                     	f.name,
@@ -167,27 +344,18 @@ public class FriendRepository {
                     order by total_rental DESC
                     """;
 
-            PreparedStatement stm = db.connection.prepareStatement(query);
-            stm.setString(1, Settings.getUser().getId());
-            ResultSet result = db.executeQuery(stm);
-
-            ArrayList<FriendRentalSummary> results = new ArrayList<>();
+            PreparedStatement stm = db.prepareStatement(query);
+            stm.setString(1, userId);
 
-            while (result.next()) {
-                FriendRentalSummary summary = new FriendRentalSummary(
-                        result.getString("name"),
-                        result.getString("social_security"),
-                        result.getInt("total_rental"),
-                        result.getInt("current_borrowed")
-                );
-                results.add(summary);
-            }
-
-            results.trimToSize();
-
-            return results;
+            return db.openCursor(stm, result -> new FriendRentalSummary(
+                    result.getString("name"),
+                    result.getString("social_security"),
+                    result.getInt("total_rental"),
+                    result.getInt("current_borrowed")
+            ));
 
         } catch (SQLException e) {
+            db.close();
             throw new ToastError(e.toString(), "Database Error");
         }
     }
@@ -205,7 +373,7 @@ public class FriendRepository {
         try (DataBase db = new DataBase()) {
             String id = UUID.randomUUID().toString();
 
-            PreparedStatement stm = db.connection.prepareStatement("INSERT INTO FRIEND VALUES(?, ?, ?, ?, ?)");
+            PreparedStatement stm = db.prepareStatement("INSERT INTO FRIEND VALUES(?, ?, ?, ?, ?)");
             stm.setString(1, id);
             stm.setString(2, name);
             stm.setString(3, phone);
@@ -216,7 +384,7 @@ public class FriendRepository {
             return new Friend(id, name, phone, social_security, Settings.getUser());
 
         } catch (SQLException exc) {
-            System.out.println(exc.getMessage());
+            LOGGER.error(exc.getMessage());
             throw new ToastError(
                     "Could not create friend due to a database error",
                     "Database Error"
@@ -224,6 +392,57 @@ public class FriendRepository {
         }
     }
 
+    /**
+     * Creates friends in bulk.
+     * <p>
+     * The rows are sent to the database in batches of {@link DataBase#BATCH_SIZE}, within a single transaction,
+     * so that either all of them are created or none is.
+     *
+     * @param friends the friends to create, belonging to the logged user
+     * @return the ids of the friends created, in order, along with the time taken
+     * @throws ToastError if any row cannot be created, in which case none is
+     */
+    public BatchInsertResult createFriends(Collection<NewFriend> friends) throws ToastError {
+        long start = System.nanoTime();
+        String userId = Settings.getUser().getId();
+        ArrayList<String> ids = new ArrayList<>(friends.size());
+
+        try (UnitOfWork unit = UnitOfWork.begin()) {
+            try (DataBase db = new DataBase()) {
+                PreparedStatement stm = db.prepareStatement(
+                        "INSERT INTO FRIEND (id, name, phone, social_security, user_id) VALUES (?, ?, ?, ?, ?)"
+                );
+                for (NewFriend friend : friends) {
+                    String id = UUID.randomUUID().toString();
+                    stm.setString(1, id);
+                    stm.setString(2, friend.name());
+                    stm.setString(3, friend.phone());
+                    stm.setString(4, friend.socialSecurity());
+                    stm.setString(5, userId);
+                    stm.addBatch();
+                    ids.add(id);
+
+                    if (ids.size() % DataBase.BATCH_SIZE == 0) {
+                        db.executeBatch(stm);
+                    }
+                }
+                db.executeBatch(stm);
+            }
+            unit.commit();
+
+        } catch (SQLException exc) {
+            LOGGER.error(exc.getMessage());
+            throw new ToastError(
+                    "Could not create friends due to a database error",
+                    "Database Error"
+            );
+        }
+
+        BatchInsertResult result = new BatchInsertResult(ids, System.nanoTime() - start);
+        LOGGER.debug(() -> result.describe("FRIEND"));
+        return result;
+    }
+
     /**
      * Deletes a friend.
      *
@@ -233,12 +452,13 @@ public class FriendRepository {
      */
     public Friend deleteFriend(String friendId) throws ToastError {
         try (DataBase db = new DataBase()) {
-            PreparedStatement stm = db.connection.prepareStatement("DELETE FROM FRIEND WHERE id = ?");
+            PreparedStatement stm = db.prepareStatement("DELETE FROM FRIEND WHERE id = ?");
             stm.setString(1, friendId);
 
             db.executeUpdate(stm);
+            CACHE.invalidate(friendId);
         } catch (SQLException exc) {
-            System.out.println(exc.getMessage());
+            LOGGER.error(exc.getMessage());
             throw new ToastError(
                     "Could not delete friend due to a database error",
                     "Database Error"
@@ -256,15 +476,15 @@ public class FriendRepository {
      */
     public boolean friendHasToolRented(String friendId) throws ToastError {
         try (DataBase db = new DataBase()) {
-            PreparedStatement stm = db.connection.prepareStatement(
+            PreparedStatement stm = db.prepareStatement(
                     "SELECT * FROM RENTAL WHERE friend_id = ? AND devolution_timestamp IS NULL"
             );
             stm.setString(1, friendId);
-            ResultSet rs = stm.executeQuery();
+            ResultSet rs = db.executeQuery(stm);
             return rs.next();
 
         } catch (SQLException exc) {
-            System.out.println(exc.getMessage());
+            LOGGER.error(exc.getMessage());
             throw new ToastError(
                     "Could not check if friend has tools rented due to a database error",
                     "Database Error"
@@ -282,7 +502,7 @@ public class FriendRepository {
      */
     public boolean existsByNameAndSocial_Security(String name, String social_security) throws ToastError {
         try (DataBase db = new DataBase()) {
-            PreparedStatement stm = db.connection.prepareStatement(
+            PreparedStatement stm = db.prepareStatement(
                     "SELECT id FROM FRIEND WHERE user_id = ? and name = ? and social_security = ?"
             );
             stm.setString(1, Settings.getUser().getId());
@@ -292,7 +512,7 @@ public class FriendRepository {
             return result.next();
 
         } catch (SQLException exc) {
-            System.out.println(exc.getMessage());
+            LOGGER.error(exc.getMessage());
             throw new ToastError(
                     "Could not check if friend exists due to a database error",
                     "Database Error"
@@ -300,6 +520,57 @@ public class FriendRepository {
         }
     }
 
+    /**
+     * Leaves out the friends already registered by the logged user with the same name and social security
+     * number, as {@link #existsByNameAndSocial_Security(String, String)} tells, looking up each chunk of
+     * {@link DataBase#BATCH_SIZE} friends in a single query.
+     *
+     * @param friends the friends to check
+     * @return the friends not registered yet, in order
+     * @throws ToastError if a database error occurs
+     */
+    public List<NewFriend> withoutExisting(List<NewFriend> friends) throws ToastError {
+        ArrayList<NewFriend> missing = new ArrayList<>(friends.size());
+
+        try (DataBase db = new DataBase()) {
+            for (int from = 0; from < friends.size(); from += DataBase.BATCH_SIZE) {
+                List<NewFriend> chunk = friends.subList(from, Math.min(from + DataBase.BATCH_SIZE, friends.size()));
+                PreparedStatement stm = db.prepareStatement(
+                        "WITH wanted (position, name, social_security) AS (VALUES " + DataBase.valuesPlaceholders(chunk.size(), 3) + ") "
+                                + "SELECT position FROM wanted "
+                                + "WHERE EXISTS (SELECT 1 FROM FRIEND f WHERE f.user_id = ? and f.social_security = wanted.social_security and f.name = wanted.name)"
+                );
+
+                int parameter = 1;
+                for (int i = 0; i < chunk.size(); i++) {
+                    stm.setInt(parameter++, i);
+                    stm.setString(parameter++, chunk.get(i).name());
+                    stm.setString(parameter++, chunk.get(i).socialSecurity());
+                }
+                stm.setString(parameter, Settings.getUser().getId());
+
+                boolean[] existing = new boolean[chunk.size()];
+                ResultSet result = db.executeQuery(stm);
+                while (result.next()) {
+                    existing[result.getInt("position")] = true;
+                }
+                for (int i = 0; i < chunk.size(); i++) {
+                    if (!existing[i]) {
+                        missing.add(chunk.get(i));
+                    }
+                }
+            }
+            return missing;
+
+        } catch (SQLException exc) {
+            LOGGER.error(exc.getMessage());
+            throw new ToastError(
+                    "Could not check if friends exist due to a database error",
+                    "Database Error"
+            );
+        }
+    }
+
     /**
      * Updates a friend's information.
      *
@@ -314,7 +585,7 @@ public class FriendRepository {
     public Friend updateFriend(String id, String name, String phone, String social_security, User user) throws ToastError {
         try (DataBase db = new DataBase()) {
 
-            PreparedStatement stm = db.connection.prepareStatement(
+            PreparedStatement stm = db.prepareStatement(
                     """
                                         
                                             UPDATE FRIEND 
@@ -331,10 +602,11 @@ public class FriendRepository {
             stm.setString(4, id);
 
             db.executeUpdate(stm);
+            CACHE.invalidate(id);
             return new Friend(id, name, phone, social_security, user);
 
         } catch (SQLException exc) {
-            System.out.println(exc.getMessage());
+            LOGGER.error(exc.getMessage());
             throw new ToastError(
                     "Could not update friend due to a database error",
                     "Database Error"
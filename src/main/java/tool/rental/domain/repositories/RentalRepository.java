@@ -1,17 +1,31 @@
 package tool.rental.domain.repositories;
 
 import tool.rental.app.Settings;
+import tool.rental.domain.dao.BatchInsertResult;
+import tool.rental.domain.dao.NewRental;
+import tool.rental.domain.dao.RentalOutcome;
+import tool.rental.domain.dao.RentalReportFilter;
+import tool.rental.domain.dao.RentalReportRow;
 import tool.rental.domain.entities.Friend;
 import tool.rental.domain.entities.Rental;
 import tool.rental.domain.entities.Tool;
 import tool.rental.domain.entities.User;
+import tool.rental.domain.infra.db.CursorReadException;
 import tool.rental.domain.infra.db.DataBase;
+import tool.rental.domain.infra.db.EntityCache;
+import tool.rental.domain.infra.db.IdentityMap;
+import tool.rental.domain.infra.db.ResultCursor;
+import tool.rental.domain.infra.db.TableVersions;
+import tool.rental.domain.infra.db.UnitOfWork;
+import tool.rental.utils.Logger;
+import tool.rental.utils.Money;
 import tool.rental.utils.ToastError;
 
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -20,6 +34,22 @@ import java.util.UUID;
  */
 public class RentalRepository {
 
+    /**
+     * The logger of this class.
+     */
+    private static final Logger LOGGER = Logger.getLogger(RentalRepository.class);
+
+    /**
+     * The rentals recently read, along with their friend and tool, by id, each weighing all three.
+     */
+    static final EntityCache<Rental> CACHE = new EntityCache<>(
+            "RENTAL",
+            rental -> 3,
+            TableVersions.RENTAL,
+            TableVersions.FRIEND,
+            TableVersions.TOOL
+    );
+
     /**
      * Counts the number of tools borrowed by a user.
      *
@@ -36,7 +66,7 @@ public class RentalRepository {
                                                 
                             WHERE t.user_id = ? AND r.devolution_timestamp is null
                     """;
-            PreparedStatement stm = dataBase.connection.prepareStatement(query);
+            PreparedStatement stm = dataBase.prepareStatement(query);
             stm.setString(1, Settings.getUser().getId());
 
             ResultSet result = dataBase.executeQuery(stm);
@@ -63,11 +93,13 @@ public class RentalRepository {
             String query = """
                         UPDATE RENTAL SET devolution_timestamp = ? WHERE id = ?
                     """;
-            PreparedStatement stm = db.connection.prepareStatement(query);
+            PreparedStatement stm = db.prepareStatement(query);
             stm.setLong(1, devolutionTimestamp);
             stm.setString(2, rental.getId());
 
             db.executeUpdate(stm);
+            CACHE.invalidate(rental.getId());
+            ToolRepository.CACHE.invalidate(rental.getTool().getId());
 
         } catch (SQLException e) {
             throw new ToastError(e.toString(), "Erro de banco de dados");
@@ -75,33 +107,179 @@ public class RentalRepository {
     }
 
     /**
-     * Creates a new rental.
+     * Creates a new rental, unless the tool is already rented. The check and the insertion are a single
+     * statement, backed by the unique index on open rentals, so that two lends of the same tool racing each
+     * other cannot both succeed.
      *
      * @param rentalTimestamp the timestamp of the rental
      * @param friend the friend who borrowed the tool
      * @param tool the tool that was borrowed
+     * @return whether the rental was created or the tool was already rented
      * @throws ToastError if a database error occurs
      */
-    public void create(long rentalTimestamp, Friend friend, Tool tool) throws ToastError {
+    public RentalOutcome create(long rentalTimestamp, Friend friend, Tool tool) throws ToastError {
         try (DataBase db = new DataBase()) {
             String id = UUID.randomUUID().toString();
 
-            PreparedStatement stm = db.connection.prepareStatement("INSERT INTO RENTAL VALUES(?, ?, null, ?, ?)");
+            // A rental opened by another connection between the check and the insertion hits the unique index,
+            // and is then ignored just like one the check found
+            PreparedStatement stm = db.prepareStatement("""
+                    INSERT INTO RENTAL (id, rental_timestamp, devolution_timestamp, friend_id, tool_id)
+                    SELECT ?, ?, null, ?, ?
+                    WHERE NOT EXISTS (
+                        SELECT 1 FROM RENTAL WHERE tool_id = ? AND devolution_timestamp IS NULL
+                    )
+                    ON CONFLICT DO NOTHING
+                    """);
             stm.setString(1, id);
             stm.setLong(2, rentalTimestamp);
             stm.setString(3, friend.getId());
             stm.setString(4, tool.getId());
+            stm.setString(5, tool.getId());
 
-            db.executeUpdate(stm);
+            if (db.executeUpdate(stm) == 0) {
+                return RentalOutcome.ALREADY_RENTED;
+            }
+            ToolRepository.CACHE.invalidate(tool.getId());
+            return RentalOutcome.CREATED;
 
         } catch (SQLException exc) {
-            System.out.println(exc.getMessage());
+            LOGGER.error(exc.getMessage());
             throw new ToastError(
                     "Não foi possível registrar o empréstimo da ferramenta devido a um erro de banco de dados.",
                     "Erro de banco de dados");
         }
     }
 
+    /**
+     * Creates rentals in bulk, such as the history of tools lent before.
+     * <p>
+     * The rows are sent to the database in batches of {@link DataBase#BATCH_SIZE}, within a single transaction,
+     * so that either all of them are created or none is.
+     *
+     * @param rentals the rentals to create
+     * @return the ids of the rentals created, in order, along with the time taken
+     * @throws ToastError if any row cannot be created, such as a second open rental of a tool, in which case
+     *                    none is
+     */
+    public BatchInsertResult createRentals(Collection<NewRental> rentals) throws ToastError {
+        long start = System.nanoTime();
+        ArrayList<String> ids = new ArrayList<>(rentals.size());
+
+        try (UnitOfWork unit = UnitOfWork.begin()) {
+            try (DataBase db = new DataBase()) {
+                PreparedStatement stm = db.prepareStatement(
+                        "INSERT INTO RENTAL (id, rental_timestamp, devolution_timestamp, friend_id, tool_id) VALUES (?, ?, ?, ?, ?)"
+                );
+                for (NewRental rental : rentals) {
+                    String id = UUID.randomUUID().toString();
+                    stm.setString(1, id);
+                    stm.setLong(2, rental.rentalTimestamp());
+                    stm.setObject(3, rental.devolutionTimestamp());
+                    stm.setString(4, rental.friendId());
+                    stm.setString(5, rental.toolId());
+                    stm.addBatch();
+                    ids.add(id);
+                    ToolRepository.CACHE.invalidate(rental.toolId());
+
+                    if (ids.size() % DataBase.BATCH_SIZE == 0) {
+                        db.executeBatch(stm);
+                    }
+                }
+                db.executeBatch(stm);
+            }
+            unit.commit();
+
+        } catch (SQLException exc) {
+            LOGGER.error(exc.getMessage());
+            throw new ToastError(
+                    "Não foi possível registrar os empréstimos devido a um erro de banco de dados.",
+                    "Erro de banco de dados"
+            );
+        }
+
+        BatchInsertResult result = new BatchInsertResult(ids, System.nanoTime() - start);
+        LOGGER.debug(() -> result.describe("RENTAL"));
+        return result;
+    }
+
+    /**
+     * Gets a rental by its ID, from the cache when it was read recently and did not change since.
+     *
+     * @param rentalId the ID of the rental to retrieve
+     * @return the rental, along with its friend and tool, or null if not found
+     * @throws ToastError if a database error occurs
+     */
+    public Rental getById(String rentalId) throws ToastError {
+        // Rentals of other users are not found, even if still cached since that user logged out
+        Rental cached = CACHE.get(rentalId);
+        if (cached != null && cached.getTool().getUser().getId().equals(Settings.getUser().getId())) {
+            return cached;
+        }
+
+        long stamp = CACHE.stamp();
+        try (DataBase db = new DataBase()) {
+            PreparedStatement stm = db.prepareStatement("""
+                    SELECT
+                        r.id as r__id,
+                        r.rental_timestamp as r__rental_timestamp,
+                        r.devolution_timestamp as r__devolution_timestamp,
+                        f.id as f__id,
+                        f.name as f__name,
+                        f.phone as f__phone,
+                        f.social_security as f__social_security,
+                        t.id as t__id,
+                        t.brand as t__brand,
+                        t.name as t__name,
+                        t.cost_cents as t__cost_cents
+                      FROM RENTAL r
+                      LEFT JOIN FRIEND f on
+                        f.id = r.friend_id
+                      JOIN TOOL t on
+                        t.id = r.tool_id
+                      WHERE
+                        r.id = ?
+                        AND t.user_id = ?
+                    """);
+            User user = Settings.getUser();
+            stm.setString(1, rentalId);
+            stm.setString(2, user.getId());
+
+            ResultSet result = db.executeQuery(stm);
+            if (!result.next()) {
+                return null;
+            }
+
+            Rental rental = new Rental(
+                    result.getString("r__id"),
+                    result.getLong("r__rental_timestamp"),
+                    result.getLong("r__devolution_timestamp"),
+                    new Friend(
+                            result.getString("f__id"),
+                            result.getString("f__name"),
+                            result.getString("f__phone"),
+                            result.getString("f__social_security"),
+                            user
+                    ),
+                    new Tool(
+                            result.getString("t__id"),
+                            result.getString("t__brand"),
+                            result.getString("t__name"),
+                            Money.ofCents(result.getLong("t__cost_cents")),
+                            user
+                    )
+            );
+            CACHE.put(rental.getId(), rental, stamp);
+            return rental;
+
+        } catch (SQLException exc) {
+            LOGGER.error(exc.getMessage());
+            throw new ToastError(
+                    "Não foi possível ler o empréstimo devido a um erro de banco de dados.",
+                    "Erro de banco de dados");
+        }
+    }
+
     /**
      * Lists all rentals.
      *
@@ -109,8 +287,28 @@ public class RentalRepository {
      * @throws ToastError if a database error occurs
      */
     public List<Rental> listAll() throws ToastError {
-        try (DataBase db = new DataBase()) {
-            PreparedStatement stm = db.connection.prepareStatement(
+        try (ResultCursor<Rental> cursor = this.openAll()) {
+            ArrayList<Rental> rentals = new ArrayList<>();
+            cursor.forEachRemaining(rentals::add);
+            return rentals;
+        } catch (CursorReadException exc) {
+            throw exc.getToastError();
+        }
+    }
+
+    /**
+     * Opens a cursor over all rentals, latest first, reading them from the database as they are consumed
+     * instead of listing them upfront.
+     *
+     * @return the cursor, holding a connection until it is closed
+     * @throws ToastError if a database error occurs
+     */
+    public ResultCursor<Rental> openAll() throws ToastError {
+        User user = Settings.getUser();
+        long stamp = CACHE.stamp();
+        DataBase db = new DataBase();
+        try {
+            PreparedStatement stm = db.prepareStatement(
                     """
                             SELECT
                                 r.id as r__id,
@@ -123,7 +321,7 @@ public class RentalRepository {
                                 t.id as t__id,
                                 t.brand as t__brand,
                                 t.name as t__name,
-                                t.cost as t__cost
+                                t.cost_cents as t__cost_cents
                                 
                               FROM RENTAL r
                               
@@ -142,26 +340,27 @@ public class RentalRepository {
                             """
             );
 
-            User user = Settings.getUser();
             stm.setString(1, user.getId());
-            ResultSet result = db.executeQuery(stm);
-            ArrayList<Rental> rentals = new ArrayList<>();
 
-            while (result.next()) {
-                Friend friend = new Friend(
-                        result.getString("f__id"),
-                        result.getString("f__name"),
-                        result.getString("f__phone"),
-                        result.getString("f__social_security"),
+            // A friend who borrowed many tools, or a tool lent many times, is built once for all its rentals
+            IdentityMap<Friend> friends = db.getIdentityMap(Friend.class);
+            IdentityMap<Tool> tools = db.getIdentityMap(Tool.class);
+
+            return db.openCursor(stm, result -> {
+                Friend friend = friends.resolve(result.getString("f__id"), result, row -> new Friend(
+                        row.getString("f__id"),
+                        row.getString("f__name"),
+                        row.getString("f__phone"),
+                        row.getString("f__social_security"),
                         user
-                );
-                Tool tool = new Tool(
-                        result.getString("t__id"),
-                        result.getString("t__brand"),
-                        result.getString("t__name"),
-                        result.getDouble("t__cost"),
+                ));
+                Tool tool = tools.resolve(result.getString("t__id"), result, row -> new Tool(
+                        row.getString("t__id"),
+                        row.getString("t__brand"),
+                        row.getString("t__name"),
+                        Money.ofCents(row.getLong("t__cost_cents")),
                         user
-                );
+                ));
 
                 Rental rental = new Rental(
                         result.getString("r__id"),
@@ -169,19 +368,95 @@ public class RentalRepository {
                         result.getLong("r__devolution_timestamp"),
                         friend,
                         tool
-
                 );
-                rentals.add(rental);
-            }
+                CACHE.put(rental.getId(), rental, stamp);
+                return rental;
+            });
+
+        } catch (SQLException exc) {
+            db.close();
+            LOGGER.error(exc.getMessage());
+            throw new ToastError(
+                    "Não foi possível listar os empréstimos devido a um erro de banco de dados.",
+                    "Erro de banco de dados");
+        }
+    }
 
-            rentals.trimToSize();
+    /**
+     * Opens a cursor over the rentals of the logged user for the rental report export, in date order. The
+     * filters are applied by the query, which then looks the rentals up by date or friend through their indexes.
+     *
+     * @param filter the rentals to include
+     * @return the cursor, holding a connection until it is closed
+     * @throws ToastError if a database error occurs
+     */
+    public ResultCursor<RentalReportRow> openReport(RentalReportFilter filter) throws ToastError {
+        StringBuilder query = new StringBuilder();
+        query.append("""
+                SELECT
+                    r.id as r__id,
+                    r.rental_timestamp as r__rental_timestamp,
+                    r.devolution_timestamp as r__devolution_timestamp,
+                    f.name as f__name,
+                    f.social_security as f__social_security,
+                    t.brand as t__brand,
+                    t.name as t__name,
+                    t.cost_cents as t__cost_cents
+                  FROM RENTAL r
+                  JOIN TOOL t on
+                    t.id = r.tool_id
+                  LEFT JOIN FRIEND f on
+                    f.id = r.friend_id
+                  WHERE
+                    t.user_id = ?
+                """);
+        if (filter.fromTimestamp() != null) {
+            query.append("    AND r.rental_timestamp >= ?\n");
+        }
+        if (filter.toTimestamp() != null) {
+            query.append("    AND r.rental_timestamp < ?\n");
+        }
+        if (filter.friendId() != null) {
+            query.append("    AND r.friend_id = ?\n");
+        }
+        query.append("  ORDER BY r.rental_timestamp, r.id\n");
 
-            return rentals;
+        String userId = Settings.getUser().getId();
+        DataBase db = new DataBase();
+        try {
+            PreparedStatement stm = db.prepareStatement(query.toString());
+            int parameter = 1;
+            stm.setString(parameter++, userId);
+            if (filter.fromTimestamp() != null) {
+                stm.setLong(parameter++, filter.fromTimestamp());
+            }
+            if (filter.toTimestamp() != null) {
+                stm.setLong(parameter++, filter.toTimestamp());
+            }
+            if (filter.friendId() != null) {
+                stm.setString(parameter, filter.friendId());
+            }
+
+            return db.openCursor(stm, result -> {
+                long devolutionTimestamp = result.getLong("r__devolution_timestamp");
+                boolean returned = !result.wasNull() && devolutionTimestamp != 0;
+                return new RentalReportRow(
+                        result.getString("r__id"),
+                        result.getLong("r__rental_timestamp"),
+                        returned ? devolutionTimestamp : null,
+                        result.getString("f__name"),
+                        result.getString("f__social_security"),
+                        result.getString("t__brand"),
+                        result.getString("t__name"),
+                        Money.ofCents(result.getLong("t__cost_cents"))
+                );
+            });
 
         } catch (SQLException exc) {
-            System.out.println(exc.getMessage());
+            db.close();
+            LOGGER.error(exc.getMessage());
             throw new ToastError(
-                    "Não foi possível registrar o empréstimo da ferramenta devido a um erro de banco de dados.",
+                    "Não foi possível ler os empréstimos devido a um erro de banco de dados.",
                     "Erro de banco de dados");
         }
     }
@@ -1,18 +1,32 @@
 package tool.rental.domain.repositories;
 
 import tool.rental.app.Settings;
+import tool.rental.domain.dao.BatchInsertResult;
 import tool.rental.domain.dao.CountIdAndSumCostDAO;
+import tool.rental.domain.dao.NewTool;
+import tool.rental.domain.dao.ToolPageKey;
 import tool.rental.domain.entities.Friend;
 import tool.rental.domain.entities.Rental;
 import tool.rental.domain.entities.Tool;
 import tool.rental.domain.entities.User;
+import tool.rental.domain.infra.db.CursorReadException;
 import tool.rental.domain.infra.db.DataBase;
+import tool.rental.domain.infra.db.EntityCache;
+import tool.rental.domain.infra.db.FullTextQuery;
+import tool.rental.domain.infra.db.IdentityMap;
+import tool.rental.domain.infra.db.ResultCursor;
+import tool.rental.domain.infra.db.TableVersions;
+import tool.rental.domain.infra.db.UnitOfWork;
+import tool.rental.utils.Logger;
+import tool.rental.utils.Money;
 import tool.rental.utils.ToastError;
 
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -20,26 +34,74 @@ import java.util.UUID;
  */
 public class ToolRepository {
 
+    /**
+     * The logger of this class.
+     */
+    private static final Logger LOGGER = Logger.getLogger(ToolRepository.class);
+
+    /**
+     * The tools recently read, along with their current rental, by id. Shared with the other repositories of
+     * the package, which drop the tools whose rental they change. A rented tool weighs its rental and the
+     * friend who has it too.
+     */
+    static final EntityCache<Tool> CACHE = new EntityCache<>(
+            "TOOL",
+            tool -> tool.getCurrentRental() == null ? 1 : 3,
+            TableVersions.TOOL,
+            TableVersions.RENTAL,
+            TableVersions.FRIEND
+    );
+
+    /**
+     * Selects the tools of a user along with their open rental and the friend who has them.
+     */
+    private static final String LIST_QUERY = """
+            SELECT
+            	t.id as t__id,
+            	t.brand as t__brand,
+            	t.name as t__name,
+            	t.cost_cents as t__cost_cents,
+            	r.id as r__id,
+            	r.rental_timestamp as r__rental_timestamp,
+            	r.devolution_timestamp as r__devolution_timestamp,
+            	f.id as f__id,
+            	f.name as f__name,
+            	f.phone as f__phone,
+            	f.social_security as f__social_security
+            FROM
+            	TOOL t
+            LEFT JOIN RENTAL r
+            	on	r.tool_id = t.id
+            	and r.devolution_timestamp is null
+            LEFT JOIN FRIEND f
+            	on f.id = r.friend_id
+            WHERE
+            	t.user_id =?
+            """;
+
     /**
      * Sets the current rental of a tool based on the provided result set.
      *
      * @param tool the tool to set the current rental for
      * @param result the result set containing the rental information
+     * @param user the user owning the tool and the friend who has it
+     * @param friends the friends already read by the session, shared by the tools they have
      * @throws SQLException if an error occurs while processing the result set
      */
-    private void setCurrentRentalToTool(Tool tool, ResultSet result) throws SQLException {
+    private void setCurrentRentalToTool(Tool tool, ResultSet result, User user, IdentityMap<Friend> friends)
+            throws SQLException {
         String rentalId = result.getString("r__id");
         if (rentalId == null) {
             return;
         }
 
-        Friend friend = new Friend(
-                result.getString("f__id"),
-                result.getString("f__name"),
-                result.getString("f__phone"),
-                result.getString("f__social_security"),
-                Settings.getUser()
-        );
+        Friend friend = friends.resolve(result.getString("f__id"), result, row -> new Friend(
+                row.getString("f__id"),
+                row.getString("f__name"),
+                row.getString("f__phone"),
+                row.getString("f__social_security"),
+                user
+        ));
 
         Rental currentRental = new Rental(
                 result.getString("r__id"),
@@ -60,13 +122,165 @@ public class ToolRepository {
      * @throws ToastError if an error occurs while listing the tools
      */
     public ArrayList<Tool> listAll(boolean rentedOnly) throws ToastError {
+        try (ResultCursor<Tool> cursor = this.openAll(rentedOnly)) {
+            ArrayList<Tool> tools = new ArrayList<>();
+            cursor.forEachRemaining(tools::add);
+            return tools;
+        } catch (CursorReadException exc) {
+            throw exc.getToastError();
+        }
+    }
+
+    /**
+     * Opens a cursor over all tools, optionally filtering by rented only, reading them from the database as
+     * they are consumed instead of listing them upfront.
+     *
+     * @param rentedOnly whether to only include rented tools
+     * @return the cursor, holding a connection until it is closed
+     * @throws ToastError if an error occurs while querying the tools
+     */
+    public ResultCursor<Tool> openAll(boolean rentedOnly) throws ToastError {
+        String query = LIST_QUERY;
+        if (rentedOnly) {
+            query += " and f__id is not null";
+        }
+        User user = Settings.getUser();
+        long stamp = CACHE.stamp();
+
+        DataBase db = new DataBase();
+        try {
+            PreparedStatement stm = db.prepareStatement(query);
+            stm.setString(1, user.getId());
+
+            IdentityMap<Friend> friends = db.getIdentityMap(Friend.class);
+            return db.openCursor(stm, result -> this.toListedTool(result, user, friends, stamp));
+
+        } catch (SQLException e) {
+            db.close();
+            throw new ToastError("Falha ao listar as ferramentas. " + e, "Erro de banco de dados.");
+        }
+    }
+
+    /**
+     * Lists a page of tools ordered by name and id, starting after the given key (keyset pagination), so
+     * that reading any page costs the same however far it is from the first one.
+     *
+     * @param rentedOnly whether to only include rented tools
+     * @param after      the key of the tool before the page, or null for the first page
+     * @param limit      the maximum number of tools listed
+     * @return the tools of the page, in order
+     * @throws ToastError if an error occurs while listing the tools
+     */
+    public ArrayList<Tool> listPage(boolean rentedOnly, ToolPageKey after, int limit) throws ToastError {
+        try (DataBase db = new DataBase()) {
+            String query = LIST_QUERY;
+            if (rentedOnly) {
+                query += " and r.id is not null";
+            }
+            if (after != null) {
+                query += " and (t.name, t.id) > (?, ?)";
+            }
+            query += " ORDER BY t.name, t.id LIMIT ?";
+
+            PreparedStatement stm = db.prepareStatement(query);
+            User user = Settings.getUser();
+
+            int index = 1;
+            stm.setString(index++, user.getId());
+            if (after != null) {
+                stm.setString(index++, after.name());
+                stm.setString(index++, after.id());
+            }
+            stm.setInt(index, limit);
+
+            long stamp = CACHE.stamp();
+            ResultSet result = db.executeQuery(stm);
+
+            ArrayList<Tool> tools = new ArrayList<Tool>(limit);
+
+            IdentityMap<Friend> friends = db.getIdentityMap(Friend.class);
+            while (result.next()) {
+                tools.add(this.toListedTool(result, user, friends, stamp));
+            }
+
+            return tools;
+
+        } catch (SQLException e) {
+            throw new ToastError("Falha ao listar as ferramentas. " + e, "Erro de banco de dados.");
+        }
+    }
+
+    /**
+     * Skips tools in the order of {@link #listPage(boolean, ToolPageKey, int)} without reading them, walking
+     * only the (user_id, name, id) index.
+     *
+     * @param rentedOnly whether to only include rented tools
+     * @param after      the key of the tool before the skipped ones, or null to start from the first tool
+     * @param count      the number of tools to skip
+     * @return the key of the last skipped tool, or null if there are fewer tools than that
+     * @throws ToastError if an error occurs while reading the tools
+     */
+    public ToolPageKey skipPage(boolean rentedOnly, ToolPageKey after, int count) throws ToastError {
+        try (DataBase db = new DataBase()) {
+            String query = "SELECT t.name, t.id FROM TOOL t WHERE t.user_id = ?";
+            if (rentedOnly) {
+                query += """
+                         and exists (
+                        	SELECT 1 FROM RENTAL r WHERE r.tool_id = t.id and r.devolution_timestamp is null
+                        )""";
+            }
+            if (after != null) {
+                query += " and (t.name, t.id) > (?, ?)";
+            }
+            query += " ORDER BY t.name, t.id LIMIT 1 OFFSET ?";
+
+            PreparedStatement stm = db.prepareStatement(query);
+
+            int index = 1;
+            stm.setString(index++, Settings.getUser().getId());
+            if (after != null) {
+                stm.setString(index++, after.name());
+                stm.setString(index++, after.id());
+            }
+            stm.setInt(index, count - 1);
+
+            ResultSet result = db.executeQuery(stm);
+
+            if (!result.next()) {
+                return null;
+            }
+            return new ToolPageKey(result.getString("name"), result.getString("id"));
+
+        } catch (SQLException e) {
+            throw new ToastError("Falha ao listar as ferramentas. " + e, "Erro de banco de dados.");
+        }
+    }
+
+    /**
+     * Searches the tools of the logged user by brand and name through the TOOL_FTS full-text index, best
+     * matches first. Every word typed must start a word of the brand or name, accents and case aside.
+     *
+     * @param text       the text typed by the user
+     * @param rentedOnly whether to only include rented tools
+     * @param offset     the number of matches to skip, for the pages after the first one
+     * @param limit      the maximum number of tools returned
+     * @return the matching tools along with their current rental, ranked by relevance, a match in the name
+     * weighing more than one in the brand
+     * @throws ToastError if an error occurs while searching the tools
+     */
+    public ArrayList<Tool> search(String text, boolean rentedOnly, int offset, int limit) throws ToastError {
+        String match = FullTextQuery.of(text);
+        if (match == null) {
+            return new ArrayList<>();
+        }
+
         try (DataBase db = new DataBase()) {
             String query = """
                     SELECT
                     	t.id as t__id,
                     	t.brand as t__brand,
                     	t.name as t__name,
-                    	t.cost as t__cost,
+                    	t.cost_cents as t__cost_cents,
                     	r.id as r__id,
                     	r.rental_timestamp as r__rental_timestamp,
                     	r.devolution_timestamp as r__devolution_timestamp,
@@ -74,53 +288,130 @@ public class ToolRepository {
                     	f.name as f__name,
                     	f.phone as f__phone,
                     	f.social_security as f__social_security
-                    	
                     FROM
-                    	TOOL t
+                    	TOOL_FTS
+                    INNER JOIN TOOL t
+                    	on t.rowid = TOOL_FTS.rowid
                     LEFT JOIN RENTAL r
                     	on	r.tool_id = t.id
                     	and r.devolution_timestamp is null
-                    	
                     LEFT JOIN FRIEND f
                     	on f.id = r.friend_id
                     WHERE
-                    	t.user_id =?
-                    """;
+                    	TOOL_FTS MATCH ?
+                    	and t.user_id = ?""";
             if (rentedOnly) {
-                query += " and f__id is not null";
+                query += " and r.id is not null";
             }
+            query += " ORDER BY bm25(TOOL_FTS, 1.0, 2.0), t.name, t.id LIMIT ? OFFSET ?";
 
-            PreparedStatement stm = db.connection.prepareStatement(query);
+            PreparedStatement stm = db.prepareStatement(query);
             User user = Settings.getUser();
 
-            stm.setString(1, user.getId());
+            stm.setString(1, match);
+            stm.setString(2, user.getId());
+            stm.setInt(3, limit);
+            stm.setInt(4, offset);
 
+            long stamp = CACHE.stamp();
             ResultSet result = db.executeQuery(stm);
 
             ArrayList<Tool> tools = new ArrayList<Tool>();
 
+            IdentityMap<Friend> friends = db.getIdentityMap(Friend.class);
             while (result.next()) {
-                Tool tool = new Tool(
-                        result.getString("t__id"),
-                        result.getString("t__brand"),
-                        result.getString("t__name"),
-                        result.getDouble("t__cost"),
-                        user
-                );
+                tools.add(this.toListedTool(result, user, friends, stamp));
+            }
+
+            return tools;
+
+        } catch (SQLException e) {
+            throw new ToastError("Falha ao buscar as ferramentas. " + e, "Erro de banco de dados.");
+        }
+    }
 
-                this.setCurrentRentalToTool(tool, result);
-                tools.add(tool);
+    /**
+     * Counts the tools {@link #search(String, boolean, int, int)} finds, reading only the TOOL_FTS index and
+     * the tools matching.
+     *
+     * @param text       the text typed by the user
+     * @param rentedOnly whether to only include rented tools
+     * @return the number of matching tools
+     * @throws ToastError if an error occurs while searching the tools
+     */
+    public int countSearch(String text, boolean rentedOnly) throws ToastError {
+        String match = FullTextQuery.of(text);
+        if (match == null) {
+            return 0;
+        }
+
+        try (DataBase db = new DataBase()) {
+            String query = """
+                    SELECT count(*) as total
+                    FROM
+                    	TOOL_FTS
+                    INNER JOIN TOOL t
+                    	on t.rowid = TOOL_FTS.rowid
+                    WHERE
+                    	TOOL_FTS MATCH ?
+                    	and t.user_id = ?""";
+            if (rentedOnly) {
+                query += """
+                         and exists (
+                        	SELECT 1 FROM RENTAL r WHERE r.tool_id = t.id and r.devolution_timestamp is null
+                        )""";
             }
 
-            tools.trimToSize();
+            PreparedStatement stm = db.prepareStatement(query);
+            stm.setString(1, match);
+            stm.setString(2, Settings.getUser().getId());
 
-            return tools;
+            ResultSet result = db.executeQuery(stm);
+            return result.next() ? result.getInt("total") : 0;
 
         } catch (SQLException e) {
-            throw new ToastError("Falha ao listar as ferramentas. " + e, "Erro de banco de dados.");
+            throw new ToastError("Falha ao buscar as ferramentas. " + e, "Erro de banco de dados.");
         }
     }
 
+    /**
+     * Indexes every tool again in TOOL_FTS, from the TOOL table.
+     *
+     * @throws ToastError if an error occurs while indexing the tools
+     */
+    public void rebuildSearchIndex() throws ToastError {
+        try (DataBase db = new DataBase()) {
+            db.executeUpdate(db.prepareStatement("INSERT INTO TOOL_FTS (TOOL_FTS) VALUES ('rebuild')"));
+        } catch (SQLException e) {
+            throw new ToastError("Falha ao reconstruir o índice de busca. " + e, "Erro de banco de dados.");
+        }
+    }
+
+    /**
+     * Reads a tool listed by {@link #LIST_QUERY}, along with its current rental.
+     *
+     * @param result the result set positioned on the tool row
+     * @param user    the owner of the tool
+     * @param friends the friends already read by the session, shared by the tools they have
+     * @param stamp   the version of the tables read before the query, to cache the tool with
+     * @return the tool
+     * @throws SQLException if an error occurs while processing the result set
+     */
+    private Tool toListedTool(ResultSet result, User user, IdentityMap<Friend> friends, long stamp)
+            throws SQLException {
+        Tool tool = new Tool(
+                result.getString("t__id"),
+                result.getString("t__brand"),
+                result.getString("t__name"),
+                Money.ofCents(result.getLong("t__cost_cents")),
+                user
+        );
+
+        this.setCurrentRentalToTool(tool, result, user, friends);
+        CACHE.put(tool.getId(), tool, stamp);
+        return tool;
+    }
+
     /**
      * Counts and sums the cost of tools by user.
      *
@@ -129,19 +420,19 @@ public class ToolRepository {
      */
     public CountIdAndSumCostDAO countAndSumCostByUser() throws ToastError {
         try (DataBase dataBase = new DataBase()) {
-            String query = "SELECT COUNT(id) as total_count, SUM(cost) as total_cost from TOOL WHERE user_id = ?";
-            PreparedStatement stm = dataBase.connection.prepareStatement(query);
+            String query = "SELECT COUNT(id) as total_count, SUM(cost_cents) as total_cost_cents from TOOL WHERE user_id = ?";
+            PreparedStatement stm = dataBase.prepareStatement(query);
             stm.setString(1, Settings.getUser().getId());
 
             ResultSet result = dataBase.executeQuery(stm);
 
             if (!result.next()) {
-                return new CountIdAndSumCostDAO(0, 0.0);
+                return new CountIdAndSumCostDAO(0, Money.ZERO);
             }
 
             return new CountIdAndSumCostDAO(
                     result.getInt("total_count"),
-                    result.getDouble("total_cost")
+                    Money.ofCents(result.getLong("total_cost_cents"))
             );
 
         } catch (SQLException e) {
@@ -150,20 +441,26 @@ public class ToolRepository {
     }
 
     /**
-     * Gets a tool by its ID.
+     * Gets a tool by its ID, from the cache when it was read recently and did not change since.
      *
      * @param toolId the ID of the tool to retrieve
      * @return the tool, or null if not found
      * @throws ToastError if an error occurs while retrieving the tool
      */
     public Tool getById(String toolId) throws ToastError {
+        Tool cached = CACHE.get(toolId);
+        if (cached != null) {
+            return cached;
+        }
+
+        long stamp = CACHE.stamp();
         try (DataBase db = new DataBase()) {
             String query = """
                         SELECT
                             t.id,
                             t.brand,
                             t.name,
-                            t.cost,
+                            t.cost_cents,
                             u.id as u__id,
                             u.username as u__username,
                             u.has_mock as u__has_mock,
@@ -182,7 +479,7 @@ public class ToolRepository {
                         WHERE t.id = ?
                     """;
 
-            PreparedStatement stm = db.connection.prepareStatement(query);
+            PreparedStatement stm = db.prepareStatement(query);
             stm.setString(1, toolId);
 
             ResultSet result = db.executeQuery(stm);
@@ -201,11 +498,12 @@ public class ToolRepository {
                     result.getString("id"),
                     result.getString("brand"),
                     result.getString("name"),
-                    result.getDouble("cost"),
+                    Money.ofCents(result.getLong("cost_cents")),
                     user
             );
 
-            this.setCurrentRentalToTool(tool, result);
+            this.setCurrentRentalToTool(tool, result, user, db.getIdentityMap(Friend.class));
+            CACHE.put(tool.getId(), tool, stamp);
 
             return tool;
 
@@ -223,23 +521,25 @@ public class ToolRepository {
      * @return the created tool
      * @throws ToastError if an error occurs while creating the tool
      */
-    public Tool createTool(String brand, String name, double cost) throws ToastError {
+    public Tool createTool(String brand, String name, Money cost) throws ToastError {
         try (DataBase db = new DataBase()) {
             String id = UUID.randomUUID().toString();
 
 
-            PreparedStatement stm = db.connection.prepareStatement("INSERT INTO TOOL VALUES(?, ?, ?, ?, ?)");
+            PreparedStatement stm = db.prepareStatement(
+                    "INSERT INTO TOOL (id, brand, name, cost_cents, user_id) VALUES (?, ?, ?, ?, ?)"
+            );
             stm.setString(1, id);
             stm.setString(2, brand);
             stm.setString(3, name);
-            stm.setDouble(4, cost);
+            stm.setLong(4, cost.cents());
             stm.setString(5, Settings.getUser().getId());
 
             db.executeUpdate(stm);
             return new Tool(id, brand, name, cost, Settings.getUser());
 
         } catch (SQLException exc) {
-            System.out.println(exc.getMessage());
+            LOGGER.error(exc.getMessage());
             throw new ToastError(
                     "Não foi possível cadastrar a ferramenta devido a um erro com banco de dados",
                     "Erro de banco de dados"
@@ -247,6 +547,57 @@ public class ToolRepository {
         }
     }
 
+    /**
+     * Creates tools in bulk.
+     * <p>
+     * The rows are sent to the database in batches of {@link DataBase#BATCH_SIZE}, within a single transaction,
+     * so that either all of them are created or none is.
+     *
+     * @param tools the tools to create, owned by the logged user
+     * @return the ids of the tools created, in order, along with the time taken
+     * @throws ToastError if any row cannot be created, in which case none is
+     */
+    public BatchInsertResult createTools(Collection<NewTool> tools) throws ToastError {
+        long start = System.nanoTime();
+        String userId = Settings.getUser().getId();
+        ArrayList<String> ids = new ArrayList<>(tools.size());
+
+        try (UnitOfWork unit = UnitOfWork.begin()) {
+            try (DataBase db = new DataBase()) {
+                PreparedStatement stm = db.prepareStatement(
+                        "INSERT INTO TOOL (id, brand, name, cost_cents, user_id) VALUES (?, ?, ?, ?, ?)"
+                );
+                for (NewTool tool : tools) {
+                    String id = UUID.randomUUID().toString();
+                    stm.setString(1, id);
+                    stm.setString(2, tool.brand());
+                    stm.setString(3, tool.name());
+                    stm.setLong(4, tool.cost().cents());
+                    stm.setString(5, userId);
+                    stm.addBatch();
+                    ids.add(id);
+
+                    if (ids.size() % DataBase.BATCH_SIZE == 0) {
+                        db.executeBatch(stm);
+                    }
+                }
+                db.executeBatch(stm);
+            }
+            unit.commit();
+
+        } catch (SQLException exc) {
+            LOGGER.error(exc.getMessage());
+            throw new ToastError(
+                    "Não foi possível cadastrar as ferramentas devido a um erro com banco de dados",
+                    "Erro de banco de dados"
+            );
+        }
+
+        BatchInsertResult result = new BatchInsertResult(ids, System.nanoTime() - start);
+        LOGGER.debug(() -> result.describe("TOOL"));
+        return result;
+    }
+
     /**
      * Checks if a tool exists by name and brand.
      *
@@ -257,7 +608,7 @@ public class ToolRepository {
      */
     public boolean existsByNameAndBrand(String name, String brand) throws ToastError {
         try (DataBase db = new DataBase()) {
-            PreparedStatement stm = db.connection.prepareStatement(
+            PreparedStatement stm = db.prepareStatement(
                     "SELECT id FROM TOOL WHERE user_id = ? and name = ? and brand = ?"
             );
             stm.setString(1, Settings.getUser().getId());
@@ -267,7 +618,7 @@ public class ToolRepository {
             return result.next();
 
         } catch (SQLException exc) {
-            System.out.println(exc.getMessage());
+            LOGGER.error(exc.getMessage());
             throw new ToastError(
                     "Não foi possível verificar se o usuário existe devido a um erro com o banco de dados.",
                     "Erro de banco de dados."
@@ -275,6 +626,57 @@ public class ToolRepository {
         }
     }
 
+    /**
+     * Leaves out the tools already registered by the logged user with the same name and brand, as
+     * {@link #existsByNameAndBrand(String, String)} tells, looking up each chunk of {@link DataBase#BATCH_SIZE}
+     * tools in a single query.
+     *
+     * @param tools the tools to check
+     * @return the tools not registered yet, in order
+     * @throws ToastError if a database error occurs
+     */
+    public List<NewTool> withoutExisting(List<NewTool> tools) throws ToastError {
+        ArrayList<NewTool> missing = new ArrayList<>(tools.size());
+
+        try (DataBase db = new DataBase()) {
+            for (int from = 0; from < tools.size(); from += DataBase.BATCH_SIZE) {
+                List<NewTool> chunk = tools.subList(from, Math.min(from + DataBase.BATCH_SIZE, tools.size()));
+                PreparedStatement stm = db.prepareStatement(
+                        "WITH wanted (position, name, brand) AS (VALUES " + DataBase.valuesPlaceholders(chunk.size(), 3) + ") "
+                                + "SELECT position FROM wanted "
+                                + "WHERE EXISTS (SELECT 1 FROM TOOL t WHERE t.user_id = ? and t.name = wanted.name and t.brand = wanted.brand)"
+                );
+
+                int parameter = 1;
+                for (int i = 0; i < chunk.size(); i++) {
+                    stm.setInt(parameter++, i);
+                    stm.setString(parameter++, chunk.get(i).name());
+                    stm.setString(parameter++, chunk.get(i).brand());
+                }
+                stm.setString(parameter, Settings.getUser().getId());
+
+                boolean[] existing = new boolean[chunk.size()];
+                ResultSet result = db.executeQuery(stm);
+                while (result.next()) {
+                    existing[result.getInt("position")] = true;
+                }
+                for (int i = 0; i < chunk.size(); i++) {
+                    if (!existing[i]) {
+                        missing.add(chunk.get(i));
+                    }
+                }
+            }
+            return missing;
+
+        } catch (SQLException exc) {
+            LOGGER.error(exc.getMessage());
+            throw new ToastError(
+                    "Não foi possível verificar se as ferramentas existem devido a um erro com o banco de dados.",
+                    "Erro de banco de dados."
+            );
+        }
+    }
+
     /**
      * Checks if a tool is rented.
      *
@@ -294,7 +696,7 @@ public class ToolRepository {
                          ORDER BY 
                                 tool_id DESC 
                     """;
-            PreparedStatement stm = db.connection.prepareStatement(query);
+            PreparedStatement stm = db.prepareStatement(query);
             stm.setString(1, toolId);
             ResultSet result = db.executeQuery(stm);
 
@@ -322,7 +724,7 @@ public class ToolRepository {
                         WHERE
                             friend_id = ? AND devolution_timestamp is null
                     """;
-            PreparedStatement stm = db.connection.prepareStatement(query);
+            PreparedStatement stm = db.prepareStatement(query);
             stm.setString(1, friend.getId());
             ResultSet result = db.executeQuery(stm);
 
@@ -341,12 +743,13 @@ public class ToolRepository {
      */
     public void deleteTool(Tool tool) throws ToastError {
         try (DataBase db = new DataBase()) {
-            PreparedStatement stm = db.connection.prepareStatement("DELETE FROM TOOL WHERE id = ?");
+            PreparedStatement stm = db.prepareStatement("DELETE FROM TOOL WHERE id = ?");
             stm.setString(1, tool.getId());
             db.executeUpdate(stm);
+            CACHE.invalidate(tool.getId());
 
         } catch (SQLException e) {
-            System.out.println(e.getMessage());
+            LOGGER.error(e.getMessage());
             throw new ToastError("Não foi possível deletar a ferramenta selecionada.",
                     "Erro de banco de dados");
         }
@@ -361,19 +764,20 @@ public class ToolRepository {
      * @param cost the new cost of the tool
      * @throws ToastError if an error occurs while updating the tool
      */
-    public void updateTool(Tool tool, String brand, String name, double cost) throws ToastError {
+    public void updateTool(Tool tool, String brand, String name, Money cost) throws ToastError {
         try (DataBase db = new DataBase()) {
-            PreparedStatement stm = db.connection.prepareStatement(
-                    "UPDATE TOOL SET brand = ?, name = ?, cost = ? WHERE id = ? ");
+            PreparedStatement stm = db.prepareStatement(
+                    "UPDATE TOOL SET brand = ?, name = ?, cost_cents = ? WHERE id = ? ");
             stm.setString(1, brand);
             stm.setString(2, name);
-            stm.setDouble(3, cost);
+            stm.setLong(3, cost.cents());
             stm.setString(4, tool.getId());
 
             db.executeUpdate(stm);
+            CACHE.invalidate(tool.getId());
 
         } catch (SQLException e) {
-            System.out.println(e.getMessage());
+            LOGGER.error(e.getMessage());
             throw new ToastError("Não foi possível atualizar a ferramenta",
                     "Erro de banco de dados.");
         }
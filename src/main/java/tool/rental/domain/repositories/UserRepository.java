@@ -3,6 +3,7 @@ package tool.rental.domain.repositories;
 
 import tool.rental.domain.entities.User;
 import tool.rental.domain.infra.db.DataBase;
+import tool.rental.utils.Logger;
 import tool.rental.utils.ToastError;
 
 import java.sql.PreparedStatement;
@@ -15,6 +16,11 @@ import java.util.UUID;
  */
 public class UserRepository {
 
+    /**
+     * The logger of this class.
+     */
+    private static final Logger LOGGER = Logger.getLogger(UserRepository.class);
+
     /**
      * Finds a user by username and password.
      *
@@ -25,7 +31,7 @@ public class UserRepository {
      */
     public User findByUsernameAndPassword(String username, String encodedPassword) throws ToastError {
         try (DataBase db = new DataBase()) {
-            PreparedStatement stm = db.connection.prepareStatement(
+            PreparedStatement stm = db.prepareStatement(
                     "SELECT * FROM USER WHERE username = ? AND password = ?"
             );
             stm.setString(1, username);
@@ -48,6 +54,35 @@ public class UserRepository {
         }
     }
 
+    /**
+     * Finds a user by username, for maintenance commands acting on behalf of a user.
+     *
+     * @param username the username of the user
+     * @return the user, or null if not found
+     * @throws ToastError if a database error occurs
+     */
+    public User findByUsername(String username) throws ToastError {
+        try (DataBase db = new DataBase()) {
+            PreparedStatement stm = db.prepareStatement("SELECT * FROM USER WHERE username = ?");
+            stm.setString(1, username);
+
+            ResultSet result = db.executeQuery(stm);
+            if (!result.next()) {
+                return null;
+            }
+
+            return new User(
+                    result.getString("id"),
+                    result.getString("username"),
+                    true,
+                    result.getBoolean("has_mock")
+            );
+
+        } catch (SQLException e) {
+            throw new ToastError("Erro ao consultar no banco de dados", "Erro de banco de dados.");
+        }
+    }
+
     /**
      * Creates a new user.
      *
@@ -60,7 +95,7 @@ public class UserRepository {
         try (DataBase db = new DataBase()) {
             String id = UUID.randomUUID().toString();
 
-            PreparedStatement stm = db.connection.prepareStatement("INSERT INTO USER VALUES(?, ?, ?, 0)");
+            PreparedStatement stm = db.prepareStatement("INSERT INTO USER (id, username, password, has_mock) VALUES (?, ?, ?, 0)");
             stm.setString(1, id);
             stm.setString(2, username);
             stm.setString(3, encodedPassword);
@@ -70,7 +105,7 @@ public class UserRepository {
             return new User(id, username);
 
         } catch (SQLException exc) {
-            System.out.println(exc.getMessage());
+            LOGGER.error(exc.getMessage());
             throw new ToastError(
                     "Não foi possível criar o usuário devido a um erro com o banco de dados.",
                     "Erro de banco de dados."
@@ -87,13 +122,13 @@ public class UserRepository {
      */
     public boolean existsByUsername(String username) throws ToastError {
         try (DataBase db = new DataBase()) {
-            PreparedStatement stm = db.connection.prepareStatement("SELECT id FROM USER WHERE username = ?");
+            PreparedStatement stm = db.prepareStatement("SELECT id FROM USER WHERE username = ?");
             stm.setString(1, username);
             ResultSet result = db.executeQuery(stm);
             return result.next();
 
         } catch (SQLException exc) {
-            System.out.println(exc.getMessage());
+            LOGGER.error(exc.getMessage());
             throw new ToastError(
                     "Não foi possível verificar se o usuário existe devido a um erro com o banco de dados.",
                     "Erro de banco de dados."
@@ -110,7 +145,7 @@ public class UserRepository {
      */
     public void setMock(User user, boolean hasMock) throws ToastError{
         try (DataBase db = new DataBase()) {
-            PreparedStatement stm = db.connection.prepareStatement("UPDATE USER SET has_mock = ? WHERE id = ?");
+            PreparedStatement stm = db.prepareStatement("UPDATE USER SET has_mock = ? WHERE id = ?");
             stm.setBoolean(1, hasMock);
             stm.setString(2, user.getId());
 
@@ -119,7 +154,7 @@ public class UserRepository {
             user.setHasMock(true);
 
         } catch (SQLException exc) {
-            System.out.println(exc.getMessage());
+            LOGGER.error(exc.getMessage());
             throw new ToastError(
                     "Não foi possível verificar se o usuário existe devido a um erro com o banco de dados.",
                     "Erro de banco de dados."
@@ -0,0 +1,155 @@
+package tool.rental.domain.repositories;
+
+import tool.rental.app.Settings;
+import tool.rental.domain.dao.UserStatsMismatch;
+import tool.rental.domain.dao.UserSummaryDAO;
+import tool.rental.domain.infra.db.DataBase;
+import tool.rental.utils.Money;
+import tool.rental.utils.ToastError;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+
+/**
+ * Represents a repository for the per-user counters of the tool rental system, kept in the USER_STATS table by
+ * triggers on TOOL, RENTAL and FRIEND.
+ */
+public class UserStatsRepository {
+
+    /**
+     * Computes, for every user, the counters USER_STATS should hold.
+     */
+    private static final String ACTUAL_STATS = """
+            SELECT
+            	u.id as user_id,
+            	(SELECT COUNT(t.id) FROM TOOL t WHERE t.user_id = u.id) as tool_count,
+            	(SELECT IFNULL(SUM(t.cost_cents), 0) FROM TOOL t WHERE t.user_id = u.id) as tool_cost_cents,
+            	(
+            		SELECT COUNT(r.id)
+            		FROM RENTAL r
+            		INNER JOIN TOOL t on t.id = r.tool_id
+            		WHERE t.user_id = u.id AND r.devolution_timestamp is null
+            	) as open_rental_count,
+            	(SELECT COUNT(f.id) FROM FRIEND f WHERE f.user_id = u.id) as friend_count
+            FROM "USER" u
+            """;
+
+    /**
+     * Reads the counters of the logged user.
+     *
+     * @return the totals of the logged user, all zero if the user has no counters yet
+     * @throws ToastError if a database error occurs
+     */
+    public UserSummaryDAO getByUser() throws ToastError {
+        try (DataBase db = new DataBase()) {
+            PreparedStatement stm = db.prepareStatement("""
+                    SELECT tool_count, tool_cost_cents, open_rental_count, friend_count
+                    FROM USER_STATS
+                    WHERE user_id = ?
+                    """);
+            stm.setString(1, Settings.getUser().getId());
+
+            ResultSet result = db.executeQuery(stm);
+
+            if (!result.next()) {
+                return new UserSummaryDAO(0, Money.ZERO, 0, 0);
+            }
+
+            return this.toSummary(result);
+        } catch (SQLException e) {
+            throw new ToastError(e.getMessage(), "Erro de banco de dados.");
+        }
+    }
+
+    /**
+     * Compares the stored counters of every user with the ones computed from the tables.
+     *
+     * @return the users whose counters are missing or wrong
+     * @throws ToastError if a database error occurs
+     */
+    public ArrayList<UserStatsMismatch> listMismatches() throws ToastError {
+        try (DataBase db = new DataBase()) {
+            String query = """
+                    WITH actual as (
+                    """ + ACTUAL_STATS + """
+                    )
+                    SELECT
+                    	a.user_id,
+                    	a.tool_count,
+                    	a.tool_cost_cents,
+                    	a.open_rental_count,
+                    	a.friend_count,
+                    	s.user_id as s__user_id,
+                    	s.tool_count as s__tool_count,
+                    	s.tool_cost_cents as s__tool_cost_cents,
+                    	s.open_rental_count as s__open_rental_count,
+                    	s.friend_count as s__friend_count
+                    FROM actual a
+                    LEFT JOIN USER_STATS s on s.user_id = a.user_id
+                    WHERE
+                    	s.user_id is null
+                    	OR s.tool_count <> a.tool_count
+                    	OR s.tool_cost_cents <> a.tool_cost_cents
+                    	OR s.open_rental_count <> a.open_rental_count
+                    	OR s.friend_count <> a.friend_count
+                    """;
+            PreparedStatement stm = db.prepareStatement(query);
+
+            ResultSet result = db.executeQuery(stm);
+
+            ArrayList<UserStatsMismatch> mismatches = new ArrayList<>();
+            while (result.next()) {
+                UserSummaryDAO stored = null;
+                if (result.getString("s__user_id") != null) {
+                    stored = new UserSummaryDAO(
+                            result.getInt("s__tool_count"),
+                            Money.ofCents(result.getLong("s__tool_cost_cents")),
+                            result.getInt("s__open_rental_count"),
+                            result.getInt("s__friend_count")
+                    );
+                }
+
+                mismatches.add(new UserStatsMismatch(result.getString("user_id"), stored, this.toSummary(result)));
+            }
+
+            return mismatches;
+        } catch (SQLException e) {
+            throw new ToastError(e.getMessage(), "Erro de banco de dados.");
+        }
+    }
+
+    /**
+     * Recomputes the counters of every user from the tables, replacing the stored ones.
+     *
+     * @throws ToastError if a database error occurs
+     */
+    public void rebuild() throws ToastError {
+        try (DataBase db = new DataBase()) {
+            PreparedStatement stm = db.prepareStatement("""
+                    REPLACE INTO USER_STATS (user_id, tool_count, tool_cost_cents, open_rental_count, friend_count)
+                    """ + ACTUAL_STATS);
+
+            db.executeUpdate(stm);
+        } catch (SQLException e) {
+            throw new ToastError(e.getMessage(), "Erro de banco de dados.");
+        }
+    }
+
+    /**
+     * Reads the counters of the current row of a result set.
+     *
+     * @param result the result set positioned on a row
+     * @return the counters
+     * @throws SQLException if an error occurs while reading the result set
+     */
+    private UserSummaryDAO toSummary(ResultSet result) throws SQLException {
+        return new UserSummaryDAO(
+                result.getInt("tool_count"),
+                Money.ofCents(result.getLong("tool_cost_cents")),
+                result.getInt("open_rental_count"),
+                result.getInt("friend_count")
+        );
+    }
+}
@@ -1,20 +1,26 @@
 package tool.rental.domain.use_cases;
 
-import tool.rental.domain.dao.CountIdAndSumCostDAO;
+import tool.rental.app.Settings;
+import tool.rental.domain.dao.UserSummaryDAO;
 import tool.rental.domain.dto.CalculateSummaryDTO;
-import tool.rental.domain.repositories.FriendRepository;
-import tool.rental.domain.repositories.RentalRepository;
-import tool.rental.domain.repositories.ToolRepository;
+import tool.rental.domain.infra.db.TableVersions;
+import tool.rental.domain.repositories.UserStatsRepository;
 import tool.rental.utils.ToastError;
 
 /**
  * This class represents a use case for calculating a summary of various data, including tool count, rental count,
  * total tool cost, and friend count.
+ * <p>
+ * The summary is read from the per-user counters kept by triggers, so it costs a single primary key lookup
+ * however many tools the user has, and is kept until the tools, friends or rentals change.
  */
 public class CalculateSummaryUseCase {
-    private final ToolRepository toolRepository = new ToolRepository(); // Repository for tools
-    private final FriendRepository friendRepository = new FriendRepository(); // Repository for friends
-    private final RentalRepository rentalRepository = new RentalRepository(); // Repository for rentals
+    private final UserStatsRepository userStatsRepository = new UserStatsRepository(); // Repository for the totals
+
+    /**
+     * The last summary calculated, shared by every instance of the use case.
+     */
+    private static volatile CachedSummary CACHE;
 
     /**
      * Executes the use case to calculate the summary.
@@ -23,20 +29,52 @@ public class CalculateSummaryUseCase {
      * @throws ToastError if an error occurs during the execution.
      */
     public CalculateSummaryDTO execute() throws ToastError {
-        // Count and sum the cost of tools by user
-        CountIdAndSumCostDAO toolResult = this.toolRepository.countAndSumCostByUser();
-        double toolCostSum = toolResult.getTotalCost(); // Total cost of tools
-        int toolCount = toolResult.getTotalCount(); // Total count of tools
-        int rentalCount = this.rentalRepository.countBorrowedByUser(); // Total count of rentals borrowed by user
-        int friendCount = this.friendRepository.countByUser(); // Total count of friends for the user
+        String userId = Settings.getUser().getId();
+        // Read the stamp before querying, so a change made while querying leaves the cached summary stale
+        long stamp = TableVersions.stamp(
+                TableVersions.TOOL,
+                TableVersions.FRIEND,
+                TableVersions.RENTAL,
+                TableVersions.USER_STATS
+        );
+
+        CachedSummary cached = CACHE;
+        if (cached != null && cached.stamp() == stamp && cached.userId().equals(userId)) {
+            return cached.summary();
+        }
+
+        UserSummaryDAO totals = this.userStatsRepository.getByUser();
 
         // Create and return CalculateSummaryDTO object with the calculated summary data
-        return new CalculateSummaryDTO(
-                toolCount,
-                rentalCount,
-                String.format("R$ %,.2f", toolCostSum), // Format total tool cost as currency string
-                friendCount
+        CalculateSummaryDTO summary = new CalculateSummaryDTO(
+                totals.toolCount(),
+                totals.openRentalCount(),
+                totals.toolCostSum().format(), // Format total tool cost as currency string
+                totals.friendCount()
         );
+
+        CACHE = new CachedSummary(userId, stamp, summary);
+        return summary;
     }
-}
 
+    /**
+     * A summary along with what it was calculated for.
+     */
+    private record CachedSummary(
+            /**
+             * The user the summary belongs to.
+             */
+            String userId,
+
+            /**
+             * The version of the tables the summary was read from.
+             */
+            long stamp,
+
+            /**
+             * The summary.
+             */
+            CalculateSummaryDTO summary
+    ) {
+    }
+}
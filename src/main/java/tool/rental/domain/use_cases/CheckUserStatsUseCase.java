@@ -0,0 +1,32 @@
+package tool.rental.domain.use_cases;
+
+import tool.rental.domain.dao.UserStatsMismatch;
+import tool.rental.domain.repositories.UserStatsRepository;
+import tool.rental.utils.ToastError;
+
+import java.util.ArrayList;
+
+/**
+ * This class represents a use case for checking, and optionally repairing, the per-user counters kept in
+ * USER_STATS against the tool, rental and friend tables.
+ */
+public class CheckUserStatsUseCase {
+    private final UserStatsRepository userStatsRepository = new UserStatsRepository(); // Repository for counters
+
+    /**
+     * Executes the use case to check the counters.
+     *
+     * @param rebuild whether to recompute every counter when any of them is wrong
+     * @return the users whose counters were missing or wrong before any rebuild
+     * @throws ToastError if an error occurs during the execution.
+     */
+    public ArrayList<UserStatsMismatch> execute(boolean rebuild) throws ToastError {
+        ArrayList<UserStatsMismatch> mismatches = this.userStatsRepository.listMismatches();
+
+        if (rebuild && !mismatches.isEmpty()) {
+            this.userStatsRepository.rebuild();
+        }
+
+        return mismatches;
+    }
+}
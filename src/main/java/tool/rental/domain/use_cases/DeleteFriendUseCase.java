@@ -1,5 +1,6 @@
 package tool.rental.domain.use_cases;
 
+import tool.rental.domain.infra.db.UnitOfWork;
 import tool.rental.domain.repositories.FriendRepository;
 import tool.rental.utils.ToastError;
 
@@ -16,15 +17,19 @@ public class DeleteFriendUseCase {
      * @throws ToastError if an error occurs during the execution or if the friend has a tool rented.
      */
     public void execute(String friendId) throws ToastError {
-        // Check if the friend has a tool rented
-        if (friendRepository.friendHasToolRented(friendId)) {
-            throw new ToastError(
-                    "Não foi possível deletar o amigo pois o mesmo possui uma ferramenta em empréstimo.",
-                    "Erro ao deletar."
-            );
+        // Check and delete in one transaction, so that no tool is lent to the friend in between
+        try (UnitOfWork unit = UnitOfWork.begin()) {
+            // Check if the friend has a tool rented
+            if (friendRepository.friendHasToolRented(friendId)) {
+                throw new ToastError(
+                        "Não foi possível deletar o amigo pois o mesmo possui uma ferramenta em empréstimo.",
+                        "Erro ao deletar."
+                );
+            }
+            // Delete the friend from the repository
+            this.friendRepository.deleteFriend(friendId);
+            unit.commit();
         }
-        // Delete the friend from the repository
-        this.friendRepository.deleteFriend(friendId);
     }
 }
 
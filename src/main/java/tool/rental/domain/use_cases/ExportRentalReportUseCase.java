@@ -0,0 +1,173 @@
+package tool.rental.domain.use_cases;
+
+import tool.rental.domain.dao.RentalReportFilter;
+import tool.rental.domain.dao.RentalReportRow;
+import tool.rental.domain.infra.db.ResultCursor;
+import tool.rental.domain.repositories.RentalRepository;
+import tool.rental.utils.CsvWriter;
+import tool.rental.utils.DateFormats;
+import tool.rental.utils.Json;
+import tool.rental.utils.Logger;
+import tool.rental.utils.ToastError;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+
+/**
+ * This class represents a use case for exporting the rental report to a file, for histories too long to show.
+ * <p>
+ * Rentals are written as they are read from the database, so that exports of any size take constant memory.
+ * Dates are written in ISO 8601, in the time zone of {@link DateFormats}, and costs with a decimal point.
+ */
+public class ExportRentalReportUseCase {
+
+    /**
+     * The logger of this class.
+     */
+    private static final Logger LOGGER = Logger.getLogger(ExportRentalReportUseCase.class);
+
+    /**
+     * Formats the rental dates.
+     */
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ISO_LOCAL_DATE_TIME
+            .withZone(DateFormats.getZone());
+
+    /**
+     * The header of the CSV export.
+     */
+    private static final String[] CSV_HEADER = {
+            "id", "data_emprestimo", "data_devolucao", "amigo", "identidade", "marca", "ferramenta", "custo"
+    };
+
+    private final RentalRepository rentalRepository = new RentalRepository(); // Repository for rentals
+
+    /**
+     * The formats the report can be exported to.
+     */
+    public enum Format {
+        /**
+         * Comma separated values, with a header.
+         */
+        CSV,
+
+        /**
+         * Newline delimited JSON, one object per rental.
+         */
+        NDJSON;
+
+        /**
+         * Picks the format from the extension of a file name.
+         *
+         * @param fileName the file name
+         * @return NDJSON for {@code .ndjson}, {@code .jsonl} and {@code .json} files, CSV otherwise
+         */
+        public static Format fromFileName(String fileName) {
+            String name = fileName.toLowerCase(Locale.ROOT);
+            return name.endsWith(".ndjson") || name.endsWith(".jsonl") || name.endsWith(".json") ? NDJSON : CSV;
+        }
+    }
+
+    /**
+     * Executes the use case to export the rentals of the logged user.
+     *
+     * @param filter the rentals to include
+     * @param format the format of the file
+     * @param target the file, replaced if it exists
+     * @return the number of rentals exported
+     * @throws ToastError if the file cannot be written or a database error occurs
+     */
+    public long execute(RentalReportFilter filter, Format format, Path target) throws ToastError {
+        long start = System.nanoTime();
+        long count = 0;
+
+        try (BufferedWriter writer = Files.newBufferedWriter(target, StandardCharsets.UTF_8);
+             ResultCursor<RentalReportRow> rows = this.rentalRepository.openReport(filter)) {
+            CsvWriter csv = new CsvWriter(writer, ',');
+            if (format == Format.CSV) {
+                csv.writeRecord(CSV_HEADER);
+            }
+
+            RentalReportRow row;
+            while ((row = rows.read()) != null) {
+                if (format == Format.CSV) {
+                    writeCsv(csv, row);
+                } else {
+                    writeJson(writer, row);
+                }
+                count++;
+            }
+        } catch (IOException exc) {
+            LOGGER.error(exc.getMessage());
+            throw new ToastError("Não foi possível escrever o arquivo " + target + ": " + exc.getMessage(), "Erro ao exportar");
+        }
+
+        LOGGER.info(String.format(
+                "%d empréstimos exportados para %s em %d ms.", count, target, (System.nanoTime() - start) / 1_000_000
+        ));
+        return count;
+    }
+
+    /**
+     * Writes a rental as a CSV record.
+     *
+     * @param csv the file
+     * @param row the rental
+     * @throws IOException if the file cannot be written
+     */
+    private static void writeCsv(CsvWriter csv, RentalReportRow row) throws IOException {
+        csv.writeRecord(
+                row.id(),
+                formatDate(row.rentalTimestamp()),
+                row.devolutionTimestamp() == null ? "" : formatDate(row.devolutionTimestamp()),
+                row.friendName(),
+                row.friendSocialSecurity(),
+                row.toolBrand(),
+                row.toolName(),
+                row.toolCost().toPlainString()
+        );
+    }
+
+    /**
+     * Writes a rental as a JSON object on its own line.
+     *
+     * @param writer the file
+     * @param row    the rental
+     * @throws IOException if the file cannot be written
+     */
+    private static void writeJson(BufferedWriter writer, RentalReportRow row) throws IOException {
+        writer.write("{\"id\":");
+        writer.write(Json.quote(row.id()));
+        writer.write(",\"rentalDate\":");
+        writer.write(Json.quote(formatDate(row.rentalTimestamp())));
+        writer.write(",\"devolutionDate\":");
+        writer.write(row.devolutionTimestamp() == null ? "null" : Json.quote(formatDate(row.devolutionTimestamp())));
+        writer.write(",\"friendName\":");
+        writer.write(Json.quote(row.friendName()));
+        writer.write(",\"friendSocialSecurity\":");
+        writer.write(Json.quote(row.friendSocialSecurity()));
+        writer.write(",\"toolBrand\":");
+        writer.write(Json.quote(row.toolBrand()));
+        writer.write(",\"toolName\":");
+        writer.write(Json.quote(row.toolName()));
+        writer.write(",\"toolCost\":");
+        writer.write(row.toolCost().toPlainString());
+        writer.write('}');
+        writer.newLine();
+    }
+
+    /**
+     * Formats a timestamp.
+     *
+     * @param timestamp the timestamp in milliseconds
+     * @return the local date and time, in ISO 8601
+     */
+    private static String formatDate(long timestamp) {
+        return DATE_FORMAT.format(Instant.ofEpochMilli(timestamp));
+    }
+}
@@ -2,11 +2,11 @@ package tool.rental.domain.use_cases;
 
 import tool.rental.domain.dto.RentalReportDTO;
 import tool.rental.domain.entities.Rental;
+import tool.rental.domain.infra.db.ResultCursor;
 import tool.rental.domain.repositories.RentalRepository;
 import tool.rental.utils.ToastError;
 
-import java.util.List;
-
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -22,19 +22,32 @@ public class GetRentalReportUseCase {
      * @throws ToastError if an error occurs during the execution.
      */
     public List<RentalReportDTO> execute() throws ToastError {
-        List<Rental> rentals = rentalRepository.listAll(); // Retrieve all rentals from the repository
+        ArrayList<RentalReportDTO> reports = new ArrayList<>();
 
-        // Map each rental to a RentalReportDTO object representing a rental report
-        return rentals.stream()
-                .map(
-                        rental -> new RentalReportDTO(
-                                rental.getId(),
-                                rental.getFormattedRentalDate("dd/MM/yyyy - HH:mm"), // Format rental date
-                                rental.getFormattedDevolutionDate("dd/MM/yyyy - HH:mm"), // Format devolution date
-                                rental.getFriend().getName() + " - " + rental.getFriend().getSocialSecurity(), // Friend info
-                                rental.getTool().getBrand() + " - " + rental.getTool().getName() // Tool info
-                        )
-                ).toList();
+        // Map each rental to a RentalReportDTO object as it is read from the repository
+        try (ResultCursor<Rental> rentals = rentalRepository.openAll()) {
+            Rental rental;
+            while ((rental = rentals.read()) != null) {
+                reports.add(this.toReport(rental));
+            }
+        }
+        return reports;
     }
-}
 
+    /**
+     * Turns a rental into a line of the rental report.
+     *
+     * @param rental the rental
+     * @return the line of the report
+     */
+    private RentalReportDTO toReport(Rental rental) {
+        long devolutionTimestamp = rental.getDevolutionTimestamp();
+        return new RentalReportDTO(
+                rental.getId(),
+                rental.getRentalTimestamp(),
+                devolutionTimestamp == 0 ? null : devolutionTimestamp, // A tool not devolved yet has no date
+                rental.getFriend(),
+                rental.getTool()
+        );
+    }
+}
@@ -0,0 +1,485 @@
+package tool.rental.domain.use_cases;
+
+import tool.rental.domain.dao.ImportReport;
+import tool.rental.domain.infra.db.DataBase;
+import tool.rental.domain.infra.db.UnitOfWork;
+import tool.rental.utils.CsvReader;
+import tool.rental.utils.CsvWriter;
+import tool.rental.utils.Logger;
+import tool.rental.utils.ToastError;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * This class represents a use case for importing records from a CSV file, in constant memory whatever its size.
+ * <p>
+ * A reader thread parses and validates the records while the calling thread inserts them, the two handing
+ * chunks of {@link DataBase#BATCH_SIZE} valid records over a bounded queue, so that reading never gets more
+ * than a few chunks ahead of the database. Each chunk leaves out the records already registered, or repeated
+ * in it, and is created in its own transaction, so that importing a file again after a failure resumes where
+ * it stopped. Records rejected or skipped are written, with their line and the reason, to an error report.
+ * <p>
+ * The first record of the file is its header, naming the columns, which may come in any order.
+ *
+ * @param <T> the type of the records created
+ */
+public abstract class ImportCsvUseCase<T> {
+
+    /**
+     * The logger of this class.
+     */
+    private static final Logger LOGGER = Logger.getLogger(ImportCsvUseCase.class);
+
+    /**
+     * The number of chunks the reader thread may get ahead of the inserts.
+     */
+    private static final int QUEUE_CAPACITY = 4;
+
+    /**
+     * The minimum time between two progress reports, in nanoseconds.
+     */
+    private static final long PROGRESS_INTERVAL_NANOS = 1_000_000_000L;
+
+    /**
+     * The header of the error report, followed by the header of the file imported.
+     */
+    private static final String[] ERROR_REPORT_HEADER = {"linha", "motivo"};
+
+    /**
+     * Returns the columns the file must have, each with the names it may be given in the header, compared
+     * ignoring case, accents, spaces and underscores.
+     *
+     * @return the names of each column, in the order {@link #parse(String[])} receives the values
+     */
+    protected abstract String[][] getColumns();
+
+    /**
+     * Builds and validates a record from the values of its columns.
+     *
+     * @param values the values of the columns, stripped, in the order of {@link #getColumns()}, the array being
+     *               reused for the next record
+     * @return the record
+     * @throws ToastError if a value is invalid, its message being reported for the line
+     */
+    protected abstract T parse(String[] values) throws ToastError;
+
+    /**
+     * Returns what identifies a record, two records with the same key being duplicates.
+     *
+     * @param item the record
+     * @return the key
+     */
+    protected abstract String getKey(T item);
+
+    /**
+     * Leaves out the records already registered.
+     *
+     * @param items the records
+     * @return the same instances, for the records not registered yet, in order
+     * @throws ToastError if a database error occurs
+     */
+    protected abstract List<T> withoutExisting(List<T> items) throws ToastError;
+
+    /**
+     * Creates records.
+     *
+     * @param items the records, none of them registered yet
+     * @throws ToastError if a database error occurs
+     */
+    protected abstract void create(List<T> items) throws ToastError;
+
+    /**
+     * Executes the use case to import a file.
+     *
+     * @param source      the CSV file, in UTF-8
+     * @param errorReport the file to write the records rejected or skipped to, replaced if it exists
+     * @param progress    notified of the progress at most every second, and once more when finished
+     * @return the number of records read, created, rejected and skipped
+     * @throws ToastError if a file cannot be read or written, or a database error occurs, the chunks created
+     *                    before staying so
+     */
+    public ImportReport execute(Path source, Path errorReport, Consumer<ImportReport> progress) throws ToastError {
+        long start = System.nanoTime();
+        Counters counters = new Counters();
+        BlockingQueue<Chunk<T>> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        AtomicReference<ToastError> readFailure = new AtomicReference<>();
+
+        try (
+                CsvReader reader = new CsvReader(Files.newBufferedReader(source, StandardCharsets.UTF_8));
+                BufferedWriter errors = Files.newBufferedWriter(errorReport, StandardCharsets.UTF_8)
+        ) {
+            String[] header = reader.next();
+            if (header == null) {
+                throw new ToastError("O arquivo " + source + " está vazio.", "Erro ao importar");
+            }
+            int[] columnIndexes = this.mapColumns(header);
+            ErrorReport report = new ErrorReport(errors, reader.getSeparator());
+            report.writeHeader(header);
+
+            Thread producer = Thread.ofVirtual().name("csv-import-reader").start(() -> {
+                try {
+                    this.read(reader, columnIndexes, report, counters, queue);
+                } catch (ToastError exc) {
+                    readFailure.set(exc);
+                } catch (RuntimeException exc) {
+                    LOGGER.error(exc.toString());
+                    readFailure.set(new ToastError("Erro ao ler o arquivo: " + exc, "Erro ao importar"));
+                } catch (InterruptedException exc) {
+                    // The import failed and stopped taking chunks
+                    return;
+                }
+
+                try {
+                    queue.put(new Chunk<>(List.of(), true));
+                } catch (InterruptedException ignored) {
+                    // Nobody is left to take the last chunk
+                }
+            });
+
+            try {
+                this.consume(queue, report, counters, start, progress);
+            } finally {
+                // Stops the reader thread before the files it uses are closed, whatever ended the import; once
+                // the last chunk was taken it is already done
+                producer.interrupt();
+                try {
+                    producer.join();
+                } catch (InterruptedException ignored) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            if (readFailure.get() != null) {
+                throw readFailure.get();
+            }
+
+        } catch (IOException exc) {
+            LOGGER.error(exc.getMessage());
+            throw new ToastError("Não foi possível importar o arquivo " + source + ": " + exc.getMessage(), "Erro ao importar");
+        }
+
+        ImportReport report = counters.snapshot(start);
+        progress.accept(report);
+        return report;
+    }
+
+    /**
+     * Reads, parses and validates the records of the file, handing the valid ones over in chunks. Runs on the
+     * reader thread.
+     *
+     * @param reader        the file, past its header
+     * @param columnIndexes the index in the records of each column
+     * @param report        the error report
+     * @param counters      the counters of the import
+     * @param queue         the queue to hand the chunks over
+     * @throws ToastError           if the file cannot be read
+     * @throws InterruptedException if the import failed while waiting for room in the queue
+     */
+    private void read(
+            CsvReader reader,
+            int[] columnIndexes,
+            ErrorReport report,
+            Counters counters,
+            BlockingQueue<Chunk<T>> queue
+    ) throws ToastError, InterruptedException {
+        ArrayList<Row<T>> rows = new ArrayList<>(DataBase.BATCH_SIZE);
+        String[] values = new String[columnIndexes.length];
+
+        try {
+            String[] fields;
+            while ((fields = reader.next()) != null) {
+                counters.read.incrementAndGet();
+
+                for (int i = 0; i < columnIndexes.length; i++) {
+                    values[i] = columnIndexes[i] < fields.length ? fields[columnIndexes[i]].strip() : "";
+                }
+
+                try {
+                    rows.add(new Row<>(reader.getRecordLine(), fields, this.parse(values)));
+                } catch (ToastError exc) {
+                    counters.rejected.incrementAndGet();
+                    report.write(reader.getRecordLine(), exc.message, fields);
+                    continue;
+                }
+
+                if (rows.size() == DataBase.BATCH_SIZE) {
+                    queue.put(new Chunk<>(rows, false));
+                    rows = new ArrayList<>(DataBase.BATCH_SIZE);
+                }
+            }
+        } catch (IOException exc) {
+            throw new ToastError(
+                    "Erro ao ler o arquivo na linha " + reader.getRecordLine() + ": " + exc.getMessage(),
+                    "Erro ao importar"
+            );
+        }
+
+        if (!rows.isEmpty()) {
+            queue.put(new Chunk<>(rows, false));
+        }
+    }
+
+    /**
+     * Takes the chunks of valid records and creates the ones not registered yet, until the last chunk.
+     *
+     * @param queue    the queue the chunks are handed over
+     * @param report   the error report
+     * @param counters the counters of the import
+     * @param start    the moment the import started, from {@link System#nanoTime()}
+     * @param progress notified of the progress
+     * @throws ToastError if a database error occurs or the import is interrupted
+     */
+    private void consume(
+            BlockingQueue<Chunk<T>> queue,
+            ErrorReport report,
+            Counters counters,
+            long start,
+            Consumer<ImportReport> progress
+    ) throws ToastError {
+        long lastProgress = System.nanoTime();
+
+        while (true) {
+            Chunk<T> chunk;
+            try {
+                chunk = queue.take();
+            } catch (InterruptedException exc) {
+                Thread.currentThread().interrupt();
+                throw new ToastError("A importação foi interrompida.", "Erro ao importar");
+            }
+            if (chunk.last()) {
+                return;
+            }
+
+            this.createChunk(chunk.rows(), report, counters);
+
+            if (System.nanoTime() - lastProgress >= PROGRESS_INTERVAL_NANOS) {
+                lastProgress = System.nanoTime();
+                progress.accept(counters.snapshot(start));
+            }
+        }
+    }
+
+    /**
+     * Creates the records of a chunk that are not registered yet, nor repeated earlier in the chunk, in a
+     * single transaction.
+     *
+     * @param rows     the valid records of the chunk
+     * @param report   the error report
+     * @param counters the counters of the import
+     * @throws ToastError if a database error occurs
+     */
+    private void createChunk(List<Row<T>> rows, ErrorReport report, Counters counters) throws ToastError {
+        LinkedHashMap<String, Row<T>> unique = new LinkedHashMap<>();
+        for (Row<T> row : rows) {
+            if (unique.putIfAbsent(this.getKey(row.item()), row) != null) {
+                counters.duplicates.incrementAndGet();
+                report.write(row.line(), "Registro repetido no arquivo.", row.fields());
+            }
+        }
+
+        ArrayList<T> items = new ArrayList<>(unique.size());
+        for (Row<T> row : unique.values()) {
+            items.add(row.item());
+        }
+
+        try (UnitOfWork unit = UnitOfWork.begin()) {
+            List<T> missing = this.withoutExisting(items);
+
+            if (missing.size() < items.size()) {
+                // Both lists keep the order of the chunk, so the existing records are the ones not matched
+                int next = 0;
+                for (Row<T> row : unique.values()) {
+                    if (next < missing.size() && missing.get(next) == row.item()) {
+                        next++;
+                    } else {
+                        counters.duplicates.incrementAndGet();
+                        report.write(row.line(), "Registro já cadastrado.", row.fields());
+                    }
+                }
+            }
+
+            if (!missing.isEmpty()) {
+                this.create(missing);
+            }
+            unit.commit();
+            counters.imported.addAndGet(missing.size());
+        }
+    }
+
+    /**
+     * Finds the index of each required column in the header.
+     *
+     * @param header the header of the file
+     * @return the index of each column, in the order of {@link #getColumns()}
+     * @throws ToastError if a column is missing
+     */
+    private int[] mapColumns(String[] header) throws ToastError {
+        String[][] columns = this.getColumns();
+        int[] indexes = new int[columns.length];
+
+        for (int i = 0; i < columns.length; i++) {
+            indexes[i] = -1;
+            for (int field = 0; field < header.length && indexes[i] < 0; field++) {
+                String name = normalizeColumnName(header[field]);
+                for (String alias : columns[i]) {
+                    if (normalizeColumnName(alias).equals(name)) {
+                        indexes[i] = field;
+                        break;
+                    }
+                }
+            }
+
+            if (indexes[i] < 0) {
+                throw new ToastError(
+                        "Coluna obrigatória ausente no cabeçalho do arquivo: " + String.join(" ou ", columns[i]),
+                        "Erro ao importar"
+                );
+            }
+        }
+        return indexes;
+    }
+
+    /**
+     * Normalizes a column name for comparison.
+     *
+     * @param name the column name
+     * @return the name in lower case, without accents nor anything but letters and digits
+     */
+    private static String normalizeColumnName(String name) {
+        return Normalizer.normalize(name, Normalizer.Form.NFD)
+                .replaceAll("[^\\p{Alnum}]", "")
+                .toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * A valid record of the file.
+     *
+     * @param line   the line the record starts at
+     * @param fields the fields of the record, as read
+     * @param item   the record built from them
+     * @param <T>    the type of the record
+     */
+    private record Row<T>(long line, String[] fields, T item) {
+    }
+
+    /**
+     * Valid records handed from the reader thread to the inserting one.
+     *
+     * @param rows the records
+     * @param last whether the file was read to the end, the chunk then being empty
+     * @param <T>  the type of the records
+     */
+    private record Chunk<T>(List<Row<T>> rows, boolean last) {
+    }
+
+    /**
+     * The counters of an import, updated by both threads.
+     */
+    private static class Counters {
+
+        /**
+         * The number of records read.
+         */
+        private final AtomicLong read = new AtomicLong();
+
+        /**
+         * The number of records created.
+         */
+        private final AtomicLong imported = new AtomicLong();
+
+        /**
+         * The number of records rejected.
+         */
+        private final AtomicLong rejected = new AtomicLong();
+
+        /**
+         * The number of records skipped.
+         */
+        private final AtomicLong duplicates = new AtomicLong();
+
+        /**
+         * Returns the current values of the counters.
+         *
+         * @param start the moment the import started, from {@link System#nanoTime()}
+         * @return the report
+         */
+        private ImportReport snapshot(long start) {
+            return new ImportReport(
+                    this.read.get(),
+                    this.imported.get(),
+                    this.rejected.get(),
+                    this.duplicates.get(),
+                    System.nanoTime() - start
+            );
+        }
+    }
+
+    /**
+     * The file the records rejected or skipped are written to, by both threads.
+     */
+    private static class ErrorReport {
+
+        /**
+         * The file, written with the field separator of the file imported.
+         */
+        private final CsvWriter writer;
+
+        /**
+         * Creates a new error report.
+         *
+         * @param writer    the file
+         * @param separator the field separator
+         */
+        private ErrorReport(BufferedWriter writer, char separator) {
+            this.writer = new CsvWriter(writer, separator);
+        }
+
+        /**
+         * Writes the header of the report.
+         *
+         * @param header the header of the file imported
+         * @throws IOException if the report cannot be written
+         */
+        private void writeHeader(String[] header) throws IOException {
+            String[] fields = Arrays.copyOf(ERROR_REPORT_HEADER, ERROR_REPORT_HEADER.length + header.length);
+            System.arraycopy(header, 0, fields, ERROR_REPORT_HEADER.length, header.length);
+            this.writer.writeRecord(fields);
+        }
+
+        /**
+         * Writes a record rejected or skipped.
+         *
+         * @param line   the line the record starts at
+         * @param reason why the record was not created
+         * @param fields the fields of the record, as read
+         * @throws ToastError if the report cannot be written
+         */
+        private synchronized void write(long line, String reason, String[] fields) throws ToastError {
+            String[] values = new String[fields.length + 2];
+            values[0] = Long.toString(line);
+            values[1] = reason;
+            System.arraycopy(fields, 0, values, 2, fields.length);
+
+            try {
+                this.writer.writeRecord(values);
+            } catch (IOException exc) {
+                throw new ToastError("Não foi possível escrever o relatório de erros: " + exc.getMessage(), "Erro ao importar");
+            }
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package tool.rental.domain.use_cases;
+
+import tool.rental.domain.dao.NewFriend;
+import tool.rental.domain.repositories.FriendRepository;
+import tool.rental.utils.ToastError;
+
+import java.util.List;
+
+/**
+ * This class represents a use case for importing a borrower list from a CSV file into the logged user's friends.
+ * <p>
+ * The file has a name, a phone and a social security column, named as in the database or as in the friend
+ * table.
+ */
+public class ImportFriendsUseCase extends ImportCsvUseCase<NewFriend> {
+    private final FriendRepository friendRepository = new FriendRepository(); // Repository for friends
+    private final RegisterFriendUseCase registerFriendUseCase = new RegisterFriendUseCase(); // Validates the friends
+
+    @Override
+    protected String[][] getColumns() {
+        return new String[][]{
+                {"name", "nome"},
+                {"phone", "telefone"},
+                {"social_security", "identidade"}
+        };
+    }
+
+    @Override
+    protected NewFriend parse(String[] values) throws ToastError {
+        this.registerFriendUseCase.validate(values[0], values[1], values[2]);
+        return new NewFriend(values[0], values[1], values[2]);
+    }
+
+    @Override
+    protected String getKey(NewFriend friend) {
+        return friend.name() + '\0' + friend.socialSecurity();
+    }
+
+    @Override
+    protected List<NewFriend> withoutExisting(List<NewFriend> friends) throws ToastError {
+        return this.friendRepository.withoutExisting(friends);
+    }
+
+    @Override
+    protected void create(List<NewFriend> friends) throws ToastError {
+        this.friendRepository.createFriends(friends);
+    }
+}
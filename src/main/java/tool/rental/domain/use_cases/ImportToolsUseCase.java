@@ -0,0 +1,50 @@
+package tool.rental.domain.use_cases;
+
+import tool.rental.domain.dao.NewTool;
+import tool.rental.domain.repositories.ToolRepository;
+import tool.rental.utils.Money;
+import tool.rental.utils.ToastError;
+
+import java.util.List;
+
+/**
+ * This class represents a use case for importing a tool catalog from a CSV file into the logged user's tools.
+ * <p>
+ * The file has a brand, a name and a cost column, named as in the database or as in the tool table. Costs
+ * may use a decimal point or a decimal comma, with or without the currency symbol.
+ */
+public class ImportToolsUseCase extends ImportCsvUseCase<NewTool> {
+    private final ToolRepository toolRepository = new ToolRepository(); // Repository for tools
+    private final RegisterToolUseCase registerToolUseCase = new RegisterToolUseCase(); // Validates the tools
+
+    @Override
+    protected String[][] getColumns() {
+        return new String[][]{
+                {"brand", "marca"},
+                {"name", "nome"},
+                {"cost", "custo"}
+        };
+    }
+
+    @Override
+    protected NewTool parse(String[] values) throws ToastError {
+        Money cost = Money.parse(values[2]);
+        this.registerToolUseCase.validate(values[0], values[1], cost);
+        return new NewTool(values[0], values[1], cost);
+    }
+
+    @Override
+    protected String getKey(NewTool tool) {
+        return tool.name() + '\0' + tool.brand();
+    }
+
+    @Override
+    protected List<NewTool> withoutExisting(List<NewTool> tools) throws ToastError {
+        return this.toolRepository.withoutExisting(tools);
+    }
+
+    @Override
+    protected void create(List<NewTool> tools) throws ToastError {
+        this.toolRepository.createTools(tools);
+    }
+}
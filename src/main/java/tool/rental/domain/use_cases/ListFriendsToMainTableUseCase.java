@@ -1,6 +1,7 @@
 package tool.rental.domain.use_cases;
 
 import tool.rental.domain.entities.Friend;
+import tool.rental.domain.infra.db.ResultCursor;
 import tool.rental.domain.repositories.FriendRepository;
 import tool.rental.utils.ToastError;
 
@@ -20,24 +21,24 @@ public class ListFriendsToMainTableUseCase {
      * @throws ToastError if an error occurs during the execution.
      */
     public List<String[]> execute() throws ToastError {
-        ArrayList<Friend> friends = this.friendRepository.listAll(); // Retrieve all friends from the repository
-        ArrayList<String[]> resultArray = new ArrayList<>(friends.size()); // Initialize list to store formatted friend data
-
-        // Iterate through each friend to format their data for the main table
-        for (Friend friend : friends) {
-            // Create a String array representing the data of the friend
-            String[] row = {
-                    friend.getId(),
-                    friend.getName(),
-                    friend.getPhone(),
-                    friend.getSocialSecurity()
-            };
-            // Add the formatted row to the result array
-            resultArray.add(row);
+        ArrayList<String[]> resultArray = new ArrayList<>(); // Initialize list to store formatted friend data
+
+        // Format each friend as it is read from the repository, so that the friends are never all held at once
+        try (ResultCursor<Friend> friends = this.friendRepository.openAll()) {
+            Friend friend;
+            while ((friend = friends.read()) != null) {
+                // Create a String array representing the data of the friend
+                String[] row = {
+                        friend.getId(),
+                        friend.getName(),
+                        friend.getPhone(),
+                        friend.getSocialSecurity()
+                };
+                // Add the formatted row to the result array
+                resultArray.add(row);
+            }
         }
 
-        resultArray.trimToSize(); // Trim the result array to conserve memory
-
         return resultArray; // Return the list of formatted friend data
     }
 
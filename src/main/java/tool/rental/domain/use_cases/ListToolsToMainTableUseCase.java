@@ -1,16 +1,15 @@
 package tool.rental.domain.use_cases;
 
+import tool.rental.domain.dao.ToolPageKey;
 import tool.rental.domain.entities.Friend;
 import tool.rental.domain.entities.Rental;
 import tool.rental.domain.entities.Tool;
 import tool.rental.domain.repositories.ToolRepository;
+import tool.rental.utils.Page;
+import tool.rental.utils.PageSource;
 import tool.rental.utils.ToastError;
 
 import java.util.ArrayList;
-import java.util.List;
-
-import java.util.ArrayList;
-import java.util.List;
 
 /**
  * This class represents a use case for listing tools for display in the main table.
@@ -19,45 +18,101 @@ public class ListToolsToMainTableUseCase {
     private final ToolRepository toolRepository = new ToolRepository(); // Repository for tools
 
     /**
-     * Executes the use case to retrieve a list of tools formatted for display in the main table.
+     * Creates a source reading the main table rows page by page, ordered by tool name, for a lazily loaded table.
      *
      * @param rentedOnly Flag indicating whether to include only rented tools.
-     * @return A list of String arrays representing tool data for each row in the main table.
-     * @throws ToastError if an error occurs during the execution.
+     * @return the page source
      */
-    public List<String[]> execute(boolean rentedOnly) throws ToastError {
-        // Retrieve all tools from the repository based on the rentedOnly flag
-        ArrayList<Tool> tools = this.toolRepository.listAll(rentedOnly);
-        ArrayList<String[]> resultArray = new ArrayList<>(tools.size()); // Initialize list to store formatted tool data
-
-        // Iterate through each tool to format its data for the main table
-        for (Tool tool : tools) {
-            Rental latestRental = tool.getCurrentRental(); // Get the latest rental of the tool
-            String loanTo = "";
-            String loanSince = "";
-            // If the tool is currently rented, get information about the rental
-            if (latestRental != null) {
-                Friend friend = latestRental.getFriend(); // Get the friend to whom the tool is loaned
-                loanTo = String.format("%s - %s", friend.getName(), friend.getSocialSecurity()); // Format loaned to information
-                loanSince = String.valueOf(latestRental.getFormattedRentalDate()); // Get formatted loaned since date
+    public PageSource<ToolPageKey> pageSource(boolean rentedOnly) {
+        return new PageSource<>() {
+            @Override
+            public Page<ToolPageKey> load(ToolPageKey after, int limit) throws ToastError {
+                ArrayList<Tool> tools = toolRepository.listPage(rentedOnly, after, limit);
+                ArrayList<Object[]> rows = new ArrayList<>(tools.size());
+                for (Tool tool : tools) {
+                    rows.add(toRow(tool));
+                }
+
+                Tool last = tools.isEmpty() ? null : tools.get(tools.size() - 1);
+                return new Page<>(rows, last == null ? null : new ToolPageKey(last.getName(), last.getId()));
             }
 
-            // Create a String array representing the data of the tool
-            String[] row = {
-                    tool.getId(), // Tool ID
-                    tool.getBrand(), // Tool brand
-                    tool.getName(), // Tool name
-                    String.format("R$ %,.2f", tool.getCost()), // Tool cost formatted as currency string
-                    loanTo, // Tool loaned to information
-                    loanSince // Tool loaned since information
-            };
-            // Add the formatted row to the result array
-            resultArray.add(row);
-        }
+            @Override
+            public ToolPageKey skip(ToolPageKey after, int count) throws ToastError {
+                return toolRepository.skipPage(rentedOnly, after, count);
+            }
+        };
+    }
 
-        resultArray.trimToSize(); // Trim the result array to conserve memory
+    /**
+     * Counts the tools matching a search, for the row count of the table showing them.
+     *
+     * @param text       the text typed by the user
+     * @param rentedOnly Flag indicating whether to include only rented tools.
+     * @return the number of matching tools
+     * @throws ToastError if an error occurs while searching the tools
+     */
+    public int countSearch(String text, boolean rentedOnly) throws ToastError {
+        return this.toolRepository.countSearch(text, rentedOnly);
+    }
 
-        return resultArray; // Return the list of formatted tool data
+    /**
+     * Creates a source reading the main table rows of the tools matching a search page by page, best
+     * matches first, for a lazily loaded table. Ranked matches have no key to resume from, so a page is
+     * keyed by the number of matches before it.
+     *
+     * @param text       the text typed by the user
+     * @param rentedOnly Flag indicating whether to include only rented tools.
+     * @return the page source
+     */
+    public PageSource<Integer> searchPageSource(String text, boolean rentedOnly) {
+        return new PageSource<>() {
+            @Override
+            public Page<Integer> load(Integer after, int limit) throws ToastError {
+                int offset = after == null ? 0 : after;
+                ArrayList<Tool> tools = toolRepository.search(text, rentedOnly, offset, limit);
+                ArrayList<Object[]> rows = new ArrayList<>(tools.size());
+                for (Tool tool : tools) {
+                    rows.add(toRow(tool));
+                }
+
+                return new Page<>(rows, tools.isEmpty() ? null : offset + tools.size());
+            }
+
+            @Override
+            public Integer skip(Integer after, int count) {
+                // The offset of the next page is known without reading the matches
+                return (after == null ? 0 : after) + count;
+            }
+        };
     }
-}
 
+    /**
+     * Turns a tool into a main table row. Cost, friend and date are left unformatted, for the renderers of the
+     * table to format only the rows displayed.
+     *
+     * @param tool the tool
+     * @return the row: id, brand, name, cost as Money, the Friend it is loaned to and the timestamp it is
+     * loaned since as a Long, both null if the tool is not loaned
+     */
+    private Object[] toRow(Tool tool) {
+        Rental latestRental = tool.getCurrentRental(); // Get the latest rental of the tool
+        Friend loanTo = null;
+        Long loanSince = null;
+        // If the tool is currently rented, get information about the rental
+        if (latestRental != null) {
+            loanTo = latestRental.getFriend(); // Get the friend to whom the tool is loaned
+            loanSince = latestRental.getRentalTimestamp(); // Get the loaned since timestamp
+        }
+
+        // Create an array representing the data of the tool
+        return new Object[]{
+                tool.getId(), // Tool ID
+                tool.getBrand(), // Tool brand
+                tool.getName(), // Tool name
+                tool.getCost(), // Tool cost
+                loanTo, // Tool loaned to information
+                loanSince // Tool loaned since information
+        };
+    }
+}
@@ -0,0 +1,24 @@
+package tool.rental.domain.use_cases;
+
+import tool.rental.domain.repositories.FriendRepository;
+import tool.rental.domain.repositories.ToolRepository;
+import tool.rental.utils.ToastError;
+
+/**
+ * This class represents a use case for indexing every tool and friend again for full-text search, repairing
+ * the TOOL_FTS and FRIEND_FTS indexes when they no longer match their tables.
+ */
+public class RebuildSearchIndexUseCase {
+    private final ToolRepository toolRepository = new ToolRepository(); // Repository for tools
+    private final FriendRepository friendRepository = new FriendRepository(); // Repository for friends
+
+    /**
+     * Executes the use case to rebuild the indexes.
+     *
+     * @throws ToastError if an error occurs during the execution.
+     */
+    public void execute() throws ToastError {
+        this.toolRepository.rebuildSearchIndex();
+        this.friendRepository.rebuildSearchIndex();
+    }
+}
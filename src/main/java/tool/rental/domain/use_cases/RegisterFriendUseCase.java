@@ -1,5 +1,6 @@
 package tool.rental.domain.use_cases;
 
+import tool.rental.domain.infra.db.UnitOfWork;
 import tool.rental.domain.repositories.FriendRepository;
 import tool.rental.utils.ToastError;
 
@@ -19,6 +20,32 @@ public class RegisterFriendUseCase {
      */
     public void execute(String name, String phone, String social_security) throws ToastError {
         // Validate inputs
+        this.validate(name, phone, social_security);
+
+        try (UnitOfWork unit = UnitOfWork.begin()) {
+            // Check if a friend with the same name and social security already exists
+            if (friendRepository.existsByNameAndSocial_Security(name, social_security)) {
+                throw new ToastError(
+                        "Já existe uma pessoa cadastrada com este nome e identidade",
+                        "Ferramenta já existe"
+                );
+            }
+
+            // Create the friend in the repository
+            this.friendRepository.createFriend(name, phone, social_security);
+            unit.commit();
+        }
+    }
+
+    /**
+     * Checks the fields of a friend to be registered, which is also done for each friend imported from a file.
+     *
+     * @param name            The name of the friend.
+     * @param phone           The phone number of the friend.
+     * @param social_security The social security number of the friend.
+     * @throws ToastError if a field is invalid.
+     */
+    public void validate(String name, String phone, String social_security) throws ToastError {
         if (name == null || name.isEmpty()) {
             throw new ToastError("Nome não pode ser nulo", "Campo não pode ser nulo");
         }
@@ -28,17 +55,5 @@ public class RegisterFriendUseCase {
         if (social_security == null || social_security.isEmpty()) {
             throw new ToastError("Identidade não pode ser nulo", "Campo não pode ser nulo");
         }
-
-        // Check if a friend with the same name and social security already exists
-        if (friendRepository.existsByNameAndSocial_Security(name, social_security)) {
-            throw new ToastError(
-                    "Já existe uma pessoa cadastrada com este nome e identidade",
-                    "Ferramenta já existe"
-            );
-        }
-
-        // Create the friend in the repository
-        this.friendRepository.createFriend(name, phone, social_security);
     }
 }
-
@@ -1,6 +1,8 @@
 package tool.rental.domain.use_cases;
 
+import tool.rental.domain.infra.db.UnitOfWork;
 import tool.rental.domain.repositories.ToolRepository;
+import tool.rental.utils.Money;
 import tool.rental.utils.ToastError;
 
 /**
@@ -21,24 +23,39 @@ public class RegisterToolUseCase {
      * @param cost the cost of the tool
      * @throws ToastError if an error occurs while registering the tool
      */
-    public void execute(String brand, String name, double cost) throws ToastError {
+    public void execute(String brand, String name, Money cost) throws ToastError {
+        this.validate(brand, name, cost);
+
+        try (UnitOfWork unit = UnitOfWork.begin()) {
+            if (toolRepository.existsByNameAndBrand(name, brand)) {
+                throw new ToastError(
+                        "Já existe uma ferramenta cadastrada com esta marca e nome",
+                        "Ferramenta já existe"
+                );
+            }
+
+            this.toolRepository.createTool(brand, name, cost);
+            unit.commit();
+        }
+    }
+
+    /**
+     * Checks the fields of a tool to be registered, which is also done for each tool imported from a file.
+     *
+     * @param brand the brand of the tool
+     * @param name the name of the tool
+     * @param cost the cost of the tool
+     * @throws ToastError if a field is invalid
+     */
+    public void validate(String brand, String name, Money cost) throws ToastError {
         if (brand == null || brand.isEmpty()) {
             throw new ToastError("Nome da marca da ferramenta não pode ser nulo", "Campo não pode ser nulo");
         }
         if (name == null || name.isEmpty()) {
             throw new ToastError("Nome ferramenta não pode ser nulo", "Campo não pode ser nulo");
         }
-        if (cost == 0.0) {
+        if (cost.cents() == 0) {
             throw new ToastError("Preço da ferramenta não pode ser zero", "Campo não pode ser zero");
         }
-
-        if (toolRepository.existsByNameAndBrand(name, brand)) {
-            throw new ToastError(
-                    "Já existe uma ferramenta cadastrada com esta marca e nome",
-                    "Ferramenta já existe"
-            );
-        }
-
-        this.toolRepository.createTool(brand, name, cost);
     }
 }
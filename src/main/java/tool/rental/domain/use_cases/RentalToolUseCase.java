@@ -1,7 +1,9 @@
 package tool.rental.domain.use_cases;
 
+import tool.rental.domain.dao.RentalOutcome;
 import tool.rental.domain.entities.Friend;
 import tool.rental.domain.entities.Tool;
+import tool.rental.domain.infra.db.UnitOfWork;
 import tool.rental.domain.repositories.RentalRepository;
 import tool.rental.domain.repositories.ToolRepository;
 import tool.rental.utils.ToastError;
@@ -23,13 +25,27 @@ public class RentalToolUseCase {
      *
      * @param friend The friend to whom the tool will be rented.
      * @param tool   The tool to be rented.
-     * @throws ToastError if an error occurs during the execution.
+     * @throws ToastError if the tool is already rented or an error occurs during the execution.
      */
     public void execute(Friend friend, Tool tool) throws ToastError {
         long currentStamp = System.currentTimeMillis(); // Get the current timestamp
 
-        // Check if the friend already has any tool rented
-        if (toolRepository.isAnyToolRentedByFriend(friend)) {
+        boolean friendHasTools;
+        // The dialogs wait for the user, so they are only shown once the transaction ended
+        try (UnitOfWork unit = UnitOfWork.begin()) {
+            // Check if the friend already has any tool rented, before the new rental counts as one
+            friendHasTools = toolRepository.isAnyToolRentedByFriend(friend);
+
+            // Create a new rental record for the tool and the friend, unless the tool was rented in the meantime
+            if (this.rentalRepository.create(currentStamp, friend, tool) == RentalOutcome.ALREADY_RENTED) {
+                throw new ToastError(
+                        "A ferramenta não pode ser emprestada para mais de um amigo!",
+                        "Ferramenta já emprestada");
+            }
+            unit.commit();
+        }
+
+        if (friendHasTools) {
             // Display a message informing that the selected friend already has tools borrowed
             JOptionPane.showMessageDialog(
                     null,
@@ -42,9 +58,5 @@ public class RentalToolUseCase {
                 null,
                 "Ferramenta emprestada com sucesso!"
         );
-
-        // Create a new rental record for the tool and the friend in the repository
-        this.rentalRepository.create(currentStamp, friend, tool);
     }
 }
-
@@ -1,6 +1,7 @@
 package tool.rental.domain.use_cases;
 
 import tool.rental.domain.entities.User;
+import tool.rental.domain.infra.db.UnitOfWork;
 import tool.rental.domain.repositories.FriendRepository;
 import tool.rental.utils.ToastError;
 
@@ -35,13 +36,16 @@ public class UpdateFriendUseCase {
         if (!social_security.matches("\\d{11}")) {
             throw new ToastError("Só podem ser informados números com 11 caracteres", "Campo deve ter apenas números de 11 caracteres");
         }
-        // Check if a friend with the same name and social security already exists
-        boolean exists = this.friendRepository.existsByNameAndSocial_Security(name, social_security);
-        if (exists) {
-            throw new ToastError("Amigo já existe com essa identidade.", "Amigo já cadastrado.");
-        }
+        try (UnitOfWork unit = UnitOfWork.begin()) {
+            // Check if a friend with the same name and social security already exists
+            boolean exists = this.friendRepository.existsByNameAndSocial_Security(name, social_security);
+            if (exists) {
+                throw new ToastError("Amigo já existe com essa identidade.", "Amigo já cadastrado.");
+            }
 
-        // Update friend information in the repository
-        this.friendRepository.updateFriend(id, name, phone, social_security, user);
+            // Update friend information in the repository
+            this.friendRepository.updateFriend(id, name, phone, social_security, user);
+            unit.commit();
+        }
     }
 }
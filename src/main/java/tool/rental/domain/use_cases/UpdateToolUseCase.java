@@ -1,7 +1,9 @@
 package tool.rental.domain.use_cases;
 
 import tool.rental.domain.entities.Tool;
+import tool.rental.domain.infra.db.UnitOfWork;
 import tool.rental.domain.repositories.ToolRepository;
+import tool.rental.utils.Money;
 import tool.rental.utils.ToastError;
 
 /**
@@ -19,7 +21,7 @@ public class UpdateToolUseCase {
      * @param cost  The new cost of the tool.
      * @throws ToastError if an error occurs during the execution or if input validation fails.
      */
-    public void execute(Tool tool, String brand, String name, double cost) throws ToastError {
+    public void execute(Tool tool, String brand, String name, Money cost) throws ToastError {
         // Validate inputs
         if (brand == null || brand.isEmpty()) {
             throw new ToastError("Marca da ferramenta não pode ser nula.", "Campo não pode ser nulo");
@@ -27,19 +29,22 @@ public class UpdateToolUseCase {
         if (name == null || name.isEmpty()) {
             throw new ToastError("Nome da ferramenta não pode ser nulo.", "Campo não pode ser nulo");
         }
-        if (cost <= 0.00) {
+        if (!cost.isPositive()) {
             throw new ToastError("Preço da ferramenta não pode ser zero ou valor negativo.", "Campo não pode ser zero ou valor negativo");
         }
-        // Check if a tool with the same name and brand already exists
-        if (toolRepository.existsByNameAndBrand(name, brand)) {
-            throw new ToastError(
-                    "Já existe uma ferramenta cadastrada com essa marca e nome.",
-                    "Ferramenta já existe"
-            );
-        }
+        try (UnitOfWork unit = UnitOfWork.begin()) {
+            // Check if a tool with the same name and brand already exists
+            if (toolRepository.existsByNameAndBrand(name, brand)) {
+                throw new ToastError(
+                        "Já existe uma ferramenta cadastrada com essa marca e nome.",
+                        "Ferramenta já existe"
+                );
+            }
 
-        // Update tool information in the repository
-        this.toolRepository.updateTool(tool, brand, name, cost);
+            // Update tool information in the repository
+            this.toolRepository.updateTool(tool, brand, name, cost);
+            unit.commit();
+        }
     }
 }
 
@@ -4,7 +4,12 @@ import com.intellij.uiDesigner.core.GridConstraints;
 import com.intellij.uiDesigner.core.GridLayoutManager;
 import tool.rental.app.Settings;
 import tool.rental.domain.controllers.AppMainController;
+import tool.rental.domain.dao.ToolPageKey;
 import tool.rental.domain.dto.CalculateSummaryDTO;
+import tool.rental.domain.entities.Friend;
+import tool.rental.utils.DateFormats;
+import tool.rental.utils.FormattedCellRenderer;
+import tool.rental.utils.LazyTableModel;
 import tool.rental.utils.PresentationFrame;
 import tool.rental.utils.TableConfigurator;
 import tool.rental.utils.ToastError;
@@ -18,10 +23,14 @@ import javax.swing.JLabel;
 import javax.swing.JPanel;
 import javax.swing.JScrollPane;
 import javax.swing.JTable;
+import javax.swing.JTextField;
+import javax.swing.Timer;
 import java.awt.Color;
 import java.awt.Cursor;
 import javax.swing.UIManager;
 import javax.swing.border.TitledBorder;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import javax.swing.plaf.FontUIResource;
 import javax.swing.text.StyleContext;
 import java.awt.Dimension;
@@ -31,7 +40,6 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.KeyAdapter;
 import java.awt.event.KeyEvent;
-import java.util.List;
 import java.util.Locale;
 
 /**
@@ -57,11 +65,36 @@ public class AppMainFrame extends PresentationFrame {
     private JLabel friendsCountLabel;
     private JLabel toolTotalAmountLabel;
     private JCheckBox rentalCB;
+    private JTextField searchField;
     private JButton deleteToolButton;
     private JButton rentalReportButton;
     private JButton updateToolButton;
     private final TableConfigurator tableConfigurator;
 
+    // Number of tools read at once, and number of such pages kept in memory, by the tools table
+    private static final int TOOLS_PAGE_SIZE = 200;
+    private static final int TOOLS_CACHED_PAGES = 10;
+
+    // Model of the tools table, reading only the pages being looked at
+    private final LazyTableModel<ToolPageKey> toolsTableModel = new LazyTableModel<>(
+            new String[]{"ID", "Marca", "Nome", "Custo", "Emprestada para", "Data de empréstimo"},
+            TOOLS_PAGE_SIZE,
+            TOOLS_CACHED_PAGES
+    );
+
+    // Model of the tools table while searching, reading the matches page by page, best matches first
+    private final LazyTableModel<Integer> foundToolsTableModel = new LazyTableModel<>(
+            new String[]{"ID", "Marca", "Nome", "Custo", "Emprestada para", "Data de empréstimo"},
+            TOOLS_PAGE_SIZE,
+            TOOLS_CACHED_PAGES
+    );
+
+    // Milliseconds to wait after the last keystroke in the search field before searching
+    private static final int SEARCH_DEBOUNCE_MILLIS = 300;
+
+    // Waits for the user to stop typing in the search field
+    private final Timer searchDebounce = new Timer(SEARCH_DEBOUNCE_MILLIS, event -> this.searchTools());
+
     /**
      * Constructs the main application frame and initializes components.
      *
@@ -91,13 +124,11 @@ public class AppMainFrame extends PresentationFrame {
     }
 
     /**
-     * Calculates and displays summary statistics.
+     * Displays summary statistics.
      *
-     * @throws ToastError if there is an error during the calculation
+     * @param summary the summary statistics
      */
-    private void calculateSummary() throws ToastError {
-        CalculateSummaryDTO summary = this.controller.calculateSummary();
-
+    private void showSummary(CalculateSummaryDTO summary) {
         this.toolCountLabel.setText("Ferramentas: " + summary.toolCount());
         this.loanToolCountLabel.setText("Ferramentas emprestadas: " + summary.rentalCount());
         this.friendsCountLabel.setText("Amigos: " + summary.friendCount());
@@ -106,26 +137,73 @@ public class AppMainFrame extends PresentationFrame {
 
     /**
      * Sets up the tools table with column headers and loads the initial data.
-     *
-     * @throws ToastError if there is an error during the setup or data loading
      */
-    private void setupTable() throws ToastError {
-        tableConfigurator.setup("ID", "Marca", "Nome", "Custo", "Emprestada para", "Data de empréstimo");
+    private void setupTable() {
+        this.showTools(this.toolsTableModel);
         this.loadData();
     }
 
     /**
-     * Loads data into the tools table and updates summary statistics.
+     * Shows the tools of the given model in the tools table, either every tool or the tools found by a
+     * search, unless it already does.
      *
-     * @throws ToastError if there is an error during data loading
+     * @param model the model of the tools table
+     */
+    private void showTools(LazyTableModel<?> model) {
+        if (toolsTable.getModel() == model) {
+            return;
+        }
+        tableConfigurator.setup(model, new int[]{0});
+
+        // Cells hold raw values, formatted only once displayed
+        tableConfigurator.setRenderer(3, FormattedCellRenderer.currency());
+        tableConfigurator.setRenderer(4, new FormattedCellRenderer<>(
+                Friend.class,
+                friend -> friend.getName() + " - " + friend.getSocialSecurity()
+        ));
+        tableConfigurator.setRenderer(5, FormattedCellRenderer.timestamp(DateFormats.DATE_PATTERN));
+    }
+
+    /**
+     * Updates summary statistics in the background, then reloads the tools table, whose rows are read page
+     * by page, also in the background, as they are displayed. The row count comes from the summary, so
+     * opening the screen costs the same however many tools there are.
      */
-    private void loadData() throws ToastError {
+    private void loadData() {
         boolean rentedOnly = this.rentalCB.isSelected();
-        List<String[]> toolRows = this.controller.listToolsAsTableRow(rentedOnly);
 
-        tableConfigurator.insertRows(toolRows, true);
+        this.runAsync("load", this.controller::calculateSummary, summary -> {
+            this.showSummary(summary);
+            if (!this.searchField.getText().isBlank()) {
+                this.searchTools();
+                return;
+            }
+
+            this.showTools(this.toolsTableModel);
+            this.toolsTableModel.reset(
+                    this.controller.toolsPageSource(rentedOnly),
+                    rentedOnly ? summary.rentalCount() : summary.toolCount()
+            );
+        });
+    }
+
+    /**
+     * Shows in the tools table the tools matching the text of the search field, through the full-text index
+     * of the tools, or every tool again once the field is cleared. The matches are counted in the
+     * background, then read page by page as they are displayed, like every tool.
+     */
+    private void searchTools() {
+        String text = this.searchField.getText();
+        if (text.isBlank()) {
+            this.loadData();
+            return;
+        }
+        boolean rentedOnly = this.rentalCB.isSelected();
 
-        this.calculateSummary();
+        this.runAsync("load", () -> this.controller.countToolsFound(text, rentedOnly), count -> {
+            this.showTools(this.foundToolsTableModel);
+            this.foundToolsTableModel.reset(this.controller.toolsFoundPageSource(text, rentedOnly), count);
+        });
     }
 
     /**
@@ -162,6 +240,25 @@ public class AppMainFrame extends PresentationFrame {
      * Sets up event listeners for UI components.
      */
     protected void setUpListeners() {
+        // DocumentListener for searchField, searching once the user stops typing
+        this.searchDebounce.setRepeats(false);
+        this.searchField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                searchDebounce.restart();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                searchDebounce.restart();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                searchDebounce.restart();
+            }
+        });
+
         // ActionListener for exitButton
         this.exitButton.addActionListener(new ActionListener() {
             @Override
@@ -178,16 +275,14 @@ public class AppMainFrame extends PresentationFrame {
         this.lendToolButton.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
-                String toolId = toolsTable.getValueAt(toolsTable.getSelectedRow(), 0).toString();
-                String toolName = toolsTable.getValueAt(toolsTable.getSelectedRow(), 2).toString();
+                int row = toolsTable.getSelectedRow();
+                if (!isToolLoaded(row)) {
+                    return;
+                }
+                String toolId = toolsTable.getValueAt(row, 0).toString();
+                String toolName = toolsTable.getValueAt(row, 2).toString();
                 try {
-                    controller.openRegisterRentalModal(toolId, toolName, () -> {
-                        try {
-                            loadData();
-                        } catch (ToastError exc) {
-                            exc.display();
-                        }
-                    });
+                    controller.openRegisterRentalModal(toolId, toolName, () -> loadData());
                 } catch (ToastError exc) {
                     exc.display();
                 }
@@ -212,11 +307,7 @@ public class AppMainFrame extends PresentationFrame {
             public void keyPressed(KeyEvent e) {
                 super.keyPressed(e);
                 if (e.getKeyCode() == KeyEvent.VK_F5) {
-                    try {
-                        loadData();
-                    } catch (ToastError ex) {
-                        ex.display();
-                    }
+                    loadData();
                 }
             }
         });
@@ -226,7 +317,7 @@ public class AppMainFrame extends PresentationFrame {
             @Override
             public void actionPerformed(ActionEvent e) {
                 int row = toolsTable.getSelectedRow();
-                if (row == -1) {
+                if (!isToolLoaded(row)) {
                     return;
                 }
                 String toolId = toolsTable.getModel().getValueAt(row, 0).toString();
@@ -243,11 +334,7 @@ public class AppMainFrame extends PresentationFrame {
         rentalCB.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
-                try {
-                    loadData();
-                } catch (ToastError exc) {
-                    exc.display();
-                }
+                loadData();
             }
         });
 
@@ -256,7 +343,7 @@ public class AppMainFrame extends PresentationFrame {
             @Override
             public void actionPerformed(ActionEvent e) {
                 int row = toolsTable.getSelectedRow();
-                if (row == -1) {
+                if (!isToolLoaded(row)) {
                     return;
                 }
                 String toolId = toolsTable.getModel().getValueAt(row, 0).toString();
@@ -274,18 +361,12 @@ public class AppMainFrame extends PresentationFrame {
             @Override
             public void actionPerformed(ActionEvent e) {
                 int row = toolsTable.getSelectedRow();
-                if (row == -1) {
+                if (!isToolLoaded(row)) {
                     return;
                 }
                 String toolId = toolsTable.getValueAt(row, 0).toString();
                 try {
-                    controller.openUpdateToolFrame(toolId, () -> {
-                        try {
-                            loadData();
-                        } catch (ToastError exc) {
-                            exc.display();
-                        }
-                    });
+                    controller.openUpdateToolFrame(toolId, () -> loadData());
                 } catch (ToastError exc) {
                     exc.display();
                 }
@@ -296,13 +377,7 @@ public class AppMainFrame extends PresentationFrame {
         this.registerToolButton.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
-                controller.openRegisterToolModal(() -> {
-                    try {
-                        loadData();
-                    } catch (ToastError exc) {
-                        exc.display();
-                    }
-                });
+                controller.openRegisterToolModal(() -> loadData());
             }
         });
 
@@ -319,6 +394,19 @@ public class AppMainFrame extends PresentationFrame {
         });
     }
 
+    /**
+     * Returns whether a row of the tools table was read, so that actions are not run on a row still loading,
+     * whose id is blank.
+     *
+     * @param row the row index, -1 if no row is selected
+     * @return true if a row is selected and its values are known
+     */
+    private boolean isToolLoaded(int row) {
+        return row != -1
+                && toolsTable.getModel() instanceof LazyTableModel<?> model
+                && model.isRowLoaded(toolsTable.convertRowIndexToModel(row));
+    }
+
     {
 // GUI initializer generated by IntelliJ IDEA GUI Designer
 // >>> IMPORTANT!! <<<
@@ -425,9 +513,25 @@ public class AppMainFrame extends PresentationFrame {
         toolsTable.setForeground(new Color(-15527649));
         toolsTable.setSelectionForeground(new Color(-4649));
         scrollPane1.setViewportView(toolsTable);
+        final JPanel panel4 = new JPanel();
+        panel4.setLayout(new GridLayoutManager(1, 3, new Insets(0, 0, 0, 0), -1, -1));
+        panel4.setBackground(new Color(-14539224));
+        mainPanel.add(panel4, new GridConstraints(0, 1, 1, 1, GridConstraints.ANCHOR_CENTER, GridConstraints.FILL_BOTH, GridConstraints.SIZEPOLICY_CAN_SHRINK | GridConstraints.SIZEPOLICY_CAN_GROW, GridConstraints.SIZEPOLICY_CAN_SHRINK | GridConstraints.SIZEPOLICY_CAN_GROW, null, null, null, 0, false));
+        final JLabel label1 = new JLabel();
+        Font label1Font = UIManager.getFont("Button.font");
+        if (label1Font != null) label1.setFont(label1Font);
+        label1.setForeground(new Color(-2097160));
+        label1.setText(" Pesquisar : ");
+        panel4.add(label1, new GridConstraints(0, 0, 1, 1, GridConstraints.ANCHOR_WEST, GridConstraints.FILL_NONE, GridConstraints.SIZEPOLICY_FIXED, GridConstraints.SIZEPOLICY_FIXED, null, null, null, 0, false));
+        searchField = new JTextField();
+        searchField.setBackground(new Color(-2097160));
+        Font searchFieldFont = UIManager.getFont("Button.font");
+        if (searchFieldFont != null) searchField.setFont(searchFieldFont);
+        searchField.setForeground(new Color(-14539224));
+        panel4.add(searchField, new GridConstraints(0, 1, 1, 1, GridConstraints.ANCHOR_WEST, GridConstraints.FILL_HORIZONTAL, GridConstraints.SIZEPOLICY_WANT_GROW, GridConstraints.SIZEPOLICY_FIXED, null, new Dimension(150, -1), null, 0, false));
         rentalCB = new JCheckBox();
         rentalCB.setText("Somente emprestadas");
-        mainPanel.add(rentalCB, new GridConstraints(0, 1, 1, 1, GridConstraints.ANCHOR_WEST, GridConstraints.FILL_NONE, GridConstraints.SIZEPOLICY_CAN_SHRINK | GridConstraints.SIZEPOLICY_CAN_GROW, GridConstraints.SIZEPOLICY_FIXED, null, null, null, 0, false));
+        panel4.add(rentalCB, new GridConstraints(0, 2, 1, 1, GridConstraints.ANCHOR_WEST, GridConstraints.FILL_NONE, GridConstraints.SIZEPOLICY_CAN_SHRINK | GridConstraints.SIZEPOLICY_CAN_GROW, GridConstraints.SIZEPOLICY_FIXED, null, null, null, 0, false));
     }
 
     /**
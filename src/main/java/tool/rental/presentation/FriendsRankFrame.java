@@ -13,7 +13,6 @@ import javax.swing.JScrollPane;
 import javax.swing.JTable;
 import java.awt.Color;
 import java.awt.Insets;
-import java.util.List;
 
 /**
  * Frame for displaying the ranking of friends based on their rental activity.
@@ -61,10 +60,8 @@ public class FriendsRankFrame extends PresentationFrame {
 
     /**
      * Sets up the friends table with column headers and loads the initial data.
-     *
-     * @throws ToastError if there is an error during the setup or data loading
      */
-    public void setupTable() throws ToastError {
+    public void setupTable() {
         String[] columns = {
                 "Posição",
                 "Nome",
@@ -77,13 +74,10 @@ public class FriendsRankFrame extends PresentationFrame {
     }
 
     /**
-     * Loads data into the friends table.
-     *
-     * @throws ToastError if there is an error during data loading
+     * Loads data into the friends table in the background.
      */
-    private void loadData() throws ToastError {
-        List<String[]> summary = this.controller.getRentalSummary();
-        tableConfigurator.insertRows(summary, true);
+    private void loadData() {
+        this.runAsync("load", this.controller::getRentalSummary, summary -> tableConfigurator.insertRows(summary, true));
     }
 
     {
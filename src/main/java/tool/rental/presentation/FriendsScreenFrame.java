@@ -10,15 +10,11 @@ import tool.rental.utils.TableConfigurator;
 import tool.rental.utils.ToastError;
 
 import javax.swing.*;
-import javax.swing.event.DocumentEvent;
-import javax.swing.event.DocumentListener;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.KeyAdapter;
 import java.awt.event.KeyEvent;
-import java.util.List;
 
 /**
  * Frame for displaying and managing friends in the tool rental system.
@@ -96,41 +92,6 @@ public class FriendsScreenFrame extends PresentationFrame {
             }
         });
 
-        // Name filter key listener for filtering table based on input
-        nameFilter.addKeyListener(new KeyAdapter() {
-            @Override
-            public void keyReleased(KeyEvent e) {
-                super.keyReleased(e);
-                if (nameFilter.getText().isEmpty()) {
-                    DefaultTableModel model = (DefaultTableModel) friendsTable.getModel();
-                    model.setRowCount(0);
-                    try {
-                        loadData();
-                    } catch (ToastError ex) {
-                        ex.display();
-                    }
-                }
-            }
-        });
-
-        // Document listener for filtering table based on input
-        nameFilter.getDocument().addDocumentListener(new DocumentListener() {
-            @Override
-            public void insertUpdate(DocumentEvent e) {
-                filterTable();
-            }
-
-            @Override
-            public void removeUpdate(DocumentEvent e) {
-                filterTable();
-            }
-
-            @Override
-            public void changedUpdate(DocumentEvent e) {
-                filterTable();
-            }
-        });
-
         // Delete button action listener
         deleteButton.addActionListener(new ActionListener() {
             @Override
@@ -139,7 +100,7 @@ public class FriendsScreenFrame extends PresentationFrame {
                 if (row == -1) {
                     return;
                 }
-                String friendId = friendsTable.getModel().getValueAt(row, 0).toString();
+                String friendId = friendsTable.getModel().getValueAt(friendsTable.convertRowIndexToModel(row), 0).toString();
                 try {
                     deleteFriendController.deleteFriend(friendId);
                     loadData();
@@ -155,11 +116,7 @@ public class FriendsScreenFrame extends PresentationFrame {
             public void keyPressed(KeyEvent e) {
                 super.keyPressed(e);
                 if (e.getKeyCode() == KeyEvent.VK_F5) {
-                    try {
-                        loadData();
-                    } catch (ToastError ex) {
-                        ex.display();
-                    }
+                    loadData();
                 }
             }
         });
@@ -168,13 +125,7 @@ public class FriendsScreenFrame extends PresentationFrame {
         registerFriendButton.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
-                controller.openRegisterFriendModal(() -> {
-                    try {
-                        loadData();
-                    } catch (ToastError exc) {
-                        exc.display();
-                    }
-                });
+                controller.openRegisterFriendModal(() -> loadData());
             }
         });
     }
@@ -209,38 +160,19 @@ public class FriendsScreenFrame extends PresentationFrame {
     }
 
     /**
-     * Sets up the friends table with column headers and loads the initial data.
-     *
-     * @throws ToastError if there is an error during the setup or data loading
+     * Sets up the friends table with column headers and the name filter, and loads the initial data.
      */
-    public void setupTable() throws ToastError {
+    public void setupTable() {
         tableConfigurator.setup("Id", "Nome", "Telefone", "Identidade");
+        tableConfigurator.setupFilter(nameFilter, 1, 3);
         this.loadData();
     }
 
     /**
-     * Loads data into the friends table.
-     *
-     * @throws ToastError if there is an error during data loading
-     */
-    private void loadData() throws ToastError {
-        List<String[]> friendsRows = this.controller.listFriendAsTableRow();
-        tableConfigurator.insertRows(friendsRows, true);
-    }
-
-    /**
-     * Filters the friends table based on the input text in the name filter.
+     * Loads data into the friends table in the background. A newer load supersedes one still running.
      */
-    private void filterTable() {
-        String filterText = nameFilter.getText().toLowerCase();
-        DefaultTableModel model = (DefaultTableModel) friendsTable.getModel();
-
-        for (int i = model.getRowCount() - 1; i >= 0; i--) {
-            String name = (String) model.getValueAt(i, 1);
-            if (!name.toLowerCase().contains(filterText)) {
-                model.removeRow(i);
-            }
-        }
+    private void loadData() {
+        this.runAsync("load", this.controller::listFriendAsTableRow, tableConfigurator::updateRows);
     }
 
     {
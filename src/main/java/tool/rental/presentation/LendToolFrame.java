@@ -12,17 +12,11 @@ import tool.rental.utils.ToastError;
 
 import javax.swing.*;
 import javax.swing.border.TitledBorder;
-import javax.swing.event.DocumentEvent;
-import javax.swing.event.DocumentListener;
 import javax.swing.plaf.FontUIResource;
-import javax.swing.table.DefaultTableModel;
 import javax.swing.text.StyleContext;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
-import java.awt.event.KeyAdapter;
-import java.awt.event.KeyEvent;
-import java.util.List;
 import java.util.Locale;
 
 /**
@@ -108,11 +102,6 @@ public class LendToolFrame extends PresentationFrame {
             @Override
             public void actionPerformed(ActionEvent e) {
                 try {
-                    if (lendToolFrameController.isToolRented(toolId)) {
-                        throw new ToastError(
-                                "A ferramenta não pode ser emprestada para mais de um amigo!",
-                                "Ferramenta já emprestada");
-                    }
                     String friendId = friendsTable.getValueAt(friendsTable.getSelectedRow(), 0).toString();
                     lendToolFrameController.rentTool(friendId, toolId, successCallback);
                 } catch (ToastError exc) {
@@ -120,41 +109,6 @@ public class LendToolFrame extends PresentationFrame {
                 }
             }
         });
-
-        // Name filter key listener for filtering table based on input
-        nameFilter.addKeyListener(new KeyAdapter() {
-            @Override
-            public void keyReleased(KeyEvent e) {
-                super.keyReleased(e);
-                if (nameFilter.getText().isEmpty()) {
-                    DefaultTableModel model = (DefaultTableModel) friendsTable.getModel();
-                    model.setRowCount(0);
-                    try {
-                        loadData();
-                    } catch (ToastError ex) {
-                        ex.display();
-                    }
-                }
-            }
-        });
-
-        // Document listener for filtering table based on input
-        nameFilter.getDocument().addDocumentListener(new DocumentListener() {
-            @Override
-            public void insertUpdate(DocumentEvent e) {
-                filterTable();
-            }
-
-            @Override
-            public void removeUpdate(DocumentEvent e) {
-                filterTable();
-            }
-
-            @Override
-            public void changedUpdate(DocumentEvent e) {
-                filterTable();
-            }
-        });
     }
 
     /**
@@ -165,22 +119,18 @@ public class LendToolFrame extends PresentationFrame {
     }
 
     /**
-     * Loads data into the friends table.
-     *
-     * @throws ToastError if there is an error during data loading
+     * Loads data into the friends table in the background. A newer load supersedes one still running.
      */
-    private void loadData() throws ToastError {
-        List<String[]> friendsRows = this.controller.listFriendAsTableRow();
-        tableConfigurator.insertRows(friendsRows, true);
+    private void loadData() {
+        this.runAsync("load", this.controller::listFriendAsTableRow, tableConfigurator::updateRows);
     }
 
     /**
-     * Sets up the friends table with column headers and loads the initial data.
-     *
-     * @throws ToastError if there is an error during the setup or data loading
+     * Sets up the friends table with column headers and the name filter, and loads the initial data.
      */
-    private void setupTable() throws ToastError {
+    private void setupTable() {
         tableConfigurator.setup(new String[]{"Id", "Nome", "Telefone", "Identidade"}, new int[]{0, 2});
+        tableConfigurator.setupFilter(nameFilter, 1, 3);
         this.loadData();
     }
 
@@ -196,21 +146,6 @@ public class LendToolFrame extends PresentationFrame {
         }
     }
 
-    /**
-     * Filters the friends table based on the input text in the name filter.
-     */
-    private void filterTable() {
-        String filterText = nameFilter.getText().toLowerCase();
-        DefaultTableModel model = (DefaultTableModel) friendsTable.getModel();
-
-        for (int i = model.getRowCount() - 1; i >= 0; i--) {
-            String name = (String) model.getValueAt(i, 1);
-            if (!name.toLowerCase().contains(filterText)) {
-                model.removeRow(i);
-            }
-        }
-    }
-
     {
 // GUI initializer generated by IntelliJ IDEA GUI Designer
 // >>> IMPORTANT!! <<<
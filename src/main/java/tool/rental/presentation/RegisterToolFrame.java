@@ -4,6 +4,7 @@ import com.intellij.uiDesigner.core.GridConstraints;
 import com.intellij.uiDesigner.core.GridLayoutManager;
 import com.intellij.uiDesigner.core.Spacer;
 import tool.rental.domain.controllers.RegisterToolController;
+import tool.rental.utils.Money;
 import tool.rental.utils.PresentationFrame;
 import tool.rental.utils.ToastError;
 
@@ -60,11 +61,11 @@ public class RegisterToolFrame extends PresentationFrame {
             @Override
             public void actionPerformed(ActionEvent e) {
                 try {
-                    String costText = costField.getText().replace(',', '.');
+                    Money cost = Money.parse(costField.getText());
                     registerToolController.registerTool(
                             brandField.getText(),
                             nameField.getText(),
-                            Double.parseDouble(costText),
+                            cost,
                             successCallback
 
                     );
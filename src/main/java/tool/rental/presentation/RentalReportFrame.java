@@ -3,13 +3,16 @@ package tool.rental.presentation;
 import com.intellij.uiDesigner.core.GridConstraints;
 import com.intellij.uiDesigner.core.GridLayoutManager;
 import tool.rental.domain.controllers.RentalReportController;
+import tool.rental.domain.entities.Friend;
+import tool.rental.domain.entities.Tool;
+import tool.rental.utils.DateFormats;
+import tool.rental.utils.FormattedCellRenderer;
 import tool.rental.utils.PresentationFrame;
 import tool.rental.utils.TableConfigurator;
 import tool.rental.utils.ToastError;
 
 import javax.swing.*;
 import java.awt.*;
-import java.util.List;
 
 /**
  * Frame for displaying the rental report in the tool rental system.
@@ -57,10 +60,8 @@ public class RentalReportFrame extends PresentationFrame {
 
     /**
      * Sets up the rentals table with column headers and loads the initial data.
-     *
-     * @throws ToastError if there is an error during the setup or data loading
      */
-    public void setupTable() throws ToastError {
+    public void setupTable() {
         tableConfigurator.setup(
                 "ID",
                 "Data de empréstimo",
@@ -68,17 +69,27 @@ public class RentalReportFrame extends PresentationFrame {
                 "Amigo",
                 "Ferramenta"
         );
+
+        // Cells hold raw values, formatted only once displayed
+        FormattedCellRenderer<Long> dateRenderer = FormattedCellRenderer.timestamp(DateFormats.DATE_TIME_PATTERN);
+        tableConfigurator.setRenderer(1, dateRenderer);
+        tableConfigurator.setRenderer(2, dateRenderer);
+        tableConfigurator.setRenderer(3, new FormattedCellRenderer<>(
+                Friend.class,
+                friend -> friend.getName() + " - " + friend.getSocialSecurity()
+        ));
+        tableConfigurator.setRenderer(4, new FormattedCellRenderer<>(
+                Tool.class,
+                tool -> tool.getBrand() + " - " + tool.getName()
+        ));
         this.loadData();
     }
 
     /**
-     * Loads data into the rentals table.
-     *
-     * @throws ToastError if there is an error during data loading
+     * Loads data into the rentals table in the background.
      */
-    private void loadData() throws ToastError {
-        List<String[]> reports = controller.getRentalReport();
-        tableConfigurator.insertRows(reports, true);
+    private void loadData() {
+        this.runAsync("load", controller::getRentalReport, reports -> tableConfigurator.insertRows(reports, true));
     }
 
     {
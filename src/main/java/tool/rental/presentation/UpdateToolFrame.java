@@ -4,6 +4,7 @@ import com.intellij.uiDesigner.core.GridConstraints;
 import com.intellij.uiDesigner.core.GridLayoutManager;
 import com.intellij.uiDesigner.core.Spacer;
 import tool.rental.domain.controllers.UpdateToolController;
+import tool.rental.utils.Money;
 import tool.rental.utils.PresentationFrame;
 import tool.rental.utils.ToastError;
 
@@ -61,18 +62,13 @@ public class UpdateToolFrame extends PresentationFrame {
             @Override
             public void actionPerformed(ActionEvent e) {
                 try {
-                    // Check if cost field is empty
-                    if (costField.getText() == null || costField.getText().isEmpty()) {
-                        throw new ToastError("Preço não pode ser nulo.", "Campo não pode ser nulo");
-                    }
-
-                    // Parse the cost field
-                    String costText = costField.getText().replace(",", ".");
+                    // Parse the cost field, which must not be empty
+                    Money cost = Money.parse(costField.getText());
                     updateToolController.updateTool(
                             toolId,
                             brandField.getText(),
                             nameField.getText(),
-                            Double.parseDouble(costText),
+                            cost,
                             successCallback
                     );
                 } catch (ToastError exc) {
@@ -0,0 +1,166 @@
+package tool.rental.utils;
+
+import javax.swing.table.AbstractTableModel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A read-only table model backed by a list of arrays, one per row.
+ * <p>
+ * Cells hold raw values, such as numbers, timestamps or entities, rather than their text: a
+ * {@link FormattedCellRenderer} set on the column formats them only when they are painted, so that loading a
+ * large table does not format every cell upfront.
+ * <p>
+ * Unlike {@link javax.swing.table.DefaultTableModel}, which fires an event for every row added, the whole
+ * dataset is swapped at once: {@link #setRows(Collection)} fires a single {@code tableDataChanged} event, and
+ * {@link #updateRows(Collection)} fires only the events needed to turn the current rows into the new ones
+ * when they mostly match, keeping the selection and scroll position of the unchanged rows.
+ */
+public class ArrayTableModel extends AbstractTableModel {
+
+    /**
+     * The column names.
+     */
+    private final ArrayList<String> columns = new ArrayList<>();
+
+    /**
+     * The rows of the table.
+     */
+    private ArrayList<Object[]> rows = new ArrayList<>();
+
+    /**
+     * Adds a column.
+     *
+     * @param name the column name
+     */
+    public void addColumn(String name) {
+        this.columns.add(name);
+        this.fireTableStructureChanged();
+    }
+
+    /**
+     * Returns a row.
+     *
+     * @param rowIndex the row index
+     * @return the row values, which must not be modified
+     */
+    public Object[] getRow(int rowIndex) {
+        return this.rows.get(rowIndex);
+    }
+
+    /**
+     * Returns every row.
+     *
+     * @return an unmodifiable view of the rows
+     */
+    public List<Object[]> getRows() {
+        return Collections.unmodifiableList(this.rows);
+    }
+
+    /**
+     * Appends a row.
+     *
+     * @param row the row values
+     */
+    public void addRow(Object[] row) {
+        this.rows.add(row);
+        this.fireTableRowsInserted(this.rows.size() - 1, this.rows.size() - 1);
+    }
+
+    /**
+     * Appends several rows, firing a single event.
+     *
+     * @param newRows the rows to append
+     */
+    public void addRows(Collection<? extends Object[]> newRows) {
+        if (newRows.isEmpty()) {
+            return;
+        }
+
+        int first = this.rows.size();
+        this.rows.addAll(newRows);
+        this.fireTableRowsInserted(first, this.rows.size() - 1);
+    }
+
+    /**
+     * Replaces every row, firing a single event.
+     *
+     * @param newRows the new rows
+     */
+    public void setRows(Collection<? extends Object[]> newRows) {
+        this.rows = new ArrayList<>(newRows);
+        this.fireTableDataChanged();
+    }
+
+    /**
+     * Replaces every row, firing only the events for the rows that changed.
+     * <p>
+     * The rows shared at the start and at the end of both datasets are left alone. In between, rows present
+     * in both are reported as updated and the remaining ones as inserted or deleted. When most of the table
+     * changed a single {@code tableDataChanged} event is fired instead, being cheaper than many small ones.
+     *
+     * @param newRows the new rows
+     */
+    public void updateRows(Collection<? extends Object[]> newRows) {
+        ArrayList<Object[]> previous = this.rows;
+        ArrayList<Object[]> next = new ArrayList<>(newRows);
+
+        int prefix = 0;
+        int shortest = Math.min(previous.size(), next.size());
+        while (prefix < shortest && Arrays.equals(previous.get(prefix), next.get(prefix))) {
+            prefix++;
+        }
+
+        int suffix = 0;
+        while (suffix < shortest - prefix
+                && Arrays.equals(previous.get(previous.size() - 1 - suffix), next.get(next.size() - 1 - suffix))) {
+            suffix++;
+        }
+
+        int previousChanged = previous.size() - prefix - suffix;
+        int nextChanged = next.size() - prefix - suffix;
+        this.rows = next;
+
+        if (previousChanged == 0 && nextChanged == 0) {
+            return;
+        }
+        if (Math.max(previousChanged, nextChanged) > Math.max(previous.size(), next.size()) / 2) {
+            this.fireTableDataChanged();
+            return;
+        }
+
+        int updated = Math.min(previousChanged, nextChanged);
+        if (updated > 0) {
+            this.fireTableRowsUpdated(prefix, prefix + updated - 1);
+        }
+        if (nextChanged > previousChanged) {
+            this.fireTableRowsInserted(prefix + updated, prefix + nextChanged - 1);
+        } else if (previousChanged > nextChanged) {
+            this.fireTableRowsDeleted(prefix + updated, prefix + previousChanged - 1);
+        }
+    }
+
+    @Override
+    public int getRowCount() {
+        return this.rows.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return this.columns.size();
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return this.columns.get(column);
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        Object[] row = this.rows.get(rowIndex);
+        return columnIndex < row.length ? row[columnIndex] : null;
+    }
+}
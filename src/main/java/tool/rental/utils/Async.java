@@ -0,0 +1,89 @@
+package tool.rental.utils;
+
+import javax.swing.SwingUtilities;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BiConsumer;
+
+/**
+ * Runs blocking work, such as repository calls, away from the Swing event dispatch thread.
+ * <p>
+ * Every task runs on its own virtual thread, so waiting on SQLite costs no platform thread, and results are
+ * handed back to the event dispatch thread with {@link SwingUtilities#invokeLater(Runnable)}.
+ */
+public final class Async {
+
+    /**
+     * The executor starting a virtual thread per task.
+     */
+    private static final ExecutorService EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * Prevents instantiation.
+     */
+    private Async() {
+    }
+
+    /**
+     * Blocking work that may fail with a {@link ToastError}.
+     *
+     * @param <T> the type of the result
+     */
+    @FunctionalInterface
+    public interface Task<T> {
+
+        /**
+         * Runs the work.
+         *
+         * @return the result
+         * @throws ToastError if the work fails
+         */
+        T run() throws ToastError;
+    }
+
+    /**
+     * Starts a task on a virtual thread.
+     *
+     * @param task the task to run
+     * @param <T>  the type of the result
+     * @return a future completed with the result, or exceptionally with the {@link ToastError} thrown
+     */
+    public static <T> CompletableFuture<T> supply(Task<T> task) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return task.run();
+            } catch (ToastError exc) {
+                throw new CompletionException(exc);
+            }
+        }, EXECUTOR);
+    }
+
+    /**
+     * Calls back on the event dispatch thread once a future completes, with either its result or its error.
+     *
+     * @param future   the future to wait for
+     * @param callback receives the result, or null, and the error unwrapped from completion wrappers, or null
+     * @param <T>      the type of the result
+     */
+    public static <T> void onEventThread(CompletableFuture<T> future, BiConsumer<T, Throwable> callback) {
+        future.whenComplete((result, error) -> SwingUtilities.invokeLater(
+                () -> callback.accept(result, unwrap(error))
+        ));
+    }
+
+    /**
+     * Returns the error a future failed with, without the wrappers added by the concurrency utilities.
+     *
+     * @param error the error, or null
+     * @return the underlying error, or null
+     */
+    public static Throwable unwrap(Throwable error) {
+        while ((error instanceof CompletionException || error instanceof ExecutionException) && error.getCause() != null) {
+            error = error.getCause();
+        }
+        return error;
+    }
+}
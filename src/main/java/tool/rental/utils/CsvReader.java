@@ -0,0 +1,252 @@
+package tool.rental.utils;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+
+/**
+ * Reads CSV records one at a time from a stream, so that files of any size are read in constant memory.
+ * <p>
+ * Follows RFC 4180: fields may be quoted, quoted fields may hold separators, line breaks and doubled quotes,
+ * and lines end with LF, CRLF or CR. The separator, a comma or the semicolon spreadsheets write in locales
+ * using the decimal comma, is detected from the first line. A leading byte order mark is skipped and blank
+ * lines are ignored.
+ */
+public class CsvReader implements AutoCloseable {
+
+    /**
+     * The logger of this class.
+     */
+    private static final Logger LOGGER = Logger.getLogger(CsvReader.class);
+
+    /**
+     * The longest record accepted, in characters, so that a quote left open does not read the whole file
+     * into memory.
+     */
+    public static final int MAX_RECORD_LENGTH = 1 << 20;
+
+    /**
+     * The byte order mark some editors write at the start of UTF-8 files.
+     */
+    private static final char BYTE_ORDER_MARK = '\uFEFF';
+
+    /**
+     * The stream read.
+     */
+    private final Reader reader;
+
+    /**
+     * The characters read from the stream and not consumed yet.
+     */
+    private final char[] buffer = new char[8192];
+
+    /**
+     * The position of the next character to consume in the buffer.
+     */
+    private int position = 0;
+
+    /**
+     * The number of characters in the buffer.
+     */
+    private int limit = 0;
+
+    /**
+     * The field separator.
+     */
+    private final char separator;
+
+    /**
+     * The field being read.
+     */
+    private final StringBuilder field = new StringBuilder();
+
+    /**
+     * The number of the line being read, from 1.
+     */
+    private long line = 1;
+
+    /**
+     * The number of the line the last record read starts at.
+     */
+    private long recordLine = 0;
+
+    /**
+     * Creates a reader of CSV records, detecting the separator from the first line.
+     *
+     * @param reader the stream to read, closed along with this reader
+     * @throws IOException if the stream cannot be read
+     */
+    public CsvReader(Reader reader) throws IOException {
+        this.reader = reader;
+        this.fill();
+        if (this.position < this.limit && this.buffer[this.position] == BYTE_ORDER_MARK) {
+            this.position++;
+        }
+        this.separator = this.detectSeparator();
+        LOGGER.debug(() -> "CSV separator: " + this.separator);
+    }
+
+    /**
+     * Returns the field separator detected.
+     *
+     * @return a comma or a semicolon
+     */
+    public char getSeparator() {
+        return this.separator;
+    }
+
+    /**
+     * Returns the number of the line the last record read starts at, for error messages.
+     *
+     * @return the line number, from 1
+     */
+    public long getRecordLine() {
+        return this.recordLine;
+    }
+
+    /**
+     * Reads the next record.
+     *
+     * @return the fields of the record, or null at the end of the stream
+     * @throws IOException if the stream cannot be read, a quote is left open or the record is too long
+     */
+    public String[] next() throws IOException {
+        ArrayList<String> fields = new ArrayList<>();
+        StringBuilder field = this.field;
+        field.setLength(0);
+
+        boolean started = false;
+        boolean quoted = false;
+        int length = 0;
+        this.recordLine = this.line;
+
+        while (true) {
+            int c = this.read();
+
+            if (++length > MAX_RECORD_LENGTH) {
+                throw new IOException(String.format(
+                        "Registro da linha %d maior que %d caracteres.", this.recordLine, MAX_RECORD_LENGTH
+                ));
+            }
+
+            if (quoted) {
+                if (c == -1) {
+                    throw new IOException("Aspas não fechadas no registro da linha " + this.recordLine + ".");
+                } else if (c == '"' && this.peek() == '"') {
+                    this.read();
+                    field.append('"');
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    if (c == '\n' || (c == '\r' && this.peek() != '\n')) {
+                        this.line++;
+                    }
+                    field.append((char) c);
+                }
+                continue;
+            }
+
+            if (c == -1 || c == '\n' || c == '\r') {
+                if (c == '\r' && this.peek() == '\n') {
+                    this.read();
+                }
+
+                if (!started) {
+                    if (c == -1) {
+                        return null;
+                    }
+                    // Blank line
+                    this.line++;
+                    this.recordLine = this.line;
+                    length = 0;
+                    continue;
+                }
+
+                if (c != -1) {
+                    this.line++;
+                }
+                fields.add(field.toString());
+                return fields.toArray(new String[0]);
+            }
+
+            started = true;
+            if (c == this.separator) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else {
+                field.append((char) c);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.reader.close();
+    }
+
+    /**
+     * Picks the separator occurring most often, outside quotes, in the first line.
+     *
+     * @return a semicolon if it occurs more often than commas, otherwise a comma
+     */
+    private char detectSeparator() {
+        int commas = 0;
+        int semicolons = 0;
+        boolean quoted = false;
+
+        for (int i = this.position; i < this.limit; i++) {
+            char c = this.buffer[i];
+            if (c == '"') {
+                quoted = !quoted;
+            } else if (!quoted && (c == '\n' || c == '\r')) {
+                break;
+            } else if (!quoted && c == ',') {
+                commas++;
+            } else if (!quoted && c == ';') {
+                semicolons++;
+            }
+        }
+        return semicolons > commas ? ';' : ',';
+    }
+
+    /**
+     * Consumes the next character.
+     *
+     * @return the character, or -1 at the end of the stream
+     * @throws IOException if the stream cannot be read
+     */
+    private int read() throws IOException {
+        if (this.position == this.limit && !this.fill()) {
+            return -1;
+        }
+        return this.buffer[this.position++];
+    }
+
+    /**
+     * Returns the next character without consuming it.
+     *
+     * @return the character, or -1 at the end of the stream
+     * @throws IOException if the stream cannot be read
+     */
+    private int peek() throws IOException {
+        if (this.position == this.limit && !this.fill()) {
+            return -1;
+        }
+        return this.buffer[this.position];
+    }
+
+    /**
+     * Reads the next characters of the stream into the buffer, once it was consumed.
+     *
+     * @return false at the end of the stream
+     * @throws IOException if the stream cannot be read
+     */
+    private boolean fill() throws IOException {
+        int read = this.reader.read(this.buffer, 0, this.buffer.length);
+        this.position = 0;
+        this.limit = Math.max(read, 0);
+        return read > 0;
+    }
+}
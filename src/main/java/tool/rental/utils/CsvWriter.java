@@ -0,0 +1,69 @@
+package tool.rental.utils;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes CSV records to a stream, as {@link CsvReader} reads them back.
+ * <p>
+ * Fields holding the separator, quotes or line breaks are quoted, with their quotes doubled, following RFC 4180.
+ * Records end with the line separator of the platform. The stream stays owned by the caller, who flushes and
+ * closes it.
+ */
+public class CsvWriter {
+
+    /**
+     * The stream written to.
+     */
+    private final Writer writer;
+
+    /**
+     * The field separator.
+     */
+    private final char separator;
+
+    /**
+     * Creates a new CSV writer.
+     *
+     * @param writer    the stream to write to
+     * @param separator the field separator
+     */
+    public CsvWriter(Writer writer, char separator) {
+        this.writer = writer;
+        this.separator = separator;
+    }
+
+    /**
+     * Writes values as a record, quoting them when needed.
+     *
+     * @param values the values, null ones written as empty fields
+     * @throws IOException if the stream cannot be written
+     */
+    public void writeRecord(String... values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                this.writer.write(this.separator);
+            }
+            this.writeField(values[i] == null ? "" : values[i]);
+        }
+        this.writer.write(System.lineSeparator());
+    }
+
+    /**
+     * Writes a field, quoted if it holds the separator, a quote or a line break.
+     *
+     * @param value the field
+     * @throws IOException if the stream cannot be written
+     */
+    private void writeField(String value) throws IOException {
+        if (value.indexOf(this.separator) < 0 && value.indexOf('"') < 0
+                && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            this.writer.write(value);
+            return;
+        }
+
+        this.writer.write('"');
+        this.writer.write(value.replace("\"", "\"\""));
+        this.writer.write('"');
+    }
+}
@@ -0,0 +1,238 @@
+package tool.rental.utils;
+
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.zone.ZoneRules;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Formats timestamps for display, in the time zone set by the {@value #ZONE_PROPERTY} system property, or the
+ * one of the system if it is not set.
+ * <p>
+ * Formatters are immutable and thread-safe, so one is built per pattern and shared. The {@value #DATE_PATTERN}
+ * and {@value #DATE_TIME_PATTERN} patterns, written for every row of the tables and reports, are formatted by
+ * hand instead, into a char array, reusing the text of the day when consecutive timestamps fall on the same
+ * one, as rentals listed in date order do.
+ */
+public final class DateFormats {
+
+    /**
+     * The logger of this class.
+     */
+    private static final Logger LOGGER = Logger.getLogger(DateFormats.class);
+
+    /**
+     * The system property holding the time zone dates are shown in, such as {@code America/Sao_Paulo}.
+     */
+    public static final String ZONE_PROPERTY = "tool.rental.timeZone";
+
+    /**
+     * The pattern of a date.
+     */
+    public static final String DATE_PATTERN = "dd/MM/yyyy";
+
+    /**
+     * The pattern of a date and time.
+     */
+    public static final String DATE_TIME_PATTERN = "dd/MM/yyyy - HH:mm";
+
+    /**
+     * The number of milliseconds in a day.
+     */
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+
+    /**
+     * The time zone dates are shown in.
+     */
+    private static final ZoneId ZONE = readZone();
+
+    /**
+     * The rules of the time zone, to find its offset at a given instant.
+     */
+    private static final ZoneRules RULES = ZONE.getRules();
+
+    /**
+     * The offset of the time zone in milliseconds, if it never changes, which spares looking it up.
+     */
+    private static final Long FIXED_OFFSET_MILLIS = RULES.isFixedOffset()
+            ? RULES.getOffset(Instant.EPOCH).getTotalSeconds() * 1000L
+            : null;
+
+    /**
+     * The formatters built, by pattern.
+     */
+    private static final Map<String, DateTimeFormatter> FORMATTERS = new ConcurrentHashMap<>();
+
+    /**
+     * The last day formatted by hand, shared by every thread since it is immutable.
+     */
+    private static volatile FormattedDay LAST_DAY = new FormattedDay(Long.MIN_VALUE, null);
+
+    /**
+     * Prevents instantiation.
+     */
+    private DateFormats() {
+    }
+
+    /**
+     * Returns the time zone dates are shown in.
+     *
+     * @return the time zone
+     */
+    public static ZoneId getZone() {
+        return ZONE;
+    }
+
+    /**
+     * Returns the formatter of a pattern, in the time zone dates are shown in.
+     *
+     * @param pattern the pattern, as accepted by {@link DateTimeFormatter#ofPattern(String)}
+     * @return the formatter, shared by every caller
+     * @throws IllegalArgumentException if the pattern is invalid
+     */
+    public static DateTimeFormatter formatter(String pattern) {
+        return FORMATTERS.computeIfAbsent(pattern, key -> DateTimeFormatter.ofPattern(key).withZone(ZONE));
+    }
+
+    /**
+     * Formats a timestamp.
+     *
+     * @param timestamp the timestamp in milliseconds
+     * @param pattern   the pattern, as accepted by {@link DateTimeFormatter#ofPattern(String)}
+     * @return the formatted date
+     */
+    public static String format(long timestamp, String pattern) {
+        if (DATE_PATTERN.equals(pattern)) {
+            return formatDate(timestamp);
+        }
+        if (DATE_TIME_PATTERN.equals(pattern)) {
+            return formatDateTime(timestamp);
+        }
+        return formatter(pattern).format(Instant.ofEpochMilli(timestamp));
+    }
+
+    /**
+     * Formats a timestamp as a date, {@value #DATE_PATTERN}.
+     *
+     * @param timestamp the timestamp in milliseconds
+     * @return the formatted date
+     */
+    public static String formatDate(long timestamp) {
+        long localMillis = timestamp + offsetMillis(timestamp);
+        String day = formatDay(Math.floorDiv(localMillis, MILLIS_PER_DAY));
+        return day != null ? day : formatter(DATE_PATTERN).format(Instant.ofEpochMilli(timestamp));
+    }
+
+    /**
+     * Formats a timestamp as a date and time, {@value #DATE_TIME_PATTERN}.
+     *
+     * @param timestamp the timestamp in milliseconds
+     * @return the formatted date and time
+     */
+    public static String formatDateTime(long timestamp) {
+        long localMillis = timestamp + offsetMillis(timestamp);
+        String day = formatDay(Math.floorDiv(localMillis, MILLIS_PER_DAY));
+        if (day == null) {
+            return formatter(DATE_TIME_PATTERN).format(Instant.ofEpochMilli(timestamp));
+        }
+
+        int minuteOfDay = (int) (Math.floorMod(localMillis, MILLIS_PER_DAY) / 60_000);
+        char[] text = new char[18];
+        day.getChars(0, 10, text, 0);
+        text[10] = ' ';
+        text[11] = '-';
+        text[12] = ' ';
+        writeTwoDigits(text, 13, minuteOfDay / 60);
+        text[15] = ':';
+        writeTwoDigits(text, 16, minuteOfDay % 60);
+        return new String(text);
+    }
+
+    /**
+     * Reads the time zone from the system property.
+     *
+     * @return the zone set, or the one of the system if none or an invalid one is set
+     */
+    private static ZoneId readZone() {
+        String zone = System.getProperty(ZONE_PROPERTY);
+        if (zone == null || zone.isBlank()) {
+            return ZoneId.systemDefault();
+        }
+
+        try {
+            return ZoneId.of(zone.strip());
+        } catch (DateTimeException exc) {
+            LOGGER.warn("Fuso horário inválido em " + ZONE_PROPERTY + ": " + zone + ", usando o do sistema.");
+            return ZoneId.systemDefault();
+        }
+    }
+
+    /**
+     * Returns the offset of the time zone at an instant.
+     *
+     * @param timestamp the instant in milliseconds
+     * @return the offset in milliseconds
+     */
+    private static long offsetMillis(long timestamp) {
+        if (FIXED_OFFSET_MILLIS != null) {
+            return FIXED_OFFSET_MILLIS;
+        }
+        return RULES.getOffset(Instant.ofEpochMilli(timestamp)).getTotalSeconds() * 1000L;
+    }
+
+    /**
+     * Formats a day as {@value #DATE_PATTERN}, reusing the text of the last day formatted.
+     *
+     * @param epochDay the day, counted from 1970-01-01
+     * @return the formatted day, or null for years not written with four digits, left to the formatter
+     */
+    private static String formatDay(long epochDay) {
+        FormattedDay last = LAST_DAY;
+        if (last.epochDay() == epochDay) {
+            return last.text();
+        }
+
+        LocalDate date = LocalDate.ofEpochDay(epochDay);
+        int year = date.getYear();
+        if (year < 1000 || year > 9999) {
+            return null;
+        }
+
+        char[] text = new char[10];
+        writeTwoDigits(text, 0, date.getDayOfMonth());
+        text[2] = '/';
+        writeTwoDigits(text, 3, date.getMonthValue());
+        text[5] = '/';
+        writeTwoDigits(text, 6, year / 100);
+        writeTwoDigits(text, 8, year % 100);
+
+        String formatted = new String(text);
+        LAST_DAY = new FormattedDay(epochDay, formatted);
+        return formatted;
+    }
+
+    /**
+     * Writes a number from 0 to 99 with two digits.
+     *
+     * @param text   the characters to write to
+     * @param offset the position of the first digit
+     * @param value  the number
+     */
+    private static void writeTwoDigits(char[] text, int offset, int value) {
+        text[offset] = (char) ('0' + value / 10);
+        text[offset + 1] = (char) ('0' + value % 10);
+    }
+
+    /**
+     * A day along with its text.
+     *
+     * @param epochDay the day, counted from 1970-01-01
+     * @param text     the day formatted as {@value #DATE_PATTERN}
+     */
+    private record FormattedDay(long epochDay, String text) {
+    }
+}
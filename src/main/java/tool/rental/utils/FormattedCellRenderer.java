@@ -0,0 +1,120 @@
+package tool.rental.utils;
+
+import javax.swing.JTable;
+import javax.swing.SwingConstants;
+import javax.swing.table.DefaultTableCellRenderer;
+import java.awt.Component;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Renders the raw values of a column, such as costs, timestamps or entities, as text formatted only when the
+ * cell is painted.
+ * <p>
+ * Rows keep the values rather than their text, so that loading a table formats nothing upfront: only the cells
+ * scrolled into view are formatted, and the text of the last values painted is kept, so that repainting the
+ * visible cells, which Swing does on every selection or resize, does not format them again. Values of another
+ * type than the one of the column, such as the placeholders of rows still loading, are shown as they are.
+ * <p>
+ * Renderers are used by the event dispatch thread only, so the cache is not synchronized.
+ *
+ * @param <T> the type of the values of the column
+ */
+public class FormattedCellRenderer<T> extends DefaultTableCellRenderer {
+
+    /**
+     * The number of formatted values kept, enough for the visible cells of a column on any screen.
+     */
+    public static final int CACHE_SIZE = 512;
+
+    /**
+     * The type of the values of the column.
+     */
+    private final Class<T> type;
+
+    /**
+     * Formats a value of the column.
+     */
+    private final Function<? super T, String> formatter;
+
+    /**
+     * The text of the last values painted, by value, least recently painted first.
+     */
+    private final LinkedHashMap<T, String> formatted = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<T, String> eldest) {
+            return this.size() > CACHE_SIZE;
+        }
+    };
+
+    /**
+     * Creates a renderer of the values of a column.
+     *
+     * @param type      the type of the values of the column
+     * @param formatter formats a value of the column, never given null
+     * @param alignment the horizontal alignment of the text, a {@link SwingConstants} value
+     */
+    public FormattedCellRenderer(Class<T> type, Function<? super T, String> formatter, int alignment) {
+        this.type = type;
+        this.formatter = formatter;
+        this.setHorizontalAlignment(alignment);
+    }
+
+    /**
+     * Creates a renderer of the values of a column, aligned to the leading edge of the cell.
+     *
+     * @param type      the type of the values of the column
+     * @param formatter formats a value of the column, never given null
+     */
+    public FormattedCellRenderer(Class<T> type, Function<? super T, String> formatter) {
+        this(type, formatter, SwingConstants.LEADING);
+    }
+
+    /**
+     * Creates a renderer of costs, such as {@code R$ 1.234,50}.
+     *
+     * @return the renderer
+     */
+    public static FormattedCellRenderer<Money> currency() {
+        return new FormattedCellRenderer<>(Money.class, Money::format, SwingConstants.TRAILING);
+    }
+
+    /**
+     * Creates a renderer of timestamps in milliseconds, shown in the time zone of {@link DateFormats}.
+     *
+     * @param pattern the pattern, such as {@link DateFormats#DATE_PATTERN}
+     * @return the renderer
+     */
+    public static FormattedCellRenderer<Long> timestamp(String pattern) {
+        return new FormattedCellRenderer<>(Long.class, timestamp -> DateFormats.format(timestamp, pattern));
+    }
+
+    /**
+     * Returns the text of a value, formatting it if it was not painted lately.
+     *
+     * @param value the value of a cell
+     * @return the text of the cell
+     */
+    public String format(Object value) {
+        if (value == null) {
+            return "";
+        }
+        if (!this.type.isInstance(value)) {
+            return value.toString();
+        }
+
+        T typed = this.type.cast(value);
+        String text = this.formatted.get(typed);
+        if (text == null) {
+            text = this.formatter.apply(typed);
+            this.formatted.put(typed, text);
+        }
+        return text;
+    }
+
+    @Override
+    public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected, boolean hasFocus, int row, int column) {
+        return super.getTableCellRendererComponent(table, this.format(value), isSelected, hasFocus, row, column);
+    }
+}
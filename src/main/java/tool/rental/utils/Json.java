@@ -0,0 +1,45 @@
+package tool.rental.utils;
+
+/**
+ * Utility class for writing JSON values.
+ */
+public final class Json {
+
+    /**
+     * Prevents instantiation.
+     */
+    private Json() {
+    }
+
+    /**
+     * Writes a text as a JSON string.
+     *
+     * @param text the text, or null
+     * @return the quoted and escaped text, or {@code null}
+     */
+    public static String quote(String text) {
+        if (text == null) {
+            return "null";
+        }
+
+        StringBuilder json = new StringBuilder(text.length() + 2).append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '"' -> json.append("\\\"");
+                case '\\' -> json.append("\\\\");
+                case '\n' -> json.append("\\n");
+                case '\r' -> json.append("\\r");
+                case '\t' -> json.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+                }
+            }
+        }
+        return json.append('"').toString();
+    }
+}
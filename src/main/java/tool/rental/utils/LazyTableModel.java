@@ -0,0 +1,430 @@
+package tool.rental.utils;
+
+import javax.swing.table.AbstractTableModel;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A read-only table model that only holds the pages of rows being looked at.
+ * <p>
+ * The row count is known upfront, so the scroll bar has its full size, and rows are read from a
+ * {@link PageSource}, on a background thread, the first time a page is displayed; its rows stay blank until
+ * then. Only the most recently used pages are kept in
+ * memory. The key each page starts from is remembered, so an evicted page is read again with a single
+ * keyset query; pages never reached are skipped without reading their rows.
+ * <p>
+ * A single read is in flight at a time. Pages displayed meanwhile are queued, the last one displayed being
+ * read first, each read starting from the furthest page whose start key is known, so that dragging the
+ * scroll bar across the table skips every page once instead of once per page displayed. Queued pages that
+ * scroll out of view before their turn are dropped, and a read whose page scrolled out of view stops before
+ * its next query, keeping the start keys it found. A page that fails to load stays blank and is read again
+ * the next time it is displayed; the error is shown once until a page loads again.
+ * <p>
+ * If a page comes back shorter than expected, because rows were deleted since the count was taken, the row
+ * count is reduced to the rows that actually exist.
+ *
+ * @param <K> the type of the key rows are ordered by
+ */
+public class LazyTableModel<K> extends AbstractTableModel {
+
+    /**
+     * The logger of this class.
+     */
+    private static final Logger LOGGER = Logger.getLogger(LazyTableModel.class);
+
+    /**
+     * The column names.
+     */
+    private final String[] columns;
+
+    /**
+     * The number of rows read at once.
+     */
+    private final int pageSize;
+
+    /**
+     * The pages kept in memory by index, least recently used first.
+     */
+    private final LinkedHashMap<Integer, List<Object[]>> pages;
+
+    /**
+     * The key each page starts after, by page index. The first page starts after null.
+     */
+    private final ArrayList<K> pageStarts = new ArrayList<>();
+
+    /**
+     * The pages displayed but not read yet, the last one displayed last.
+     */
+    private final LinkedHashSet<Integer> queued = new LinkedHashSet<>();
+
+    /**
+     * The read in flight, or null if none is.
+     */
+    private Request<K> inFlight;
+
+    /**
+     * The first page in view, or -1 if the visible rows were never set, in which case every page is.
+     */
+    private int firstVisiblePage = -1;
+
+    /**
+     * The last page in view.
+     */
+    private int lastVisiblePage = -1;
+
+    /**
+     * Whether the last read failed, so that a failure is shown once rather than for every page.
+     */
+    private boolean failing = false;
+
+    /**
+     * Where the rows come from, or null before the first {@link #reset(PageSource, int)}.
+     */
+    private PageSource<K> source;
+
+    /**
+     * The number of rows of the table.
+     */
+    private int rowCount = 0;
+
+    /**
+     * Incremented on every reset, so that pages read for previous rows are ignored.
+     */
+    private int generation = 0;
+
+    /**
+     * Creates a new empty lazy table model.
+     *
+     * @param columns        the column names
+     * @param pageSize       the number of rows read at once
+     * @param maxCachedPages the maximum number of pages kept in memory
+     */
+    public LazyTableModel(String[] columns, int pageSize, int maxCachedPages) {
+        this.columns = columns;
+        this.pageSize = pageSize;
+        this.pages = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, List<Object[]>> eldest) {
+                return this.size() > maxCachedPages;
+            }
+        };
+        this.pageStarts.add(null);
+    }
+
+    /**
+     * Replaces every row of the table, reading them lazily from the given source.
+     *
+     * @param source   where the rows come from
+     * @param rowCount the number of rows the source is expected to hold
+     */
+    public void reset(PageSource<K> source, int rowCount) {
+        this.source = source;
+        this.rowCount = Math.max(0, rowCount);
+        this.generation++;
+        this.pages.clear();
+        this.queued.clear();
+        if (this.inFlight != null) {
+            // Its rows are ignored when it ends, so it may as well stop early
+            this.inFlight.cancelled = true;
+        }
+        this.failing = false;
+        this.pageStarts.clear();
+        this.pageStarts.add(null);
+        this.fireTableDataChanged();
+    }
+
+    /**
+     * Sets the rows in view, so that the pages out of view are not read. Runs on the event dispatch thread,
+     * whenever the table scrolls or is resized.
+     *
+     * @param firstRow the first row in view
+     * @param lastRow  the last row in view, or less than the first one if no row is
+     */
+    public void setVisibleRows(int firstRow, int lastRow) {
+        this.firstVisiblePage = Math.max(0, firstRow) / this.pageSize;
+        this.lastVisiblePage = lastRow < firstRow ? this.firstVisiblePage - 1 : lastRow / this.pageSize;
+
+        this.queued.removeIf(page -> !this.isVisible(page));
+        if (this.inFlight != null && !this.isVisible(this.inFlight.page)) {
+            this.inFlight.cancelled = true;
+        }
+    }
+
+    /**
+     * Returns whether a row was read, as opposed to being blank while its page loads.
+     *
+     * @param rowIndex the row index
+     * @return true if the values of the row are known
+     */
+    public boolean isRowLoaded(int rowIndex) {
+        if (rowIndex < 0 || rowIndex >= this.rowCount) {
+            return false;
+        }
+        List<Object[]> rows = this.pages.get(rowIndex / this.pageSize);
+        return rows != null && rowIndex % this.pageSize < rows.size();
+    }
+
+    @Override
+    public int getRowCount() {
+        return this.rowCount;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return this.columns.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return this.columns[column];
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        int page = rowIndex / this.pageSize;
+        List<Object[]> rows = this.pages.get(page);
+        int index = rowIndex % this.pageSize;
+
+        if (rows == null) {
+            this.requestPage(page);
+            return "";
+        }
+        if (index >= rows.size()) {
+            return "";
+        }
+        return rows.get(index)[columnIndex];
+    }
+
+    /**
+     * Queues a page to be read in the background, unless it already is. The rows are blank until it arrives,
+     * then the page is repainted.
+     *
+     * @param page the page index
+     */
+    private void requestPage(int page) {
+        if (this.source == null) {
+            return;
+        }
+        if (this.inFlight == null || this.inFlight.page != page || this.inFlight.generation != this.generation) {
+            this.queued.add(page);
+        }
+        this.readNext();
+    }
+
+    /**
+     * Starts reading the last page queued that is still in view, unless a read is already in flight.
+     */
+    private void readNext() {
+        if (this.inFlight != null) {
+            return;
+        }
+
+        Integer page = null;
+        while (page == null && !this.queued.isEmpty()) {
+            int candidate = this.queued.removeLast();
+            if (this.isVisible(candidate) && !this.pages.containsKey(candidate)) {
+                page = candidate;
+            }
+        }
+        if (page == null) {
+            return;
+        }
+
+        int reached = Math.min(page, this.pageStarts.size() - 1);
+        Request<K> request = new Request<>(this.source, this.generation, page, reached, this.pageStarts.get(reached));
+        this.inFlight = request;
+
+        Async.onEventThread(
+                Async.supply(() -> fetch(request, this.pageSize)),
+                (fetched, error) -> {
+                    this.inFlight = null;
+                    boolean current = request.generation == this.generation;
+
+                    if (current && error == null) {
+                        this.failing = false;
+                        this.apply(request.page, fetched);
+                    }
+                    this.readNext();
+                    // Last, as the error dialog is modal
+                    if (current && error != null) {
+                        this.fail(error);
+                    }
+                }
+        );
+    }
+
+    /**
+     * Reports a page that could not be read, leaving it blank so that it is read again when displayed. Runs
+     * on the event dispatch thread.
+     *
+     * @param error the cause
+     */
+    private void fail(Throwable error) {
+        LOGGER.error(error instanceof ToastError toast ? toast.message : String.valueOf(error));
+        if (this.failing) {
+            return;
+        }
+
+        this.failing = true;
+        ToastError toast = error instanceof ToastError exc
+                ? exc
+                : new ToastError("Erro inesperado: " + error.getMessage(), "Erro");
+        toast.display();
+    }
+
+    /**
+     * Returns whether a page is in view.
+     *
+     * @param page the page index
+     * @return true if the page is in view, or if the rows in view were never set
+     */
+    private boolean isVisible(int page) {
+        return this.firstVisiblePage < 0 || (page >= this.firstVisiblePage && page <= this.lastVisiblePage);
+    }
+
+    /**
+     * Reads a page on a background thread, skipping the pages before it whose start key is unknown, until
+     * the request is cancelled.
+     *
+     * @param request  the page requested and where to start from
+     * @param pageSize the number of rows per page
+     * @param <K>      the type of the key rows are ordered by
+     * @return the start keys discovered and the page read, or no page if the request was cancelled
+     * @throws ToastError if the rows cannot be read
+     */
+    private static <K> Fetched<K> fetch(Request<K> request, int pageSize) throws ToastError {
+        ArrayList<K> discoveredStarts = new ArrayList<>();
+        K start = request.start;
+        int index = request.reached;
+
+        while (index < request.page) {
+            if (request.cancelled) {
+                return new Fetched<>(request.reached, discoveredStarts, index, null);
+            }
+            K next = request.source.skip(start, pageSize);
+            if (next == null) {
+                break;
+            }
+            discoveredStarts.add(next);
+            start = next;
+            index++;
+        }
+
+        if (request.cancelled) {
+            return new Fetched<>(request.reached, discoveredStarts, index, null);
+        }
+        // When the source ends before the requested page, reading the last page fixes the row count
+        return new Fetched<>(request.reached, discoveredStarts, index, request.source.load(start, pageSize));
+    }
+
+    /**
+     * Stores a page read in the background and repaints its rows. Runs on the event dispatch thread.
+     *
+     * @param requested the index of the requested page
+     * @param fetched   what was read
+     */
+    private void apply(int requested, Fetched<K> fetched) {
+        for (int i = 0; i < fetched.discoveredStarts().size(); i++) {
+            if (this.pageStarts.size() == fetched.reached() + 1 + i) {
+                this.pageStarts.add(fetched.discoveredStarts().get(i));
+            }
+        }
+
+        if (fetched.page() == null) {
+            // Cancelled, only the start keys found are kept
+            return;
+        }
+
+        int page = fetched.loadedPage();
+        List<Object[]> rows = fetched.page().rows();
+        this.pages.put(page, rows);
+
+        if (rows.size() == this.pageSize && this.pageStarts.size() == page + 1) {
+            this.pageStarts.add(fetched.page().lastKey());
+        }
+
+        int actualRowCount = page * this.pageSize + rows.size();
+        if (rows.size() < this.pageSize && actualRowCount < this.rowCount) {
+            int previousRowCount = this.rowCount;
+            this.rowCount = actualRowCount;
+            this.fireTableRowsDeleted(actualRowCount, previousRowCount - 1);
+        }
+
+        int first = requested * this.pageSize;
+        int last = Math.min(first + this.pageSize, this.rowCount) - 1;
+        if (first <= last) {
+            this.fireTableRowsUpdated(first, last);
+        }
+    }
+
+    /**
+     * The outcome of a background page read.
+     *
+     * @param reached          the index of the page the read started from
+     * @param discoveredStarts the start keys of the pages following that one, found while skipping
+     * @param loadedPage       the index of the page actually read, before the requested one if the source ended earlier
+     * @param page             the page read, or null if the request was cancelled before
+     * @param <K>              the type of the key rows are ordered by
+     */
+    private record Fetched<K>(int reached, List<K> discoveredStarts, int loadedPage, Page<K> page) {
+    }
+
+    /**
+     * A page requested, read on a background thread.
+     *
+     * @param <K> the type of the key rows are ordered by
+     */
+    private static final class Request<K> {
+
+        /**
+         * Where the rows come from.
+         */
+        private final PageSource<K> source;
+
+        /**
+         * The generation of the rows the page is read for.
+         */
+        private final int generation;
+
+        /**
+         * The index of the requested page.
+         */
+        private final int page;
+
+        /**
+         * The index of the closest page whose start key is known.
+         */
+        private final int reached;
+
+        /**
+         * The start key of that page.
+         */
+        private final K start;
+
+        /**
+         * Set on the event dispatch thread when the page is no longer wanted, read by the background thread
+         * before each query.
+         */
+        private volatile boolean cancelled = false;
+
+        /**
+         * Creates a request.
+         *
+         * @param source     where the rows come from
+         * @param generation the generation of the rows the page is read for
+         * @param page       the index of the requested page
+         * @param reached    the index of the closest page whose start key is known
+         * @param start      the start key of that page
+         */
+        private Request(PageSource<K> source, int generation, int page, int reached, K start) {
+            this.source = source;
+            this.generation = generation;
+            this.page = page;
+            this.reached = reached;
+            this.start = start;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package tool.rental.utils;
+
+/**
+ * The severity levels understood by the {@link Logger}, from the most to the least verbose.
+ */
+public enum LogLevel {
+    DEBUG,
+    INFO,
+    WARN,
+    ERROR;
+
+    /**
+     * Returns the level with the given name, ignoring case, or the fallback if the name is unknown.
+     *
+     * @param name     the level name
+     * @param fallback the level returned when the name is null or unknown
+     * @return the matching level
+     */
+    public static LogLevel fromName(String name, LogLevel fallback) {
+        if (name == null) {
+            return fallback;
+        }
+
+        for (LogLevel level : values()) {
+            if (level.name().equalsIgnoreCase(name.trim())) {
+                return level;
+            }
+        }
+        return fallback;
+    }
+}
@@ -0,0 +1,118 @@
+package tool.rental.utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A bounded, lock-free ring buffer with many producers and a single consumer.
+ * <p>
+ * Each slot carries a sequence number telling whether it is free for the producer claiming a given
+ * position or filled for the consumer reading it, so producers only race on a single compare-and-set
+ * of the tail and never block. When the buffer is full {@link #offer(Object)} fails immediately. Producers
+ * are told when the consumer had already read everything before their element, so that a consumer waiting
+ * for elements only needs waking then.
+ *
+ * @param <T> the type of the buffered elements
+ */
+public class LogRingBuffer<T> {
+
+    /**
+     * The slots holding the elements.
+     */
+    private final AtomicReferenceArray<T> elements;
+
+    /**
+     * The sequence number of each slot.
+     */
+    private final AtomicLongArray sequences;
+
+    /**
+     * The mask turning a position into a slot index, the capacity being a power of two.
+     */
+    private final int mask;
+
+    /**
+     * The next position to be claimed by a producer.
+     */
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * The next position to be read by the consumer. Only written by the consumer thread, and read by the
+     * producers to tell whether the consumer has caught up with them.
+     */
+    private volatile long head = 0;
+
+    /**
+     * Creates a new ring buffer.
+     *
+     * @param requestedCapacity the minimum capacity, rounded up to a power of two
+     */
+    public LogRingBuffer(int requestedCapacity) {
+        int capacity = Integer.highestOneBit(Math.max(2, requestedCapacity - 1)) << 1;
+        this.elements = new AtomicReferenceArray<>(capacity);
+        this.sequences = new AtomicLongArray(capacity);
+        this.mask = capacity - 1;
+
+        for (int i = 0; i < capacity; i++) {
+            this.sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Adds an element if there is room for it. Safe to call from any thread.
+     *
+     * @param element the element to add
+     * @return the number of elements still unread ahead of the added one, 0 meaning the consumer had read
+     * every earlier element and may be waiting for this one, or -1 if the buffer was full
+     */
+    public long offer(T element) {
+        long position = this.tail.get();
+
+        while (true) {
+            int index = (int) (position & this.mask);
+            long difference = this.sequences.get(index) - position;
+
+            if (difference == 0) {
+                if (this.tail.compareAndSet(position, position + 1)) {
+                    this.elements.set(index, element);
+                    this.sequences.set(index, position + 1);
+                    // Read after publishing, so a consumer finding the slot still empty is seen at this position
+                    return Math.max(0, position - this.head);
+                }
+                position = this.tail.get();
+            } else if (difference < 0) {
+                return -1;
+            } else {
+                position = this.tail.get();
+            }
+        }
+    }
+
+    /**
+     * Removes the oldest element. Must only be called from the single consumer thread.
+     *
+     * @return the oldest element, or null if the buffer is empty
+     */
+    public T poll() {
+        int index = (int) (this.head & this.mask);
+        if (this.sequences.get(index) != this.head + 1) {
+            return null;
+        }
+
+        T element = this.elements.get(index);
+        this.elements.set(index, null);
+        this.sequences.set(index, this.head + this.mask + 1);
+        this.head++;
+        return element;
+    }
+
+    /**
+     * Returns the number of slots of the buffer.
+     *
+     * @return the capacity
+     */
+    public int capacity() {
+        return this.mask + 1;
+    }
+}
@@ -0,0 +1,354 @@
+package tool.rental.utils;
+
+import java.io.PrintStream;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * An asynchronous, level-gated logger.
+ * <p>
+ * Callers only check the level and, when it is enabled, build the message and hand it to a lock-free
+ * {@link LogRingBuffer}. Formatting and writing to the console happen on a background thread, so a slow
+ * console never stalls the caller. Messages passed as a {@link Supplier} are only built when their level is
+ * enabled. When the buffer is full the message is dropped and counted instead of blocking.
+ * <p>
+ * The level is read from the {@code tool.rental.log.level} system property ({@code INFO} by default) and
+ * the buffer size from {@code tool.rental.log.bufferSize}.
+ */
+public class Logger {
+
+    /**
+     * The system property holding the minimum level to log.
+     */
+    public static final String LEVEL_PROPERTY = "tool.rental.log.level";
+
+    /**
+     * The system property holding the ring buffer capacity.
+     */
+    public static final String BUFFER_SIZE_PROPERTY = "tool.rental.log.bufferSize";
+
+    /**
+     * The minimum level logged.
+     */
+    private static volatile LogLevel LEVEL = LogLevel.fromName(System.getProperty(LEVEL_PROPERTY), LogLevel.INFO);
+
+    /**
+     * The messages waiting to be written.
+     */
+    private static final LogRingBuffer<Event> BUFFER = new LogRingBuffer<>(Integer.getInteger(BUFFER_SIZE_PROPERTY, 8192));
+
+    /**
+     * The number of messages dropped because the buffer was full.
+     */
+    private static final LongAdder DROPPED = new LongAdder();
+
+    /**
+     * The format of the timestamp written in front of each message.
+     */
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS");
+
+    /**
+     * Whether the application is shutting down and the writer should stop once the buffer is empty.
+     */
+    private static volatile boolean STOPPING = false;
+
+    /**
+     * The background thread writing the buffered messages.
+     */
+    private static final Thread WRITER = startWriter();
+
+    /**
+     * The name written with every message, usually the simple name of the logging class.
+     */
+    private final String name;
+
+    /**
+     * Creates a new logger.
+     *
+     * @param name the name written with every message
+     */
+    private Logger(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Returns a logger named after the given class.
+     *
+     * @param type the logging class
+     * @return the logger
+     */
+    public static Logger getLogger(Class<?> type) {
+        return new Logger(type.getSimpleName());
+    }
+
+    /**
+     * Returns the minimum level logged.
+     *
+     * @return the current level
+     */
+    public static LogLevel getLevel() {
+        return LEVEL;
+    }
+
+    /**
+     * Changes the minimum level logged.
+     *
+     * @param level the new level
+     */
+    public static void setLevel(LogLevel level) {
+        LEVEL = level;
+    }
+
+    /**
+     * Returns the number of messages dropped so far because the buffer was full.
+     *
+     * @return the dropped message count
+     */
+    public static long getDroppedCount() {
+        return DROPPED.sum();
+    }
+
+    /**
+     * Returns whether messages of the given level are logged.
+     *
+     * @param level the level to check
+     * @return true if the level is enabled, false otherwise
+     */
+    public boolean isEnabled(LogLevel level) {
+        return level.compareTo(LEVEL) >= 0;
+    }
+
+    /**
+     * Logs a debug message, only building it when debug is enabled.
+     *
+     * @param message the message supplier
+     */
+    public void debug(Supplier<String> message) {
+        this.log(LogLevel.DEBUG, message, null);
+    }
+
+    /**
+     * Logs an informative message.
+     *
+     * @param message the message
+     */
+    public void info(String message) {
+        this.log(LogLevel.INFO, message, null);
+    }
+
+    /**
+     * Logs an informative message, only building it when info is enabled.
+     *
+     * @param message the message supplier
+     */
+    public void info(Supplier<String> message) {
+        this.log(LogLevel.INFO, message, null);
+    }
+
+    /**
+     * Logs a warning.
+     *
+     * @param message the message
+     */
+    public void warn(String message) {
+        this.log(LogLevel.WARN, message, null);
+    }
+
+    /**
+     * Logs a warning along with its cause.
+     *
+     * @param message the message
+     * @param error   the cause
+     */
+    public void warn(String message, Throwable error) {
+        this.log(LogLevel.WARN, message, error);
+    }
+
+    /**
+     * Logs an error.
+     *
+     * @param message the message
+     */
+    public void error(String message) {
+        this.log(LogLevel.ERROR, message, null);
+    }
+
+    /**
+     * Logs an error along with its cause.
+     *
+     * @param message the message
+     * @param error   the cause
+     */
+    public void error(String message, Throwable error) {
+        this.log(LogLevel.ERROR, message, error);
+    }
+
+    /**
+     * Logs a message built by the supplier if the level is enabled.
+     *
+     * @param level   the message level
+     * @param message the message supplier
+     * @param error   the cause, or null
+     */
+    public void log(LogLevel level, Supplier<String> message, Throwable error) {
+        if (this.isEnabled(level)) {
+            this.enqueue(level, message.get(), error);
+        }
+    }
+
+    /**
+     * Logs a message if the level is enabled.
+     *
+     * @param level   the message level
+     * @param message the message
+     * @param error   the cause, or null
+     */
+    public void log(LogLevel level, String message, Throwable error) {
+        if (this.isEnabled(level)) {
+            this.enqueue(level, message, error);
+        }
+    }
+
+    /**
+     * Hands a message to the writer thread, counting it as dropped if the buffer is full.
+     *
+     * @param level   the message level
+     * @param message the message
+     * @param error   the cause, or null
+     */
+    private void enqueue(LogLevel level, String message, Throwable error) {
+        Event event = new Event(
+                System.currentTimeMillis(),
+                level,
+                this.name,
+                Thread.currentThread().getName(),
+                message,
+                error
+        );
+
+        long ahead = BUFFER.offer(event);
+        if (ahead < 0) {
+            DROPPED.increment();
+        } else if (ahead == 0) {
+            // The writer parks once it empties the buffer, so only the first message after that wakes it
+            LockSupport.unpark(WRITER);
+        }
+    }
+
+    /**
+     * Starts the writer thread and registers a shutdown hook that lets it drain the buffer.
+     *
+     * @return the writer thread
+     */
+    private static Thread startWriter() {
+        Thread writer = new Thread(Logger::drain, "log-writer");
+        writer.setDaemon(true);
+        writer.start();
+
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            STOPPING = true;
+            LockSupport.unpark(writer);
+            try {
+                writer.join(TimeUnit.SECONDS.toMillis(2));
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+        }, "log-shutdown"));
+
+        return writer;
+    }
+
+    /**
+     * The writer loop: formats and prints every buffered message, in batches, until shutdown. Once the buffer
+     * is empty the thread parks until {@link #enqueue} or the shutdown hook unparks it.
+     */
+    private static void drain() {
+        StringBuilder out = new StringBuilder(4096);
+        StringBuilder err = new StringBuilder(1024);
+        long reportedDrops = 0;
+
+        while (true) {
+            Event event;
+            while ((event = BUFFER.poll()) != null) {
+                event.appendTo(event.level().compareTo(LogLevel.WARN) >= 0 ? err : out);
+            }
+
+            long drops = DROPPED.sum();
+            if (drops != reportedDrops) {
+                err.append(String.format("%d mensagens de log descartadas (buffer cheio).%n", drops - reportedDrops));
+                reportedDrops = drops;
+            }
+
+            flush(System.out, out);
+            flush(System.err, err);
+
+            if (STOPPING) {
+                return;
+            }
+            LockSupport.park();
+        }
+    }
+
+    /**
+     * Writes and clears the pending text of a stream, if any.
+     *
+     * @param stream  the stream to write to
+     * @param pending the pending text
+     */
+    private static void flush(PrintStream stream, StringBuilder pending) {
+        if (pending.isEmpty()) {
+            return;
+        }
+        stream.print(pending);
+        stream.flush();
+        pending.setLength(0);
+    }
+
+    /**
+     * A message waiting to be written.
+     *
+     * @param timestamp the moment the message was logged, in milliseconds
+     * @param level     the message level
+     * @param logger    the name of the logger
+     * @param thread    the name of the thread that logged the message
+     * @param message   the message
+     * @param error     the cause, or null
+     */
+    private record Event(
+            long timestamp,
+            LogLevel level,
+            String logger,
+            String thread,
+            String message,
+            Throwable error
+    ) {
+
+        /**
+         * Appends the formatted message to the given text.
+         *
+         * @param text the text to append to
+         */
+        void appendTo(StringBuilder text) {
+            LocalDateTime time = LocalDateTime.ofInstant(Instant.ofEpochMilli(this.timestamp), ZoneId.systemDefault());
+            TIMESTAMP_FORMAT.formatTo(time, text);
+            text.append(' ').append(this.level)
+                    .append(" [").append(this.thread).append("] ")
+                    .append(this.logger).append(" - ")
+                    .append(this.message)
+                    .append(System.lineSeparator());
+
+            if (this.error != null) {
+                text.append(this.error).append(System.lineSeparator());
+                for (StackTraceElement element : this.error.getStackTrace()) {
+                    text.append("\tat ").append(element).append(System.lineSeparator());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package tool.rental.utils;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+
+/**
+ * An amount of money in reais, held as a whole number of cents so that sums are exact however many amounts
+ * are added.
+ * <p>
+ * Amounts are stored as INTEGER cents in the database and summed there. They are formatted as currency,
+ * such as {@code R$ 1.234,50}, with the separators of the default locale, by hand into a char array instead
+ * of through {@link String#format}, which parses its pattern and boxes the amount on every call.
+ *
+ * @param cents the amount in cents
+ */
+public record Money(long cents) implements Comparable<Money> {
+
+    /**
+     * No money.
+     */
+    public static final Money ZERO = new Money(0);
+
+    /**
+     * The symbol written before formatted amounts.
+     */
+    private static final String CURRENCY_SYMBOL = "R$ ";
+
+    /**
+     * The symbols of the locale amounts are formatted in, read once.
+     */
+    private static final DecimalFormatSymbols SYMBOLS = DecimalFormatSymbols.getInstance(
+            Locale.getDefault(Locale.Category.FORMAT)
+    );
+
+    /**
+     * The separator written between groups of thousands.
+     */
+    private static final char GROUPING_SEPARATOR = SYMBOLS.getGroupingSeparator();
+
+    /**
+     * The separator written before the cents.
+     */
+    private static final char DECIMAL_SEPARATOR = SYMBOLS.getDecimalSeparator();
+
+    /**
+     * The longest formatted amount: the symbol, a sign, 19 digits, 5 grouping separators and the decimal one.
+     */
+    private static final int MAX_FORMATTED_LENGTH = CURRENCY_SYMBOL.length() + 26;
+
+    /**
+     * Creates an amount from a number of cents.
+     *
+     * @param cents the amount in cents
+     * @return the amount
+     */
+    public static Money ofCents(long cents) {
+        return cents == 0 ? ZERO : new Money(cents);
+    }
+
+    /**
+     * Parses an amount written with a decimal point, as in 1234.5, or a decimal comma, as in R$ 1.234,50,
+     * rounding it to the cent.
+     *
+     * @param text the amount as typed or read from a file
+     * @return the amount
+     * @throws ToastError if the text is not an amount
+     */
+    public static Money parse(String text) throws ToastError {
+        if (text == null || text.isBlank()) {
+            throw new ToastError("Preço não pode ser nulo.", "Campo não pode ser nulo");
+        }
+
+        String amount = text.replace("R$", "").strip();
+        if (amount.indexOf(',') >= 0) {
+            amount = amount.replace(".", "").replace(',', '.');
+        }
+
+        try {
+            return ofCents(new BigDecimal(amount).movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact());
+        } catch (NumberFormatException | ArithmeticException exc) {
+            throw new ToastError("Preço da ferramenta inválido: " + text, "Campo inválido");
+        }
+    }
+
+    /**
+     * Adds an amount to this one.
+     *
+     * @param other the amount to add
+     * @return the sum
+     * @throws ArithmeticException if the sum overflows
+     */
+    public Money plus(Money other) {
+        return ofCents(Math.addExact(this.cents, other.cents));
+    }
+
+    /**
+     * Returns whether the amount is greater than zero.
+     *
+     * @return true if the amount is positive
+     */
+    public boolean isPositive() {
+        return this.cents > 0;
+    }
+
+    /**
+     * Writes the amount with a decimal point and two decimals, as in 1234.50, for files read by programs.
+     *
+     * @return the amount as a plain decimal number
+     */
+    public String toPlainString() {
+        long abs = Math.abs(this.cents);
+        long fraction = abs % 100;
+        return (this.cents < 0 ? "-" : "") + abs / 100 + (fraction < 10 ? ".0" : ".") + fraction;
+    }
+
+    /**
+     * Formats the amount as currency, as in R$ 1.234,50, the same as {@code String.format("R$ %,.2f")}.
+     *
+     * @return the formatted amount
+     */
+    public String format() {
+        char[] chars = new char[MAX_FORMATTED_LENGTH];
+        int start = this.formatInto(chars);
+        return new String(chars, start, chars.length - start);
+    }
+
+    /**
+     * Writes the formatted amount at the end of an array, from the last digit backwards.
+     *
+     * @param chars the array, at least {@link #MAX_FORMATTED_LENGTH} long
+     * @return the index of the first character written
+     */
+    private int formatInto(char[] chars) {
+        int position = chars.length;
+        // Long.MIN_VALUE has no positive counterpart, so digits are taken from the negative amount
+        long remaining = this.cents < 0 ? this.cents : -this.cents;
+
+        for (int i = 0; i < 2; i++) {
+            chars[--position] = (char) ('0' - remaining % 10);
+            remaining /= 10;
+        }
+        chars[--position] = DECIMAL_SEPARATOR;
+
+        int digits = 0;
+        do {
+            if (digits > 0 && digits % 3 == 0) {
+                chars[--position] = GROUPING_SEPARATOR;
+            }
+            chars[--position] = (char) ('0' - remaining % 10);
+            remaining /= 10;
+            digits++;
+        } while (remaining != 0);
+
+        if (this.cents < 0) {
+            chars[--position] = '-';
+        }
+        for (int i = CURRENCY_SYMBOL.length() - 1; i >= 0; i--) {
+            chars[--position] = CURRENCY_SYMBOL.charAt(i);
+        }
+        return position;
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(this.cents, other.cents);
+    }
+
+    @Override
+    public String toString() {
+        return this.format();
+    }
+}
@@ -0,0 +1,13 @@
+package tool.rental.utils;
+
+import java.util.List;
+
+/**
+ * A page of table rows read with keyset pagination.
+ *
+ * @param rows    the rows of the page, in order, holding the raw values of the cells
+ * @param lastKey the key of the last row, from which the next page starts, or null if the page is empty
+ * @param <K>     the type of the key rows are ordered by
+ */
+public record Page<K>(List<Object[]> rows, K lastKey) {
+}
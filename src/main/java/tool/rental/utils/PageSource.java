@@ -0,0 +1,29 @@
+package tool.rental.utils;
+
+/**
+ * Reads the rows of a table in pages, ordered by a unique key, for a {@link LazyTableModel}.
+ *
+ * @param <K> the type of the key rows are ordered by
+ */
+public interface PageSource<K> {
+
+    /**
+     * Reads the rows following a key.
+     *
+     * @param after the key of the row before the page, or null to start from the first row
+     * @param limit the maximum number of rows to read
+     * @return the page, shorter than the limit when there are no more rows
+     * @throws ToastError if the rows cannot be read
+     */
+    Page<K> load(K after, int limit) throws ToastError;
+
+    /**
+     * Skips rows without reading them, to reach a page that was never loaded.
+     *
+     * @param after the key of the row before the skipped ones, or null to start from the first row
+     * @param count the number of rows to skip
+     * @return the key of the last skipped row, or null if there are fewer rows than that
+     * @throws ToastError if the rows cannot be read
+     */
+    K skip(K after, int count) throws ToastError;
+}
@@ -3,10 +3,38 @@ package tool.rental.utils;
 import tool.rental.app.Settings;
 
 import javax.swing.*;
+import java.awt.BorderLayout;
+import java.awt.Cursor;
+import java.awt.FlowLayout;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 public abstract class PresentationFrame extends JFrame {
     final public Screen userScreen = new Screen();
 
+    /**
+     * The logger of this class.
+     */
+    private static final Logger LOGGER = Logger.getLogger(PresentationFrame.class);
+
+    /**
+     * The latest background task started under each key. Only touched on the event dispatch thread.
+     */
+    private final Map<String, CompletableFuture<?>> runningTasks = new HashMap<>();
+
+    /**
+     * The number of background tasks not finished yet, the loading indicator being shown while positive.
+     */
+    private int pendingTasks = 0;
+
+    /**
+     * The loading indicator, shown over the frame content, created on first use.
+     */
+    private JComponent loadingIndicator;
+
     public PresentationFrame() {
         super();
         ImageIcon img = new ImageIcon("src/main/java/tool/rental/app/assets/imgs/icon.jpeg");
@@ -24,4 +52,88 @@ public abstract class PresentationFrame extends JFrame {
             this.setVisible(false);
         }
     }
+
+    /**
+     * Runs blocking work, such as loading a table, on a background thread and hands its result to the event
+     * dispatch thread, showing the loading indicator meanwhile. Must be called on the event dispatch thread.
+     * <p>
+     * Starting a task under the same key as one still running supersedes it: the previous task is cancelled
+     * and its result, if it still arrives, is ignored, so only the latest request updates the screen. A
+     * {@link ToastError} thrown by the work is displayed.
+     *
+     * @param key       identifies the requests superseding each other, e.g. "load"
+     * @param task      the work to run in the background
+     * @param onSuccess receives the result on the event dispatch thread
+     * @param <T>       the type of the result
+     */
+    public <T> void runAsync(String key, Async.Task<T> task, Consumer<T> onSuccess) {
+        CompletableFuture<?> previous = this.runningTasks.remove(key);
+        if (previous != null) {
+            previous.cancel(false);
+        }
+
+        CompletableFuture<T> future = Async.supply(task);
+        this.runningTasks.put(key, future);
+        this.showLoading();
+
+        Async.onEventThread(future, (result, error) -> {
+            this.hideLoading();
+
+            if (this.runningTasks.get(key) != future) {
+                return;
+            }
+            this.runningTasks.remove(key);
+
+            if (error == null) {
+                onSuccess.accept(result);
+            } else if (error instanceof ToastError toast) {
+                toast.display();
+            } else if (!(error instanceof CancellationException)) {
+                LOGGER.error("Falha inesperada em tarefa de segundo plano.", error);
+                new ToastError("Erro inesperado: " + error.getMessage(), "Erro").display();
+            }
+        });
+    }
+
+    /**
+     * Shows the loading indicator, if it is not already shown.
+     */
+    private void showLoading() {
+        if (this.pendingTasks++ > 0) {
+            return;
+        }
+
+        if (this.loadingIndicator == null) {
+            JProgressBar progressBar = new JProgressBar();
+            progressBar.setIndeterminate(true);
+
+            JPanel corner = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+            corner.setOpaque(false);
+            corner.add(new JLabel("Carregando..."));
+            corner.add(progressBar);
+
+            // Without mouse listeners the glass pane lets clicks through to the frame content
+            JPanel glassPane = new JPanel(new BorderLayout());
+            glassPane.setOpaque(false);
+            glassPane.add(corner, BorderLayout.SOUTH);
+
+            this.loadingIndicator = glassPane;
+            this.setGlassPane(glassPane);
+        }
+
+        this.loadingIndicator.setVisible(true);
+        this.getContentPane().setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+    }
+
+    /**
+     * Hides the loading indicator once every background task finished.
+     */
+    private void hideLoading() {
+        if (--this.pendingTasks > 0) {
+            return;
+        }
+
+        this.loadingIndicator.setVisible(false);
+        this.getContentPane().setCursor(Cursor.getDefaultCursor());
+    }
 }
@@ -0,0 +1,317 @@
+package tool.rental.utils;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * An in-memory substring index over short texts, such as friend names and documents.
+ * <p>
+ * Texts are normalized (lowercase, accents and punctuation removed) and every substring of up to three
+ * characters is indexed, each mapping to the list of documents containing it. A query of up to three
+ * characters is answered by a single lookup; a longer query only checks the documents holding its rarest
+ * three-character substring. Either way the cost depends on the number of matches, not on the number of
+ * documents.
+ * <p>
+ * Documents are numbered in the order they are added. Removing a document leaves a hole, so that the
+ * numbers of the others do not change; the index should be rebuilt once holes outnumber the documents.
+ */
+public class SearchIndex {
+
+    /**
+     * The longest substring indexed.
+     */
+    private static final int GRAM_LENGTH = 3;
+
+    /**
+     * Separates the values of a document, so that no query matches across two of them.
+     */
+    private static final char SEPARATOR = '\n';
+
+    /**
+     * The indexed substrings, packed with {@link #gram(String, int, int)}, in an open addressing table where
+     * zero marks a free slot. A primitive table avoids boxing a key for each of the many lookups done while
+     * indexing.
+     */
+    private long[] grams = new long[1024];
+
+    /**
+     * The documents containing each indexed substring, in the slot of the substring in {@link #grams}.
+     */
+    private Postings[] postings = new Postings[1024];
+
+    /**
+     * The number of substrings indexed.
+     */
+    private int gramCount = 0;
+
+    /**
+     * The normalized text of each document, null once removed.
+     */
+    private final ArrayList<String> texts = new ArrayList<>();
+
+    /**
+     * The number of documents removed.
+     */
+    private int removedCount = 0;
+
+    /**
+     * Adds a document.
+     *
+     * @param values the values to index, null values being ignored
+     * @return the document number
+     */
+    public int add(String... values) {
+        StringBuilder text = new StringBuilder();
+        for (String value : values) {
+            if (value != null) {
+                text.append(normalize(value)).append(SEPARATOR);
+            }
+        }
+
+        int document = this.texts.size();
+        String normalized = text.toString();
+        this.texts.add(normalized);
+
+        for (int start = 0; start < normalized.length(); start++) {
+            for (int length = 1; length <= GRAM_LENGTH && start + length <= normalized.length(); length++) {
+                if (normalized.charAt(start + length - 1) == SEPARATOR) {
+                    break;
+                }
+                long gram = gram(normalized, start, length);
+                this.getPostings(gram, true).add(document);
+            }
+        }
+        return document;
+    }
+
+    /**
+     * Removes a document. Its number is not reused.
+     *
+     * @param document the document number
+     */
+    public void remove(int document) {
+        if (this.texts.set(document, null) != null) {
+            this.removedCount++;
+        }
+    }
+
+    /**
+     * Removes every document and starts numbering from zero again.
+     */
+    public void clear() {
+        this.grams = new long[1024];
+        this.postings = new Postings[1024];
+        this.gramCount = 0;
+        this.texts.clear();
+        this.removedCount = 0;
+    }
+
+    /**
+     * Returns the number of documents still in the index.
+     *
+     * @return the number of documents not removed
+     */
+    public int getSize() {
+        return this.texts.size() - this.removedCount;
+    }
+
+    /**
+     * Returns the number of documents removed since the index was last cleared.
+     *
+     * @return the number of holes left by removed documents
+     */
+    public int getRemovedCount() {
+        return this.removedCount;
+    }
+
+    /**
+     * Finds the documents containing a text, after normalizing it.
+     *
+     * @param query the text to look for
+     * @return the numbers of the matching documents, or null if the query is blank and matches everything
+     */
+    public BitSet search(String query) {
+        String normalized = normalize(query).trim();
+        if (normalized.isEmpty()) {
+            return null;
+        }
+
+        BitSet matches = new BitSet();
+
+        if (normalized.length() <= GRAM_LENGTH) {
+            Postings exact = this.getPostings(gram(normalized, 0, normalized.length()), false);
+            if (exact != null) {
+                for (int i = 0; i < exact.size; i++) {
+                    if (this.texts.get(exact.documents[i]) != null) {
+                        matches.set(exact.documents[i]);
+                    }
+                }
+            }
+            return matches;
+        }
+
+        // Every substring must be indexed for the query to match, and the rarest one bounds the candidates
+        Postings rarest = null;
+        for (int start = 0; start + GRAM_LENGTH <= normalized.length(); start++) {
+            Postings candidates = this.getPostings(gram(normalized, start, GRAM_LENGTH), false);
+            if (candidates == null) {
+                return matches;
+            }
+            if (rarest == null || candidates.size < rarest.size) {
+                rarest = candidates;
+            }
+        }
+
+        for (int i = 0; i < rarest.size; i++) {
+            String text = this.texts.get(rarest.documents[i]);
+            if (text != null && text.contains(normalized)) {
+                matches.set(rarest.documents[i]);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Returns the documents containing a substring.
+     *
+     * @param gram   the substring, packed with {@link #gram(String, int, int)}
+     * @param create whether to add the substring when it is not indexed yet
+     * @return the documents containing the substring, or null if it is not indexed and not created
+     */
+    private Postings getPostings(long gram, boolean create) {
+        int mask = this.grams.length - 1;
+        int slot = (int) ((gram * 0x9E3779B97F4A7C15L) >>> 40) & mask;
+
+        while (this.grams[slot] != 0) {
+            if (this.grams[slot] == gram) {
+                return this.postings[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        if (!create) {
+            return null;
+        }
+
+        Postings created = new Postings();
+        this.grams[slot] = gram;
+        this.postings[slot] = created;
+
+        // Keep the table at most half full, so probing stays short
+        if (++this.gramCount * 2 > this.grams.length) {
+            this.grow();
+        }
+        return created;
+    }
+
+    /**
+     * Doubles the size of the substring table.
+     */
+    private void grow() {
+        long[] previousGrams = this.grams;
+        Postings[] previousPostings = this.postings;
+        this.grams = new long[previousGrams.length * 2];
+        this.postings = new Postings[previousGrams.length * 2];
+        int mask = this.grams.length - 1;
+
+        for (int i = 0; i < previousGrams.length; i++) {
+            if (previousGrams[i] != 0) {
+                int slot = (int) ((previousGrams[i] * 0x9E3779B97F4A7C15L) >>> 40) & mask;
+                while (this.grams[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                this.grams[slot] = previousGrams[i];
+                this.postings[slot] = previousPostings[i];
+            }
+        }
+    }
+
+    /**
+     * Normalizes a text for searching: accents are removed, letters lowercased, punctuation dropped and
+     * whitespace collapsed into single spaces, so that "José" matches "jose" and "123.456" matches "123456".
+     *
+     * @param text the text to normalize
+     * @return the normalized text
+     */
+    public static String normalize(String text) {
+        // Decomposing is only needed to strip accents, which plain ASCII texts do not have
+        String decomposed = isAscii(text) ? text : Normalizer.normalize(text, Normalizer.Form.NFD);
+        StringBuilder normalized = new StringBuilder(decomposed.length());
+
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                normalized.append(Character.toLowerCase(c));
+            } else if (Character.isWhitespace(c)
+                    && normalized.length() > 0
+                    && normalized.charAt(normalized.length() - 1) != ' ') {
+                normalized.append(' ');
+            }
+        }
+        return normalized.toString();
+    }
+
+    /**
+     * Tells whether a text only holds ASCII characters.
+     *
+     * @param text the text
+     * @return true if no character is above 127
+     */
+    private static boolean isAscii(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) > 127) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Packs a substring of up to three characters into a single key.
+     *
+     * @param text   the text holding the substring
+     * @param start  the index of its first character
+     * @param length its length, from one to three
+     * @return the key of the substring
+     */
+    private static long gram(String text, int start, int length) {
+        long gram = length;
+        for (int i = 0; i < length; i++) {
+            gram = (gram << 16) | text.charAt(start + i);
+        }
+        return gram;
+    }
+
+    /**
+     * A growable list of document numbers, in increasing order since documents are only ever appended.
+     */
+    private static final class Postings {
+
+        /**
+         * The document numbers, only the first {@link #size} being used.
+         */
+        private int[] documents = new int[4];
+
+        /**
+         * The number of documents in the list.
+         */
+        private int size = 0;
+
+        /**
+         * Appends a document, unless it is already the last one.
+         *
+         * @param document the document number
+         */
+        private void add(int document) {
+            // A substring repeated in the same document is listed once
+            if (this.size > 0 && this.documents[this.size - 1] == document) {
+                return;
+            }
+            if (this.size == this.documents.length) {
+                this.documents = Arrays.copyOf(this.documents, this.size * 2);
+            }
+            this.documents[this.size++] = document;
+        }
+    }
+}
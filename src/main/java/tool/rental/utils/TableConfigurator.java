@@ -1,8 +1,12 @@
 package tool.rental.utils;
 
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
+import javax.swing.table.TableCellRenderer;
 import javax.swing.table.TableColumn;
+import javax.swing.table.TableModel;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.util.Collection;
 
 /**
  * Utility class for configuring and managing Swing JTable components.
@@ -10,6 +14,11 @@ import javax.swing.table.TableColumn;
 public class TableConfigurator {
     private final JTable table;
 
+    /**
+     * Whether the viewport of the JTable reports the rows in view to its lazy models.
+     */
+    private boolean tracksVisibleRows = false;
+
     /**
      * Constructs a TableConfigurator with the specified JTable.
      *
@@ -17,15 +26,17 @@ public class TableConfigurator {
      */
     public TableConfigurator(JTable table) {
         this.table = table;
+        this.table.setModel(new ArrayTableModel());
     }
 
     /**
-     * Retrieves the DefaultTableModel associated with the configured JTable.
+     * Retrieves the ArrayTableModel associated with the configured JTable. Only valid while the table has not
+     * been set up with a custom model.
      *
-     * @return the DefaultTableModel of the JTable
+     * @return the ArrayTableModel of the JTable
      */
-    private DefaultTableModel getTableModel() {
-        return (DefaultTableModel) table.getModel();
+    public ArrayTableModel getTableModel() {
+        return (ArrayTableModel) table.getModel();
     }
 
     /**
@@ -45,14 +56,65 @@ public class TableConfigurator {
      * @param hiddenColumns  an array of column indices to be hidden
      */
     public void setup(String[] columns, int[] hiddenColumns) {
-        table.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
-        DefaultTableModel model = getTableModel();
+        ArrayTableModel model = getTableModel();
 
         // Add columns
         for (String column : columns) {
             model.addColumn(column);
         }
 
+        configure(hiddenColumns);
+    }
+
+    /**
+     * Configures the JTable to display the given model, which defines its own columns, hiding the columns
+     * specified in hiddenColumns. Rows are then managed by the model instead of this configurator.
+     *
+     * @param model          the model providing columns and rows
+     * @param hiddenColumns  an array of column indices to be hidden
+     */
+    public void setup(TableModel model, int[] hiddenColumns) {
+        table.setModel(model);
+        configure(hiddenColumns);
+
+        if (model instanceof LazyTableModel<?> && table.getParent() instanceof JViewport viewport) {
+            if (!tracksVisibleRows) {
+                viewport.addChangeListener(event -> showVisibleRows(viewport));
+                tracksVisibleRows = true;
+            }
+            showVisibleRows(viewport);
+        }
+    }
+
+    /**
+     * Tells the lazy model of the JTable, if it has one, which rows are in view, so that it does not read the
+     * pages scrolled past.
+     *
+     * @param viewport the viewport the JTable scrolls in
+     */
+    private void showVisibleRows(JViewport viewport) {
+        Rectangle view = viewport.getViewRect();
+        if (!(table.getModel() instanceof LazyTableModel<?> model) || view.isEmpty()) {
+            return;
+        }
+
+        int first = table.rowAtPoint(view.getLocation());
+        int last = table.rowAtPoint(new Point(view.x, view.y + view.height - 1));
+        if (first < 0) {
+            // No row is in view yet, or the rows end above it
+            first = Math.max(0, table.getRowCount() - 1);
+        }
+        model.setVisibleRows(first, last < 0 ? table.getRowCount() - 1 : last);
+    }
+
+    /**
+     * Applies the selection mode, hidden columns and read-only editing shared by every table.
+     *
+     * @param hiddenColumns an array of column indices to be hidden
+     */
+    private void configure(int[] hiddenColumns) {
+        table.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+
         // Hide specified columns
         if (hiddenColumns != null) {
             for (int idx : hiddenColumns) {
@@ -75,31 +137,63 @@ public class TableConfigurator {
         setup(columns, new int[]{0});
     }
 
+    /**
+     * Renders the cells of a column with the given renderer, such as a {@link FormattedCellRenderer} turning
+     * the raw values of the column into text only for the cells painted. Must be called once the columns are
+     * set up.
+     *
+     * @param column   the index of the column
+     * @param renderer the renderer
+     */
+    public void setRenderer(int column, TableCellRenderer renderer) {
+        getColumn(column).setCellRenderer(renderer);
+    }
+
+    /**
+     * Filters the rows of the JTable by the text typed in a field, looking it up in the given columns. Must be
+     * called once the columns are set up.
+     *
+     * @param field   the field holding the text to look for
+     * @param columns the indices of the columns searched
+     */
+    public void setupFilter(JTextField field, int... columns) {
+        new TableFilter(table, getTableModel(), field, columns);
+    }
+
     /**
      * Inserts a single row into the JTable.
      *
      * @param row an array representing the data of a single row
      */
-    public void insertRow(String[] row) {
-        DefaultTableModel model = getTableModel();
+    public void insertRow(Object[] row) {
+        ArrayTableModel model = getTableModel();
         model.addRow(row);
     }
 
     /**
-     * Inserts multiple rows into the JTable, optionally resetting the table before insertion.
+     * Inserts multiple rows into the JTable at once, optionally resetting the table before insertion. A single
+     * table event is fired whatever the number of rows.
      *
-     * @param rows        an Iterable containing arrays of row data
+     * @param rows        a Collection containing arrays of row data
      * @param resetTable  a boolean indicating whether to reset the table before insertion
      */
-    public void insertRows(Iterable<String[]> rows, boolean resetTable) {
-        DefaultTableModel model = getTableModel();
+    public void insertRows(Collection<? extends Object[]> rows, boolean resetTable) {
+        ArrayTableModel model = getTableModel();
 
         if (resetTable) {
-            model.setNumRows(0);
+            model.setRows(rows);
+        } else {
+            model.addRows(rows);
         }
+    }
 
-        for (String[] row : rows) {
-            insertRow(row);
-        }
+    /**
+     * Replaces the rows of the JTable, firing events only for the rows that changed, so that reloading data
+     * that mostly did not change keeps the selection and scroll position.
+     *
+     * @param rows a Collection containing arrays of row data
+     */
+    public void updateRows(Collection<? extends Object[]> rows) {
+        getTableModel().updateRows(rows);
     }
 }
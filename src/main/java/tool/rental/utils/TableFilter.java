@@ -0,0 +1,239 @@
+package tool.rental.utils;
+
+import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.event.TableModelEvent;
+import javax.swing.event.TableModelListener;
+import javax.swing.table.TableRowSorter;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Filters the rows of a table by the text typed in a field, looking it up in a {@link SearchIndex}.
+ * <p>
+ * Rows are hidden through a {@link RowFilter} rather than removed from the model, so clearing the field
+ * shows them again without reloading. The index is built when the rows are first set and kept up to date
+ * from the model events, indexing only the rows inserted or updated. Typing is debounced, the lookup running
+ * once the user pauses.
+ */
+public class TableFilter implements TableModelListener {
+
+    /**
+     * The logger of this class.
+     */
+    private static final Logger LOGGER = Logger.getLogger(TableFilter.class);
+
+    /**
+     * How long to wait after the last keystroke before filtering, in milliseconds.
+     */
+    private static final int DEBOUNCE_MILLIS = 150;
+
+    /**
+     * The model holding every row.
+     */
+    private final ArrayTableModel model;
+
+    /**
+     * The indices of the columns searched.
+     */
+    private final int[] columns;
+
+    /**
+     * The field holding the text to look for.
+     */
+    private final JTextField field;
+
+    /**
+     * Hides the rows not matching the text.
+     */
+    private final TableRowSorter<ArrayTableModel> sorter;
+
+    /**
+     * The searched values of the rows.
+     */
+    private final SearchIndex index = new SearchIndex();
+
+    /**
+     * Waits for the user to stop typing.
+     */
+    private final Timer debounce;
+
+    /**
+     * The document of each model row, only the first {@link #indexedRows} being used.
+     */
+    private int[] documentOfRow = new int[0];
+
+    /**
+     * The number of model rows indexed.
+     */
+    private int indexedRows = 0;
+
+    /**
+     * The documents matching the text, or null when the field is blank and every row is shown.
+     */
+    private BitSet matches;
+
+    /**
+     * Filters a table by the text typed in a field.
+     *
+     * @param table   the table to filter, displaying the given model
+     * @param model   the model holding every row
+     * @param field   the field holding the text to look for
+     * @param columns the indices of the columns searched
+     */
+    public TableFilter(JTable table, ArrayTableModel model, JTextField field, int... columns) {
+        this.model = model;
+        this.columns = columns;
+        this.field = field;
+
+        this.sorter = new TableRowSorter<>(model);
+        for (int column = 0; column < model.getColumnCount(); column++) {
+            this.sorter.setSortable(column, false);
+        }
+        // Updated rows may start or stop matching
+        this.sorter.setSortsOnUpdates(true);
+        table.setRowSorter(this.sorter);
+
+        // Listeners are notified last registered first, so the index is updated before the table filters
+        this.model.addTableModelListener(this);
+        this.rebuild();
+
+        this.debounce = new Timer(DEBOUNCE_MILLIS, event -> this.apply());
+        this.debounce.setRepeats(false);
+        this.field.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                debounce.restart();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                debounce.restart();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                debounce.restart();
+            }
+        });
+    }
+
+    /**
+     * Looks up the text of the field and shows only the matching rows.
+     */
+    private void apply() {
+        long start = System.nanoTime();
+        this.search();
+        this.sorter.setRowFilter(this.matches == null ? null : new RowFilter<>() {
+            @Override
+            public boolean include(Entry<? extends ArrayTableModel, ? extends Integer> entry) {
+                return matches.get(documentOfRow[entry.getIdentifier()]);
+            }
+        });
+        LOGGER.debug(() -> String.format(
+                "Filtered %d rows in %.3f ms.", this.indexedRows, (System.nanoTime() - start) / 1e6
+        ));
+    }
+
+    /**
+     * Looks up the text of the field in the index.
+     */
+    private void search() {
+        this.matches = this.index.search(this.field.getText());
+    }
+
+    @Override
+    public void tableChanged(TableModelEvent event) {
+        int first = event.getFirstRow();
+        int last = event.getLastRow();
+
+        if (first == TableModelEvent.HEADER_ROW || last == Integer.MAX_VALUE) {
+            this.rebuild();
+        } else if (event.getType() == TableModelEvent.INSERT) {
+            this.insert(first, last);
+        } else if (event.getType() == TableModelEvent.DELETE) {
+            this.delete(first, last);
+        } else {
+            for (int row = first; row <= last; row++) {
+                this.index.remove(this.documentOfRow[row]);
+                this.documentOfRow[row] = this.addDocument(row);
+            }
+        }
+
+        // Holes left by removed rows slow lookups down, so start over once they outnumber the rows
+        if (this.index.getRemovedCount() > this.index.getSize()) {
+            this.rebuild();
+        }
+
+        if (this.matches != null) {
+            this.search();
+        }
+    }
+
+    /**
+     * Indexes every row of the model again.
+     */
+    private void rebuild() {
+        this.index.clear();
+        this.indexedRows = 0;
+        this.documentOfRow = new int[this.model.getRowCount()];
+        this.insert(0, this.model.getRowCount() - 1);
+    }
+
+    /**
+     * Indexes rows inserted in the model.
+     *
+     * @param first the index of the first row inserted
+     * @param last  the index of the last row inserted
+     */
+    private void insert(int first, int last) {
+        int count = last - first + 1;
+        if (count <= 0) {
+            return;
+        }
+
+        if (this.indexedRows + count > this.documentOfRow.length) {
+            this.documentOfRow = Arrays.copyOf(
+                    this.documentOfRow,
+                    Math.max(this.indexedRows + count, this.documentOfRow.length * 2)
+            );
+        }
+        System.arraycopy(this.documentOfRow, first, this.documentOfRow, last + 1, this.indexedRows - first);
+        this.indexedRows += count;
+
+        for (int row = first; row <= last; row++) {
+            this.documentOfRow[row] = this.addDocument(row);
+        }
+    }
+
+    /**
+     * Removes rows deleted from the model from the index.
+     *
+     * @param first the index of the first row deleted
+     * @param last  the index of the last row deleted
+     */
+    private void delete(int first, int last) {
+        for (int row = first; row <= last; row++) {
+            this.index.remove(this.documentOfRow[row]);
+        }
+        System.arraycopy(this.documentOfRow, last + 1, this.documentOfRow, first, this.indexedRows - last - 1);
+        this.indexedRows -= last - first + 1;
+    }
+
+    /**
+     * Indexes the searched values of a model row.
+     *
+     * @param row the model row index
+     * @return the document number
+     */
+    private int addDocument(int row) {
+        Object[] values = this.model.getRow(row);
+        String[] searched = new String[this.columns.length];
+        for (int i = 0; i < this.columns.length; i++) {
+            Object value = this.columns[i] < values.length ? values[this.columns[i]] : null;
+            searched[i] = value == null ? null : value.toString();
+        }
+        return this.index.add(searched);
+    }
+}
@@ -0,0 +1,3 @@
+-- Serves the tools listed page by page in name order
+
+CREATE INDEX IF NOT EXISTS TOOL_user_id_name_IDX ON TOOL (user_id, name, id);
@@ -0,0 +1,121 @@
+-- Per-user counters kept up to date by triggers.
+
+-- USER_STATS definition, kept up to date by the triggers below
+
+CREATE TABLE IF NOT EXISTS USER_STATS (
+	user_id TEXT(36) NOT NULL,
+	tool_count INTEGER DEFAULT (0) NOT NULL,
+	tool_cost REAL DEFAULT (0) NOT NULL,
+	open_rental_count INTEGER DEFAULT (0) NOT NULL,
+	friend_count INTEGER DEFAULT (0) NOT NULL,
+	CONSTRAINT USER_STATS_PK PRIMARY KEY (user_id),
+	CONSTRAINT USER_STATS_USER_FK FOREIGN KEY (user_id) REFERENCES "USER"(id) ON DELETE CASCADE
+);
+
+CREATE TRIGGER IF NOT EXISTS USER_STATS_user_insert AFTER INSERT ON "USER"
+BEGIN
+	INSERT OR IGNORE INTO USER_STATS (user_id) VALUES (NEW.id);
+END;
+
+CREATE TRIGGER IF NOT EXISTS USER_STATS_user_delete AFTER DELETE ON "USER"
+BEGIN
+	DELETE FROM USER_STATS WHERE user_id = OLD.id;
+END;
+
+CREATE TRIGGER IF NOT EXISTS USER_STATS_tool_insert AFTER INSERT ON TOOL
+BEGIN
+	UPDATE USER_STATS
+	SET tool_count = tool_count + 1, tool_cost = tool_cost + NEW.cost
+	WHERE user_id = NEW.user_id;
+END;
+
+-- Open rentals of a deleted tool stop counting, as the summary only counts rentals of existing tools
+
+CREATE TRIGGER IF NOT EXISTS USER_STATS_tool_delete AFTER DELETE ON TOOL
+BEGIN
+	UPDATE USER_STATS
+	SET tool_count = tool_count - 1,
+		tool_cost = tool_cost - OLD.cost,
+		open_rental_count = open_rental_count - (
+			SELECT COUNT(r.id) FROM RENTAL r WHERE r.tool_id = OLD.id AND r.devolution_timestamp is null
+		)
+	WHERE user_id = OLD.user_id;
+END;
+
+CREATE TRIGGER IF NOT EXISTS USER_STATS_tool_update AFTER UPDATE OF cost, user_id ON TOOL
+BEGIN
+	UPDATE USER_STATS
+	SET tool_count = tool_count - 1,
+		tool_cost = tool_cost - OLD.cost,
+		open_rental_count = open_rental_count - (
+			SELECT COUNT(r.id) FROM RENTAL r WHERE r.tool_id = OLD.id AND r.devolution_timestamp is null
+		)
+	WHERE user_id = OLD.user_id;
+
+	UPDATE USER_STATS
+	SET tool_count = tool_count + 1,
+		tool_cost = tool_cost + NEW.cost,
+		open_rental_count = open_rental_count + (
+			SELECT COUNT(r.id) FROM RENTAL r WHERE r.tool_id = NEW.id AND r.devolution_timestamp is null
+		)
+	WHERE user_id = NEW.user_id;
+END;
+
+CREATE TRIGGER IF NOT EXISTS USER_STATS_friend_insert AFTER INSERT ON FRIEND
+BEGIN
+	UPDATE USER_STATS SET friend_count = friend_count + 1 WHERE user_id = NEW.user_id;
+END;
+
+CREATE TRIGGER IF NOT EXISTS USER_STATS_friend_delete AFTER DELETE ON FRIEND
+BEGIN
+	UPDATE USER_STATS SET friend_count = friend_count - 1 WHERE user_id = OLD.user_id;
+END;
+
+CREATE TRIGGER IF NOT EXISTS USER_STATS_friend_update AFTER UPDATE OF user_id ON FRIEND
+BEGIN
+	UPDATE USER_STATS SET friend_count = friend_count - 1 WHERE user_id = OLD.user_id;
+	UPDATE USER_STATS SET friend_count = friend_count + 1 WHERE user_id = NEW.user_id;
+END;
+
+CREATE TRIGGER IF NOT EXISTS USER_STATS_rental_insert AFTER INSERT ON RENTAL
+WHEN NEW.devolution_timestamp is null
+BEGIN
+	UPDATE USER_STATS SET open_rental_count = open_rental_count + 1
+	WHERE user_id = (SELECT t.user_id FROM TOOL t WHERE t.id = NEW.tool_id);
+END;
+
+CREATE TRIGGER IF NOT EXISTS USER_STATS_rental_delete AFTER DELETE ON RENTAL
+WHEN OLD.devolution_timestamp is null
+BEGIN
+	UPDATE USER_STATS SET open_rental_count = open_rental_count - 1
+	WHERE user_id = (SELECT t.user_id FROM TOOL t WHERE t.id = OLD.tool_id);
+END;
+
+-- Covers devolutions (null to a timestamp), reopened rentals and rentals moved to another tool
+
+CREATE TRIGGER IF NOT EXISTS USER_STATS_rental_update AFTER UPDATE OF devolution_timestamp, tool_id ON RENTAL
+BEGIN
+	UPDATE USER_STATS SET open_rental_count = open_rental_count - 1
+	WHERE OLD.devolution_timestamp is null
+		AND user_id = (SELECT t.user_id FROM TOOL t WHERE t.id = OLD.tool_id);
+
+	UPDATE USER_STATS SET open_rental_count = open_rental_count + 1
+	WHERE NEW.devolution_timestamp is null
+		AND user_id = (SELECT t.user_id FROM TOOL t WHERE t.id = NEW.tool_id);
+END;
+
+-- Creates the counters of the users registered before USER_STATS existed
+
+INSERT OR IGNORE INTO USER_STATS (user_id, tool_count, tool_cost, open_rental_count, friend_count)
+SELECT
+	u.id,
+	(SELECT COUNT(t.id) FROM TOOL t WHERE t.user_id = u.id),
+	(SELECT TOTAL(t.cost) FROM TOOL t WHERE t.user_id = u.id),
+	(
+		SELECT COUNT(r.id)
+		FROM RENTAL r
+		INNER JOIN TOOL t on t.id = r.tool_id
+		WHERE t.user_id = u.id AND r.devolution_timestamp is null
+	),
+	(SELECT COUNT(f.id) FROM FRIEND f WHERE f.user_id = u.id)
+FROM "USER" u;
@@ -0,0 +1,66 @@
+-- Full-text indexes over tools and friends.
+
+-- TOOL_FTS definition, a full-text index over TOOL reading the text from TOOL itself
+
+CREATE VIRTUAL TABLE IF NOT EXISTS TOOL_FTS USING fts5(
+	brand,
+	name,
+	content = 'TOOL',
+	content_rowid = 'rowid',
+	tokenize = 'unicode61 remove_diacritics 2',
+	prefix = '2 3'
+);
+
+CREATE TRIGGER IF NOT EXISTS TOOL_FTS_insert AFTER INSERT ON TOOL
+BEGIN
+	INSERT INTO TOOL_FTS (rowid, brand, name) VALUES (NEW.rowid, NEW.brand, NEW.name);
+END;
+
+CREATE TRIGGER IF NOT EXISTS TOOL_FTS_delete AFTER DELETE ON TOOL
+BEGIN
+	INSERT INTO TOOL_FTS (TOOL_FTS, rowid, brand, name) VALUES ('delete', OLD.rowid, OLD.brand, OLD.name);
+END;
+
+CREATE TRIGGER IF NOT EXISTS TOOL_FTS_update AFTER UPDATE OF brand, name ON TOOL
+BEGIN
+	INSERT INTO TOOL_FTS (TOOL_FTS, rowid, brand, name) VALUES ('delete', OLD.rowid, OLD.brand, OLD.name);
+	INSERT INTO TOOL_FTS (rowid, brand, name) VALUES (NEW.rowid, NEW.brand, NEW.name);
+END;
+
+-- FRIEND_FTS definition, a full-text index over FRIEND reading the text from FRIEND itself
+
+CREATE VIRTUAL TABLE IF NOT EXISTS FRIEND_FTS USING fts5(
+	name,
+	phone,
+	social_security,
+	content = 'FRIEND',
+	content_rowid = 'rowid',
+	tokenize = 'unicode61 remove_diacritics 2',
+	prefix = '2 3'
+);
+
+CREATE TRIGGER IF NOT EXISTS FRIEND_FTS_insert AFTER INSERT ON FRIEND
+BEGIN
+	INSERT INTO FRIEND_FTS (rowid, name, phone, social_security)
+	VALUES (NEW.rowid, NEW.name, NEW.phone, NEW.social_security);
+END;
+
+CREATE TRIGGER IF NOT EXISTS FRIEND_FTS_delete AFTER DELETE ON FRIEND
+BEGIN
+	INSERT INTO FRIEND_FTS (FRIEND_FTS, rowid, name, phone, social_security)
+	VALUES ('delete', OLD.rowid, OLD.name, OLD.phone, OLD.social_security);
+END;
+
+CREATE TRIGGER IF NOT EXISTS FRIEND_FTS_update AFTER UPDATE OF name, phone, social_security ON FRIEND
+BEGIN
+	INSERT INTO FRIEND_FTS (FRIEND_FTS, rowid, name, phone, social_security)
+	VALUES ('delete', OLD.rowid, OLD.name, OLD.phone, OLD.social_security);
+	INSERT INTO FRIEND_FTS (rowid, name, phone, social_security)
+	VALUES (NEW.rowid, NEW.name, NEW.phone, NEW.social_security);
+END;
+
+-- Indexes the tools and friends registered before the full-text indexes existed
+
+INSERT INTO TOOL_FTS (TOOL_FTS) VALUES ('rebuild');
+
+INSERT INTO FRIEND_FTS (FRIEND_FTS) VALUES ('rebuild');
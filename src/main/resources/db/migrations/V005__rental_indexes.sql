@@ -0,0 +1,16 @@
+-- Indexes the lookups of open rentals, the rentals of a friend and the rentals listed by date
+
+-- Serves the open rental of each tool, joined by the main tool table; closed rentals are left out, so the
+-- index only grows with the tools currently lent
+
+CREATE INDEX IF NOT EXISTS RENTAL_open_tool_id_IDX ON RENTAL (tool_id) WHERE devolution_timestamp IS NULL;
+
+-- Serves the rentals of a friend, open ones included; replaces RENTAL_friend_id_IDX, of which it is an extension
+
+CREATE INDEX IF NOT EXISTS RENTAL_friend_id_devolution_timestamp_IDX ON RENTAL (friend_id, devolution_timestamp);
+
+DROP INDEX IF EXISTS RENTAL_friend_id_IDX;
+
+-- Serves the rentals listed from the most recent
+
+CREATE INDEX IF NOT EXISTS RENTAL_rental_timestamp_IDX ON RENTAL (rental_timestamp);
@@ -0,0 +1,21 @@
+-- Allows a single open rental per tool, so that two lends of the same tool cannot both succeed
+
+-- Tools already lent twice keep their first rental open, the later ones being closed as returned when they
+-- started, since the unique index cannot be created over them
+
+UPDATE RENTAL
+SET devolution_timestamp = rental_timestamp
+WHERE devolution_timestamp IS NULL
+  AND EXISTS (
+	SELECT 1
+	FROM RENTAL first
+	WHERE first.tool_id = RENTAL.tool_id
+	  AND first.devolution_timestamp IS NULL
+	  AND (first.rental_timestamp, first.id) < (RENTAL.rental_timestamp, RENTAL.id)
+  );
+
+-- Replaces RENTAL_open_tool_id_IDX, serving the same lookups
+
+CREATE UNIQUE INDEX IF NOT EXISTS RENTAL_open_tool_id_unique_IDX ON RENTAL (tool_id) WHERE devolution_timestamp IS NULL;
+
+DROP INDEX IF EXISTS RENTAL_open_tool_id_IDX;
@@ -0,0 +1,4 @@
+-- Serves the lookup of a friend by name and social security number, made for every friend registered or
+-- imported, which otherwise reads every friend of the user
+
+CREATE INDEX IF NOT EXISTS FRIEND_user_id_social_security_IDX ON FRIEND (user_id, social_security, name);
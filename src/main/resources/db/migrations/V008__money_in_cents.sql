@@ -0,0 +1,67 @@
+-- Stores tool costs and their per-user sums as whole cents, so that sums are exact however many tools there are
+
+-- The counter triggers read the columns replaced below, so they are dropped first and created again at the end
+
+DROP TRIGGER IF EXISTS USER_STATS_tool_insert;
+
+DROP TRIGGER IF EXISTS USER_STATS_tool_delete;
+
+DROP TRIGGER IF EXISTS USER_STATS_tool_update;
+
+-- TOOL.cost_cents replaces TOOL.cost; the column is altered in place rather than the table rebuilt, so that the
+-- rowids TOOL_FTS refers to are kept
+
+ALTER TABLE TOOL ADD COLUMN cost_cents INTEGER NOT NULL DEFAULT 0;
+
+UPDATE TOOL SET cost_cents = CAST(ROUND(cost * 100) AS INTEGER);
+
+ALTER TABLE TOOL DROP COLUMN cost;
+
+-- USER_STATS.tool_cost_cents replaces USER_STATS.tool_cost, recomputed from the costs in cents rather than
+-- converted, which also drops the rounding the floating point sum accumulated
+
+ALTER TABLE USER_STATS ADD COLUMN tool_cost_cents INTEGER NOT NULL DEFAULT 0;
+
+UPDATE USER_STATS
+SET tool_cost_cents = (SELECT IFNULL(SUM(t.cost_cents), 0) FROM TOOL t WHERE t.user_id = USER_STATS.user_id);
+
+ALTER TABLE USER_STATS DROP COLUMN tool_cost;
+
+CREATE TRIGGER IF NOT EXISTS USER_STATS_tool_insert AFTER INSERT ON TOOL
+BEGIN
+	UPDATE USER_STATS
+	SET tool_count = tool_count + 1, tool_cost_cents = tool_cost_cents + NEW.cost_cents
+	WHERE user_id = NEW.user_id;
+END;
+
+-- Open rentals of a deleted tool stop counting, as the summary only counts rentals of existing tools
+
+CREATE TRIGGER IF NOT EXISTS USER_STATS_tool_delete AFTER DELETE ON TOOL
+BEGIN
+	UPDATE USER_STATS
+	SET tool_count = tool_count - 1,
+		tool_cost_cents = tool_cost_cents - OLD.cost_cents,
+		open_rental_count = open_rental_count - (
+			SELECT COUNT(r.id) FROM RENTAL r WHERE r.tool_id = OLD.id AND r.devolution_timestamp is null
+		)
+	WHERE user_id = OLD.user_id;
+END;
+
+CREATE TRIGGER IF NOT EXISTS USER_STATS_tool_update AFTER UPDATE OF cost_cents, user_id ON TOOL
+BEGIN
+	UPDATE USER_STATS
+	SET tool_count = tool_count - 1,
+		tool_cost_cents = tool_cost_cents - OLD.cost_cents,
+		open_rental_count = open_rental_count - (
+			SELECT COUNT(r.id) FROM RENTAL r WHERE r.tool_id = OLD.id AND r.devolution_timestamp is null
+		)
+	WHERE user_id = OLD.user_id;
+
+	UPDATE USER_STATS
+	SET tool_count = tool_count + 1,
+		tool_cost_cents = tool_cost_cents + NEW.cost_cents,
+		open_rental_count = open_rental_count + (
+			SELECT COUNT(r.id) FROM RENTAL r WHERE r.tool_id = NEW.id AND r.devolution_timestamp is null
+		)
+	WHERE user_id = NEW.user_id;
+END;
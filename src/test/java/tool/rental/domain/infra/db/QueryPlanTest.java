@@ -0,0 +1,189 @@
+package tool.rental.domain.infra.db;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import tool.rental.app.Settings;
+import tool.rental.domain.dao.NewFriend;
+import tool.rental.domain.dao.NewRental;
+import tool.rental.domain.dao.NewTool;
+import tool.rental.domain.dao.RentalReportFilter;
+import tool.rental.domain.dao.ToolPageKey;
+import tool.rental.domain.entities.Friend;
+import tool.rental.domain.entities.Rental;
+import tool.rental.domain.entities.Tool;
+import tool.rental.domain.entities.User;
+import tool.rental.domain.repositories.CacheRepository;
+import tool.rental.domain.repositories.FriendRepository;
+import tool.rental.domain.repositories.RentalRepository;
+import tool.rental.domain.repositories.ToolRepository;
+import tool.rental.domain.repositories.UserRepository;
+import tool.rental.domain.repositories.UserStatsRepository;
+import tool.rental.utils.Money;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs every repository method against a freshly migrated database, then checks with the
+ * {@link QueryPlanChecker} that none of the queries they executed scans a whole table.
+ */
+class QueryPlanTest {
+
+    /**
+     * The queries meant to read every row, by a fragment of their SQL text, with the reason they may.
+     */
+    private static final Map<String, String> FULL_SCANS_ALLOWED = Map.of(
+            "SELECT version, checksum FROM SCHEMA_VERSION",
+            "every migration applied is checked",
+            "u.id as user_id",
+            "the USER_STATS consistency check goes through every user",
+            "FROM CACHE JOIN USER",
+            "the CACHE table holds the logged user only",
+            "WHERE t.user_id = ? ORDER BY r__rental_timestamp DESC",
+            "RentalRepository.openAll lists every rental, walking RENTAL_rental_timestamp_IDX in date order",
+            "WHERE t.user_id = ? ORDER BY r.rental_timestamp, r.id",
+            "the unfiltered rental report exports every rental, walking RENTAL_rental_timestamp_IDX in date order"
+    );
+
+    /**
+     * The directory of the database file.
+     */
+    @TempDir
+    static Path directory;
+
+    /**
+     * Points the application at a database file of its own, before the connection pool opens it.
+     */
+    @BeforeAll
+    static void useTemporaryDatabase() {
+        System.setProperty(ConnectionPool.DATABASE_PATH_PROPERTY, directory.resolve("db").toString());
+    }
+
+    @Test
+    void repositoryQueriesUseIndexes() throws Exception {
+        new SchemaMigrator().migrate();
+        this.runRepositories();
+
+        ArrayList<String> failures = new ArrayList<>();
+        List<QueryLatency> queries = QueryStats.getInstance().getSnapshot();
+        assertFalse(queries.isEmpty(), "No query was recorded.");
+
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + directory.resolve("db"))) {
+            for (QueryLatency query : queries) {
+                String sql = query.sql();
+                if (!sql.startsWith("SELECT") && !sql.startsWith("WITH") && !sql.startsWith("UPDATE") && !sql.startsWith("DELETE")
+                        || FULL_SCANS_ALLOWED.keySet().stream().anyMatch(sql::contains)) {
+                    continue;
+                }
+
+                List<String> fullScans = QueryPlanChecker.findFullScans(connection, sql);
+                if (!fullScans.isEmpty()) {
+                    failures.add(String.join("; ", fullScans) + ": " + sql);
+                }
+            }
+        }
+
+        assertTrue(failures.isEmpty(), "Queries reading whole tables:\n" + String.join("\n", failures));
+    }
+
+    /**
+     * Calls every repository method, so that each of their queries is executed at least once.
+     */
+    private void runRepositories() throws Exception {
+        UserRepository users = new UserRepository();
+        users.createUser("plan", "secret");
+        users.existsByUsername("plan");
+        users.findByUsername("plan");
+        User user = users.findByUsernameAndPassword("plan", "secret");
+        users.setMock(user, false);
+        Settings.setUser(user);
+
+        CacheRepository cache = new CacheRepository();
+        cache.setUserAsCached(user);
+        cache.getCache();
+        cache.clearCache();
+
+        ToolRepository tools = new ToolRepository();
+        FriendRepository friends = new FriendRepository();
+        RentalRepository rentals = new RentalRepository();
+
+        Tool tool = tools.createTool("Bosch", "Furadeira", Money.ofCents(15_000));
+        Tool other = tools.createTool("Makita", "Serra", Money.ofCents(30_000));
+        List<String> toolIds = tools.createTools(List.of(new NewTool("Tramontina", "Martelo", Money.ofCents(2_500)))).ids();
+        NewTool missingTool = new NewTool("Vonder", "Alicate", Money.ZERO);
+        assertEquals(List.of(missingTool), tools.withoutExisting(List.of(new NewTool("Bosch", "Furadeira", Money.ZERO), missingTool)));
+        tools.existsByNameAndBrand("Furadeira", "Bosch");
+
+        Friend friend = friends.createFriend("Ana", "5551234", "123.456.789-00");
+        List<String> friendIds = friends.createFriends(List.of(new NewFriend("Bruno", "5554321", "987.654.321-00"))).ids();
+        NewFriend missingFriend = new NewFriend("Carla", "5559876", "111.222.333-44");
+        assertEquals(List.of(missingFriend), friends.withoutExisting(List.of(new NewFriend("Ana", "5551234", "123.456.789-00"), missingFriend)));
+        friends.existsByNameAndSocial_Security("Ana", "123.456.789-00");
+
+        rentals.create(System.currentTimeMillis(), friend, tool);
+        rentals.createRentals(List.of(new NewRental(1_000L, 2_000L, friendIds.get(0), toolIds.get(0))));
+
+        // Drop the entities the listings cached, so that the lookups by id query the database
+        EntityCache.getAll().forEach(EntityCache::invalidateAll);
+        Tool rented = tools.getById(tool.getId());
+        Friend found = friends.getById(friend.getId());
+        Rental rental = rentals.getById(rented.getCurrentRental().getId());
+
+        tools.listAll(false);
+        tools.listAll(true);
+        ToolPageKey key = tools.skipPage(false, null, 1);
+        tools.listPage(false, key, 10);
+        tools.skipPage(true, key, 1);
+        tools.listPage(true, null, 10);
+        tools.search("fura", false, 0, 10);
+        tools.search("fura", true, 0, 10);
+        tools.countSearch("fura", false);
+        tools.countSearch("fura", true);
+        tools.countAndSumCostByUser();
+        tools.isToolRented(tool.getId());
+        tools.isAnyToolRentedByFriend(found);
+
+        friends.countByUser();
+        friends.listAll();
+        friends.search("ana", 0, 10);
+        friends.countSearch("ana");
+        friends.findRentalSummary();
+        friends.friendHasToolRented(friend.getId());
+
+        rentals.countBorrowedByUser();
+        rentals.listAll();
+        for (RentalReportFilter filter : List.of(
+                new RentalReportFilter(null, null, null),
+                new RentalReportFilter(0L, System.currentTimeMillis() + 1, null),
+                new RentalReportFilter(null, null, friend.getId())
+        )) {
+            try (ResultCursor<?> report = rentals.openReport(filter)) {
+                while (report.read() != null) {
+                    // Read to the end
+                }
+            }
+        }
+
+        UserStatsRepository stats = new UserStatsRepository();
+        stats.getByUser();
+        stats.listMismatches();
+        stats.rebuild();
+
+        rentals.updateDevolutionTimestamp(rental, System.currentTimeMillis());
+        tools.updateTool(other, "Makita", "Serra circular", Money.ofCents(32_000));
+        friends.updateFriend(friend.getId(), "Ana Maria", "5551234", "123.456.789-00", user);
+        tools.rebuildSearchIndex();
+        friends.rebuildSearchIndex();
+        tools.deleteTool(other);
+        friends.deleteFriend(friendIds.get(0));
+    }
+}